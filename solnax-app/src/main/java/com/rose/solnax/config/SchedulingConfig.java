@@ -0,0 +1,33 @@
+package com.rose.solnax.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Two schedulers: the default one ({@code spring.task.scheduling}) runs sampling and power logging, and
+ * {@value #STORAGE} runs database maintenance ({@code @Scheduled(scheduler = SchedulingConfig.STORAGE)}).
+ * During a database outage every maintenance job blocks for the connection timeout; on their own pool they
+ * cannot starve the 1 Hz sampler or the 5-minute logging job, which keep feeding the journal.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String STORAGE = "storageScheduler";
+
+    /** The default scheduler as Boot would build it; declaring a second one would otherwise replace it. */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(STORAGE)
+    public ThreadPoolTaskScheduler storageScheduler(@Value("${solnax.storage.scheduler.pool-size:2}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("storage-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,60 @@
+package com.rose.solnax.controllers;
+
+import com.rose.solnax.model.dto.EnergyBalanceDTO;
+import com.rose.solnax.model.entity.enums.BalancePeriod;
+import com.rose.solnax.model.repository.EnergyBalanceRepository;
+import com.rose.solnax.process.energy.EnergyBalanceTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/** Self-consumption, autarky and export ratios per day, week and month. */
+@RestController
+@RequestMapping("/api/energy/balance")
+@RequiredArgsConstructor
+public class EnergyBalanceController {
+
+    private final EnergyBalanceTracker energyBalanceTracker;
+    private final EnergyBalanceRepository energyBalanceRepository;
+
+    /** The running day, week and month, from memory. */
+    @GetMapping("/current")
+    public ResponseEntity<List<EnergyBalanceDTO>> getCurrent() {
+        return ResponseEntity.ok(Arrays.stream(BalancePeriod.values())
+                .map(energyBalanceTracker::current)
+                .toList());
+    }
+
+    /** {@code /day?from=2025-06-01&to=2025-07-01}: stored periods starting in {@code [from, to)}, the last 12 by default. */
+    @GetMapping("/{period}")
+    public ResponseEntity<List<EnergyBalanceDTO>> getHistory(@PathVariable("period") String periodName,
+                                                             @RequestParam("from") Optional<LocalDate> fromOpt,
+                                                             @RequestParam("to") Optional<LocalDate> toOpt) {
+        BalancePeriod period;
+        try {
+            period = BalancePeriod.parse(periodName);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate to = toOpt.orElseGet(() -> period.next(period.start(LocalDate.now())));
+        LocalDate from = fromOpt.orElseGet(() -> {
+            LocalDate start = period.start(to.minusDays(1));
+            for (int i = 1; i < 12; i++) start = period.start(start.minusDays(1));
+            return start;
+        });
+        if (!from.isBefore(to)) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(energyBalanceRepository
+                .findByPeriodAndStartGreaterThanEqualAndStartLessThanOrderByStart(period, from, to).stream()
+                .map(EnergyBalanceDTO::from)
+                .toList());
+    }
+}
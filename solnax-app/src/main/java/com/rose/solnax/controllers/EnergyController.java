@@ -0,0 +1,50 @@
+package com.rose.solnax.controllers;
+
+import com.rose.solnax.model.dto.EnergySummary;
+import com.rose.solnax.process.energy.DailyEnergyManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/** Energy totals from {@code daily_energy}; today is included up to the last integration run. */
+@RestController
+@RequestMapping("/api/energy")
+@RequiredArgsConstructor
+public class EnergyController {
+
+    private final DailyEnergyManager dailyEnergyManager;
+
+    /** {@code ?date=2025-06-01}, today by default. */
+    @GetMapping("/day")
+    public ResponseEntity<EnergySummary> getDay(@RequestParam("date") Optional<LocalDate> dateOpt) {
+        LocalDate date = dateOpt.orElseGet(LocalDate::now);
+        return ResponseEntity.ok(dailyEnergyManager.summary(date, date.plusDays(1), "day"));
+    }
+
+    /** {@code ?month=2025-06}, per day; this month by default. */
+    @GetMapping("/month")
+    public ResponseEntity<EnergySummary> getMonth(@RequestParam("month") Optional<String> monthOpt) {
+        try {
+            YearMonth month = monthOpt.map(YearMonth::parse).orElseGet(YearMonth::now);
+            return ResponseEntity.ok(dailyEnergyManager.summary(month.atDay(1), month.plusMonths(1).atDay(1), "day"));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /** {@code ?year=2025}, per month; this year by default. */
+    @GetMapping("/year")
+    public ResponseEntity<EnergySummary> getYear(@RequestParam("year") Optional<Integer> yearOpt) {
+        Year year = yearOpt.map(Year::of).orElseGet(Year::now);
+        return ResponseEntity.ok(dailyEnergyManager.summary(year.atDay(1), year.plusYears(1).atDay(1), "month"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.rose.solnax.controllers;
+
+import com.rose.solnax.model.dto.ImportJobDTO;
+import com.rose.solnax.process.backfill.BackfillImporter;
+import com.rose.solnax.process.backfill.ImportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/power/imports")
+@RequiredArgsConstructor
+public class PowerImportController {
+
+    private final BackfillImporter backfillImporter;
+
+    /**
+     * Loads historical values from the request body as import {@code id}; sending the same file again resumes it.
+     * E.g. {@code curl -T export.csv -H 'Content-Type: text/csv' '.../api/power/imports/solaredge-2023?map=Production:solar'};
+     * {@code scale=1000} converts kW inputs, {@code map=Column:-} skips a column. Columns that are neither a known
+     * channel nor mapped reject the upload.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ImportJobDTO> upload(@PathVariable("id") String id,
+                                               @RequestParam("format") Optional<String> formatOpt,
+                                               @RequestParam("scale") Optional<Double> scaleOpt,
+                                               @RequestParam("map") Optional<List<String>> mapOpt,
+                                               @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                               InputStream body) {
+        try {
+            ImportFormat format = formatOpt.map(ImportFormat::parse).orElseGet(() -> ImportFormat.fromContentType(contentType));
+            return ResponseEntity.ok(ImportJobDTO.from(backfillImporter.importLines(id, format, body,
+                    scaleOpt.orElse(1.0), BackfillImporter.renames(mapOpt.orElse(List.of())))));
+        } catch (IllegalArgumentException e) {
+            return backfillImporter.find(id)
+                    .map(job -> ResponseEntity.badRequest().body(ImportJobDTO.from(job)))
+                    .orElseGet(() -> ResponseEntity.badRequest().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return backfillImporter.find(id)
+                    .map(job -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ImportJobDTO.from(job)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        }
+    }
+
+    /** Progress of a running import, or the result of a finished one. */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDTO> getImport(@PathVariable("id") String id) {
+        return backfillImporter.find(id)
+                .map(job -> ResponseEntity.ok(ImportJobDTO.from(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
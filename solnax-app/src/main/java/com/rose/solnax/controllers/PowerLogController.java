@@ -1,16 +1,34 @@
 package com.rose.solnax.controllers;
 
+import com.rose.solnax.model.dto.ColumnarPowerLogs;
 import com.rose.solnax.model.dto.InstantPower;
-import com.rose.solnax.model.dto.PowerLogs;
+import com.rose.solnax.model.dto.PowerHistory;
+import com.rose.solnax.model.dto.RecentPowerLogs;
+import com.rose.solnax.model.entity.enums.Aggregation;
+import com.rose.solnax.process.PowerDayCache;
+import com.rose.solnax.process.PowerHistoryManager;
 import com.rose.solnax.process.PowerLogManager;
+import com.rose.solnax.process.export.ExportFormat;
+import com.rose.solnax.process.export.PowerExporter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -18,15 +36,103 @@ import java.util.Optional;
 public class PowerLogController {
 
     private final PowerLogManager powerLogManager;
+    private final PowerHistoryManager powerHistoryManager;
+    private final PowerExporter powerExporter;
+    private final PowerDayCache powerDayCache;
 
+    /**
+     * The 5-minute slots of one day. JSON lists by default; {@value ColumnarPowerLogs#JSON} or
+     * {@value ColumnarPowerLogs#BINARY} in {@code Accept} selects the compact columnar form.
+     * Past days are served from {@link PowerDayCache} with a strong ETag, the current day with a weak ETag of its
+     * latest interval; a matching {@code If-None-Match} is answered with 304. Both are {@code no-cache}: replays
+     * and imports still change past days, and a browser holding a body for long would never see it.
+     */
     @GetMapping("/api/power")
-    public PowerLogs getPowerLogOnDay(@RequestParam("onDate") Optional<LocalDate> onDateOpt){
-        LocalDateTime start;
-        LocalDateTime stop;
+    public ResponseEntity<byte[]> getPowerLogOnDay(@RequestParam("onDate") Optional<LocalDate> onDateOpt,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                   WebRequest request){
         LocalDate onDate = onDateOpt.orElseGet(LocalDate::now);
-        start = onDate.atTime(LocalTime.of(0,0));
-        stop = onDate.plusDays(1).atTime(LocalTime.of(0,0));
-        return powerLogManager.getPowerLogDTOForPeriod(start,stop);
+        PowerDayCache.Encoding encoding = encoding(accept);
+
+        PowerDayCache.Body body;
+        if (powerDayCache.isClosed(onDate)) {
+            body = powerDayCache.closedDay(onDate, encoding);
+        } else {
+            String etag = powerDayCache.openDayTag(onDate, encoding);
+            if (etag != null && request.checkNotModified(etag)) return null;
+            body = powerDayCache.openDay(onDate, encoding);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(body.contentType())
+                .cacheControl(CacheControl.noCache());
+        if (body.etag() != null) response.eTag(body.etag());
+        return response.body(body.bytes());
+    }
+
+    /** The columnar encoding listed first in {@code accept}, plain JSON when none is. */
+    private static PowerDayCache.Encoding encoding(String accept) {
+        if (accept == null || !accept.contains(ColumnarPowerLogs.BINARY)) return PowerDayCache.Encoding.JSON;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                String value = type.getType() + "/" + type.getSubtype();
+                if (value.equals(ColumnarPowerLogs.JSON)) return PowerDayCache.Encoding.COLUMNAR_JSON;
+                if (value.equals(ColumnarPowerLogs.BINARY)) return PowerDayCache.Encoding.COLUMNAR_BINARY;
+            }
+        } catch (InvalidMediaTypeException e) {
+            return PowerDayCache.Encoding.JSON;
+        }
+        return PowerDayCache.Encoding.JSON;
+    }
+
+    /**
+     * Channel values in {@code [from, to)}, bucketed by the database, e.g.
+     * {@code ?from=2025-01-01T00:00&to=2025-02-01T00:00&resolution=1h&agg=max}. {@code resolution} takes
+     * multiples of the 5m storage interval ({@code 5m/15m/1h/1d}) or ISO durations and defaults to the finest
+     * one within the point limit;
+     * {@code agg} is one of {@code avg} (default), {@code min}, {@code max}, {@code sum} or {@code energy} (Wh).
+     */
+    @GetMapping("/api/power/history")
+    public ResponseEntity<PowerHistory> getPowerHistory(@RequestParam("from") LocalDateTime from,
+                                                        @RequestParam("to") LocalDateTime to,
+                                                        @RequestParam("resolution") Optional<String> resolutionOpt,
+                                                        @RequestParam("agg") Optional<String> aggOpt){
+        try {
+            Duration step = resolutionOpt.map(DurationStyle::detectAndParse).orElse(null);
+            Aggregation agg = aggOpt.map(Aggregation::parse).orElse(Aggregation.AVG);
+            return ResponseEntity.ok(powerHistoryManager.getHistory(from, to, step, agg));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Streams raw values in {@code [from, to)} as a download, e.g.
+     * {@code ?from=2023-01-01T00:00&to=2026-01-01T00:00&channels=solar,grid&format=binary}. All channels by default.
+     */
+    @GetMapping("/api/power/export")
+    public ResponseEntity<StreamingResponseBody> exportPower(@RequestParam("from") LocalDateTime from,
+                                                             @RequestParam("to") LocalDateTime to,
+                                                             @RequestParam("channels") Optional<List<String>> channelsOpt,
+                                                             @RequestParam("format") Optional<String> formatOpt){
+        ExportFormat format;
+        List<String> columns;
+        try {
+            format = formatOpt.map(ExportFormat::parse).orElse(ExportFormat.CSV);
+            columns = powerExporter.columns(channelsOpt.orElse(List.of()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String filename = "power_" + from.toLocalDate() + "_" + to.toLocalDate() + "." + format.extension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> powerExporter.export(from, to, columns, format, out));
+    }
+
+    @GetMapping("/api/power/recent")
+    public RecentPowerLogs getRecentPowerLogs(@RequestParam("window") Optional<Duration> windowOpt){
+        return powerLogManager.getRecentPowerLogs(windowOpt.orElse(Duration.ofMinutes(15)));
     }
 
     @GetMapping("/api/power/current")
@@ -17,6 +17,8 @@ public class ChargeSessionDTO {
     private LocalDateTime startedAt;
     private LocalDateTime endedAt;
     private Double energyChargedKwh;
+    private Double energySolarKwh;
+    private Double energyGridKwh;
     private Integer ampsSet;
     private ChargeSessionStatus status;
 
@@ -27,6 +29,8 @@ public class ChargeSessionDTO {
                 .startedAt(session.getStartedAt())
                 .endedAt(session.getEndedAt())
                 .energyChargedKwh(session.getEnergyChargedKwh())
+                .energySolarKwh(session.getEnergySolarKwh())
+                .energyGridKwh(session.getEnergyGridKwh())
                 .ampsSet(session.getAmpsSet())
                 .status(session.getStatus())
                 .build();
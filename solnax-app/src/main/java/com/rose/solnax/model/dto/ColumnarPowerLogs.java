@@ -0,0 +1,109 @@
+package com.rose.solnax.model.dto;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact form of {@link PowerLogs}: slot {@code i} starts at {@code start + i * step} seconds, and every channel
+ * is a presence bitmap plus the deltas between its present values, so empty nights cost a few bytes.
+ * Served for {@value #JSON} (the bitmap as base64) and {@value #BINARY}, see {@link #toBinary()}.
+ */
+@Getter
+public class ColumnarPowerLogs {
+
+    public static final String JSON = "application/vnd.solnax.columnar+json";
+    public static final String BINARY = "application/vnd.solnax.columnar";
+
+    static final int VERSION = 1;
+
+    LocalDateTime start;
+    /** Slot length in seconds. */
+    int step;
+    int count;
+    Map<String, Column> channels = new LinkedHashMap<>();
+
+    public ColumnarPowerLogs(LocalDateTime start, int step, int count) {
+        this.start = start;
+        this.step = step;
+        this.count = count;
+    }
+
+    /** Adds a channel from one value per slot, {@code absent} where there is none. */
+    public void add(String channel, int[] values, int absent) {
+        channels.put(channel, Column.of(values, absent));
+    }
+
+    @Getter
+    public static class Column {
+
+        /** Slot {@code i} has a value when bit {@code i % 8} of byte {@code i / 8} is set. */
+        byte[] present;
+        /** Present values in slot order, each minus the one before (the first minus 0). */
+        int[] deltas;
+
+        static Column of(int[] values, int absent) {
+            Column column = new Column();
+            column.present = new byte[(values.length + 7) / 8];
+            int n = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != absent) {
+                    column.present[i >> 3] |= (byte) (1 << (i & 7));
+                    n++;
+                }
+            }
+            column.deltas = new int[n];
+            int previous = 0;
+            int k = 0;
+            for (int value : values) {
+                if (value == absent) continue;
+                column.deltas[k++] = value - previous;
+                previous = value;
+            }
+            return column;
+        }
+    }
+
+    /**
+     * Little endian:
+     * <pre>
+     * u8 version (1), i64 start (epoch seconds of the local wall clock read as UTC), i32 step, i32 count,
+     * u16 channels, then per channel: u16 name length + UTF-8 name, presence bitmap of ceil(count / 8) bytes,
+     *                                 u32 number of values, zig-zag LEB128 varint deltas
+     * </pre>
+     */
+    public byte[] toBinary() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + channels.size() * (count / 8 + count));
+        ByteBuffer header = ByteBuffer.allocate(19).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) VERSION)
+                .putLong(start.toEpochSecond(ZoneOffset.UTC))
+                .putInt(step)
+                .putInt(count)
+                .putShort((short) channels.size());
+        out.write(header.array(), 0, header.position());
+        ByteBuffer scratch = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        channels.forEach((channel, column) -> {
+            byte[] name = channel.getBytes(StandardCharsets.UTF_8);
+            out.write(scratch.clear().putShort((short) name.length).array(), 0, 2);
+            out.write(name, 0, name.length);
+            out.write(column.present, 0, column.present.length);
+            out.write(scratch.clear().putInt(column.deltas.length).array(), 0, 4);
+            for (int delta : column.deltas) {
+                int v = (delta << 1) ^ (delta >> 31);
+                while ((v & ~0x7F) != 0) {
+                    out.write((v & 0x7F) | 0x80);
+                    v >>>= 7;
+                }
+                out.write(v);
+            }
+        });
+        return out.toByteArray();
+    }
+}
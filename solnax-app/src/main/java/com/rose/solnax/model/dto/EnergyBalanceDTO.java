@@ -0,0 +1,49 @@
+package com.rose.solnax.model.dto;
+
+import com.rose.solnax.model.entity.EnergyBalance;
+import com.rose.solnax.model.entity.enums.BalancePeriod;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Energy balance of a period in Wh with its ratios, null where undefined (no production or consumption):
+ * {@code selfConsumption} is the share of solar used on site, {@code autarky} the share of consumption covered
+ * by solar, {@code exportRatio} the share of solar fed into the grid.
+ */
+@Getter
+@Builder
+public class EnergyBalanceDTO {
+
+    private BalancePeriod period;
+    private LocalDate start;
+    private long solarWh;
+    private long importWh;
+    private long exportWh;
+    private long consumptionWh;
+    private Double selfConsumption;
+    private Double autarky;
+    private Double exportRatio;
+    private double coveredHours;
+    private boolean closed;
+
+    public static EnergyBalanceDTO from(EnergyBalance balance) {
+        double solar = balance.getSolarWh();
+        double exported = Math.min(balance.getExportWh(), solar);
+        double consumption = solar - exported + balance.getImportWh();
+        return EnergyBalanceDTO.builder()
+                .period(balance.getPeriod())
+                .start(balance.getStart())
+                .solarWh(Math.round(solar))
+                .importWh(Math.round(balance.getImportWh()))
+                .exportWh(Math.round(balance.getExportWh()))
+                .consumptionWh(Math.round(consumption))
+                .selfConsumption(solar > 0 ? (solar - exported) / solar : null)
+                .autarky(consumption > 0 ? (solar - exported) / consumption : null)
+                .exportRatio(solar > 0 ? exported / solar : null)
+                .coveredHours(balance.getCoveredSeconds() / 3600.0)
+                .closed(balance.isClosed())
+                .build();
+    }
+}
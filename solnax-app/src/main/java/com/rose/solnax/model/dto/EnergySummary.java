@@ -0,0 +1,32 @@
+package com.rose.solnax.model.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Energy in Wh per channel over {@code [from, to)}, in total and per period (day or month).
+ * The grid is reported as {@code grid_import} and {@code grid_export}.
+ */
+@Getter
+@Builder
+public class EnergySummary {
+
+    private LocalDate from;
+    private LocalDate to;
+    private Map<String, Long> totals;
+    private List<Period> periods;
+
+    @Getter
+    @Builder
+    public static class Period {
+
+        private LocalDate start;
+        private Map<String, Long> wh;
+        /** Hours of the period with samples to integrate between; less than the period's length means gaps. */
+        private double coveredHours;
+    }
+}
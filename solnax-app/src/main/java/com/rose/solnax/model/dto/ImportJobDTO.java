@@ -0,0 +1,45 @@
+package com.rose.solnax.model.dto;
+
+import com.rose.solnax.model.entity.ImportJob;
+import com.rose.solnax.model.entity.enums.ImportJobState;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+public class ImportJobDTO {
+
+    private String id;
+    private String format;
+    private ImportJobState state;
+    private long linesCommitted;
+    private long rowsRead;
+    private long rowsInserted;
+    private long rowsDuplicate;
+    private long linesRejected;
+    private LocalDateTime firstTime;
+    private LocalDateTime lastTime;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private String message;
+
+    public static ImportJobDTO from(ImportJob job) {
+        return ImportJobDTO.builder()
+                .id(job.getId())
+                .format(job.getFormat())
+                .state(job.getState())
+                .linesCommitted(job.getLinesCommitted())
+                .rowsRead(job.getRowsRead())
+                .rowsInserted(job.getRowsInserted())
+                .rowsDuplicate(job.getRowsRead() - job.getRowsInserted())
+                .linesRejected(job.getLinesRejected())
+                .firstTime(job.getFirstTime())
+                .lastTime(job.getLastTime())
+                .startedAt(job.getStartedAt())
+                .updatedAt(job.getUpdatedAt())
+                .message(job.getMessage())
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.rose.solnax.model.dto;
+
+import com.rose.solnax.model.entity.enums.Aggregation;
+import com.rose.solnax.model.entity.enums.Resolution;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Channel values over an arbitrary range, one list per channel aligned with {@code times} (bucket starts).
+ * Only buckets holding data are listed. {@code step} is the bucket length, {@code agg} how values were
+ * combined, {@code resolution} which storage level answered the query.
+ */
+@Getter
+public class PowerHistory {
+
+    Duration step;
+    Aggregation agg;
+    Resolution resolution;
+    List<LocalDateTime> times = new ArrayList<>();
+    Map<String, List<Integer>> channels = new LinkedHashMap<>();
+
+    public PowerHistory(Duration step, Aggregation agg, Resolution resolution) {
+        this.step = step;
+        this.agg = agg;
+        this.resolution = resolution;
+    }
+}
@@ -5,7 +5,9 @@ import lombok.Getter;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Getter
 public class PowerLogs {
@@ -17,6 +19,7 @@ public class PowerLogs {
         charger = new ArrayList<>();
         heater = new ArrayList<>();
         kitchen = new ArrayList<>();
+        channels = new LinkedHashMap<>();
     }
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
@@ -27,4 +30,7 @@ public class PowerLogs {
     List<Integer> heater;
     List<Integer> kitchen;
 
+    /** Every stored and derived channel, aligned with {@code times}; the fixed lists above are a subset. */
+    Map<String, List<Integer>> channels;
+
 }
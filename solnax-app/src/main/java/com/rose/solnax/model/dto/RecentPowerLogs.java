@@ -0,0 +1,42 @@
+package com.rose.solnax.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.rose.solnax.process.sampling.SampleRingBuffer;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw high frequency samples of the last minutes, one list per channel aligned with {@code times}.
+ * Missing samples are null, like in {@link PowerLogs}.
+ */
+@Getter
+public class RecentPowerLogs {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+    List<LocalTime> times = new ArrayList<>();
+    Map<String, List<Integer>> channels = new LinkedHashMap<>();
+
+    public static RecentPowerLogs from(SampleRingBuffer.Series series) {
+        RecentPowerLogs logs = new RecentPowerLogs();
+        ZoneId zone = ZoneId.systemDefault();
+        for (long t : series.times()) {
+            logs.times.add(LocalTime.ofInstant(Instant.ofEpochMilli(t), zone));
+        }
+        for (String channel : series.channels()) {
+            double[] values = series.values(channel);
+            List<Integer> out = new ArrayList<>(values.length);
+            for (double v : values) {
+                out.add(Double.isNaN(v) ? null : (int) Math.round(v));
+            }
+            logs.channels.put(channel, out);
+        }
+        return logs;
+    }
+}
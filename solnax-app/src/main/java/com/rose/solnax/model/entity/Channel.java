@@ -0,0 +1,40 @@
+package com.rose.solnax.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A measured quantity (grid, solar, one Shelly device, ...). Values live in the narrow
+ * {@code measurement} table keyed by this id.
+ */
+@Entity
+@Table(name = "channel")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Channel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "name", nullable = false, unique = true)
+    private String name;
+
+    @Column(name = "unit", nullable = false)
+    private String unit;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
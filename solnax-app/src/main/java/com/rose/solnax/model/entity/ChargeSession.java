@@ -39,6 +39,24 @@ public class ChargeSession {
     @Column(name = "energy_charged_kwh")
     private Double energyChargedKwh;
 
+    /** Cumulative counter of the charger meter at the start and end of the session. */
+    @Column(name = "meter_start_wh")
+    private Double meterStartWh;
+
+    @Column(name = "meter_end_wh")
+    private Double meterEndWh;
+
+    /** Part of {@code energyChargedKwh} drawn while solar covered it. */
+    @Column(name = "energy_solar_kwh")
+    private Double energySolarKwh;
+
+    @Column(name = "energy_grid_kwh")
+    private Double energyGridKwh;
+
+    /** True when {@code energyChargedKwh} comes from the meter's counters, false when integrated from logged power. */
+    @Column(name = "energy_metered")
+    private Boolean energyMetered;
+
     @Column(name = "amps_set")
     private Integer ampsSet;
 
@@ -0,0 +1,61 @@
+package com.rose.solnax.model.entity;
+
+import com.rose.solnax.model.entity.enums.BalancePeriod;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** Energy balance of one day, week or month; see {@code EnergyBalanceTracker}. */
+@Entity
+@Table(name = "energy_balance")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnergyBalance {
+
+    /** {@code period:start}, see {@link #idOf}. */
+    @Id
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", nullable = false)
+    private BalancePeriod period;
+
+    @Column(name = "start", nullable = false)
+    private LocalDate start;
+
+    @Column(name = "solar_wh", nullable = false)
+    private double solarWh;
+
+    @Column(name = "import_wh", nullable = false)
+    private double importWh;
+
+    @Column(name = "export_wh", nullable = false)
+    private double exportWh;
+
+    /** Seconds of the period between intervals close enough to integrate. */
+    @Column(name = "covered_seconds", nullable = false)
+    private long coveredSeconds;
+
+    /** The period is over; its values no longer change. */
+    @Column(name = "closed", nullable = false)
+    private boolean closed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static String idOf(BalancePeriod period, LocalDate start) {
+        return period + ":" + start;
+    }
+}
@@ -0,0 +1,69 @@
+package com.rose.solnax.model.entity;
+
+import com.rose.solnax.model.entity.enums.ImportJobState;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one bulk import of historical measurements, keyed by a name the client picks.
+ * Uploading the same file again under the same id skips the first {@code linesCommitted} lines.
+ */
+@Entity
+@Table(name = "import_job")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJob {
+
+    @Id
+    private String id;
+
+    @Column(name = "format", nullable = false)
+    private String format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false)
+    private ImportJobState state;
+
+    /** Input lines (header included) whose rows are in the database. */
+    @Column(name = "lines_committed", nullable = false)
+    private long linesCommitted;
+
+    /** Channel values parsed from committed lines. */
+    @Column(name = "rows_read", nullable = false)
+    private long rowsRead;
+
+    /** Values that were new; the rest already existed. */
+    @Column(name = "rows_inserted", nullable = false)
+    private long rowsInserted;
+
+    @Column(name = "lines_rejected", nullable = false)
+    private long linesRejected;
+
+    @Column(name = "first_time")
+    private LocalDateTime firstTime;
+
+    @Column(name = "last_time")
+    private LocalDateTime lastTime;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /** First rejected line or the failure. */
+    @Column(name = "message")
+    private String message;
+}
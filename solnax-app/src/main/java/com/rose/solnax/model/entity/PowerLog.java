@@ -1,9 +1,6 @@
 package com.rose.solnax.model.entity;
 
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,31 +9,35 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
-@Entity
+/**
+ * Wide view of one interval over the fixed channels the optimizer and dashboard know about.
+ * Not persisted itself: every channel is stored as a row in {@code measurement}.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class PowerLog {
 
-    @Id
     private LocalDateTime time;
 
-    @Column(name="solar")
     private Integer solar;
 
-    @Column(name="house")
+    /** Grid power, positive when importing. */
     private Integer house;
 
-    @Column(name="heater")
     private Integer heater;
 
-    @Column(name="charger")
     private Integer charger;
 
-    @Column(name="kitchen")
     private Integer kitchen;
 
+    /**
+     * True when grid or charger power is not a fresh reading (last known value or missing).
+     * The optimizer skips decisions on stale inputs.
+     */
+    private boolean stale;
+
 
 
     @Override
@@ -0,0 +1,58 @@
+package com.rose.solnax.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Per-channel statistics of the high frequency samples behind one power_log row.
+ * {@code time} is the end of the 5-minute window and matches the {@code measurement} rows written with it.
+ */
+@Entity
+@Table(name = "power_log_stats")
+@IdClass(PowerLogStats.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PowerLogStats {
+
+    @Id
+    private LocalDateTime time;
+
+    @Id
+    @Column(name = "channel")
+    private String channel;
+
+    @Column(name = "mean")
+    private Integer mean;
+
+    @Column(name = "min")
+    private Integer min;
+
+    @Column(name = "max")
+    private Integer max;
+
+    @Column(name = "last")
+    private Integer last;
+
+    @Column(name = "samples")
+    private Integer samples;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDateTime time;
+        private String channel;
+    }
+}
@@ -0,0 +1,48 @@
+package com.rose.solnax.model.entity.enums;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * How the values of one channel in one time bucket are combined. Each constant knows its SQL over raw
+ * {@code measurement} values and over rollup columns, so buckets are computed by the database either way.
+ */
+public enum Aggregation {
+
+    /** Mean power in W. */
+    AVG("avg(value)", "sum(sum)::double precision / nullif(sum(count), 0)"),
+    MIN("min(value)", "min(min)"),
+    MAX("max(value)", "max(max)"),
+    /** Plain sum of the stored values. */
+    SUM("sum(value)", "sum(sum)"),
+    /** Energy in Wh: mean power times the bucket length, so gaps count at the bucket's mean. */
+    ENERGY("avg(value)", "sum(sum)::double precision / nullif(sum(count), 0)");
+
+    private final String rawExpression;
+    private final String rollupExpression;
+
+    Aggregation(String rawExpression, String rollupExpression) {
+        this.rawExpression = rawExpression;
+        this.rollupExpression = rollupExpression;
+    }
+
+    /** SQL over the {@code value} column of {@code measurement}. */
+    public String rawExpression() {
+        return rawExpression;
+    }
+
+    /** SQL over the {@code sum/count/min/max} columns of a rollup table. */
+    public String rollupExpression() {
+        return rollupExpression;
+    }
+
+    /** The reported value of a bucket from what the SQL expression returned. */
+    public double value(double aggregated, Duration bucket) {
+        return this == ENERGY ? aggregated * bucket.toSeconds() / 3600.0 : aggregated;
+    }
+
+    /** Case-insensitive, e.g. {@code avg}. */
+    public static Aggregation parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
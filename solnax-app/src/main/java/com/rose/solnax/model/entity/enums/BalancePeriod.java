@@ -0,0 +1,36 @@
+package com.rose.solnax.model.entity.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/** Calendar periods energy balances are kept for; weeks start on Monday. */
+public enum BalancePeriod {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /** First day of the period containing {@code day}. */
+    public LocalDate start(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    /** First day of the period after the one starting at {@code start}. */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+
+    /** Case-insensitive, e.g. {@code week}. */
+    public static BalancePeriod parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
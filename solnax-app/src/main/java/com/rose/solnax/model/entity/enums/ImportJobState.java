@@ -0,0 +1,7 @@
+package com.rose.solnax.model.entity.enums;
+
+public enum ImportJobState {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,40 @@
+package com.rose.solnax.model.entity.enums;
+
+import java.time.Duration;
+
+/**
+ * Storage resolutions of measurement data, finest first. {@code table} is where a resolution is read from.
+ */
+public enum Resolution {
+    RAW(Duration.ofMinutes(5), "measurement"),
+    HOUR(Duration.ofHours(1), "measurement_rollup_hour"),
+    DAY(Duration.ofDays(1), "measurement_rollup_day");
+
+    private final Duration bucket;
+    private final String table;
+
+    Resolution(Duration bucket, String table) {
+        this.bucket = bucket;
+        this.table = table;
+    }
+
+    public Duration bucket() {
+        return bucket;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    /**
+     * Coarsest resolution that buckets of {@code step} can be built from: one whose buckets divide the step,
+     * so none straddles a boundary. There is no month level: months vary in length, so no fixed step is built
+     * from them.
+     */
+    public static Resolution sourceFor(Duration step) {
+        for (Resolution resolution : new Resolution[]{DAY, HOUR}) {
+            if (step.toSeconds() % resolution.bucket.toSeconds() == 0) return resolution;
+        }
+        return RAW;
+    }
+}
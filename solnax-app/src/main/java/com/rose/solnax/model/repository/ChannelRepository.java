@@ -0,0 +1,13 @@
+package com.rose.solnax.model.repository;
+
+import com.rose.solnax.model.entity.Channel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChannelRepository extends JpaRepository<Channel, Integer> {
+
+    Optional<Channel> findByName(String name);
+}
@@ -0,0 +1,49 @@
+package com.rose.solnax.model.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/** Per-channel energy of whole days, see {@code daily_energy}. */
+@Repository
+@RequiredArgsConstructor
+public class DailyEnergyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Energy of one channel on one day (or summed over a period starting at {@code day}). */
+    public record Row(LocalDate day, String channel, long positiveWh, long negativeWh, long coveredSeconds) {}
+
+    /** Replaces the rows of {@code day}; channels without a row in {@code rows} are removed. */
+    public void replaceDay(LocalDate day, List<Row> rows) {
+        jdbcTemplate.update("delete from daily_energy where day = ?", Date.valueOf(day));
+        jdbcTemplate.batchUpdate(
+                "insert into daily_energy(day, channel, positive_wh, negative_wh, covered_seconds) values (?, ?, ?, ?, ?)",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setDate(1, Date.valueOf(row.day()));
+                    ps.setString(2, row.channel());
+                    ps.setLong(3, row.positiveWh());
+                    ps.setLong(4, row.negativeWh());
+                    ps.setLong(5, row.coveredSeconds());
+                });
+    }
+
+    /**
+     * Rows of {@code [from, to)} summed per channel and {@code unit} ({@code day}, {@code month} or {@code year}),
+     * ordered by period start.
+     */
+    public List<Row> sumBy(String unit, LocalDate from, LocalDate to) {
+        if (!List.of("day", "month", "year").contains(unit)) {
+            throw new IllegalArgumentException("Unknown unit " + unit);
+        }
+        return jdbcTemplate.query(
+                "select date_trunc('" + unit + "', day)::date, channel, sum(positive_wh), sum(negative_wh), sum(covered_seconds) " +
+                        "from daily_energy where day >= ? and day < ? group by 1, 2 order by 1, 2",
+                (rs, i) -> new Row(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+}
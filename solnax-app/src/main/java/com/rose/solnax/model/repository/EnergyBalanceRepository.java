@@ -0,0 +1,18 @@
+package com.rose.solnax.model.repository;
+
+import com.rose.solnax.model.entity.EnergyBalance;
+import com.rose.solnax.model.entity.enums.BalancePeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EnergyBalanceRepository extends JpaRepository<EnergyBalance, String> {
+
+    List<EnergyBalance> findByClosedFalse();
+
+    /** Periods with {@code from <= start < to}. */
+    List<EnergyBalance> findByPeriodAndStartGreaterThanEqualAndStartLessThanOrderByStart(BalancePeriod period, LocalDate from, LocalDate to);
+}
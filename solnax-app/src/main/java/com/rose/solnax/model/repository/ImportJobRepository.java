@@ -0,0 +1,9 @@
+package com.rose.solnax.model.repository;
+
+import com.rose.solnax.model.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+}
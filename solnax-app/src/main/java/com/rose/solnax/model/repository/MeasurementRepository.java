@@ -0,0 +1,108 @@
+package com.rose.solnax.model.repository;
+
+import com.rose.solnax.model.entity.enums.Aggregation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Narrow time series: one {@code (time, channel_id, value)} row per channel and interval.
+ * Plain JDBC rather than JPA: rows are written in batches (rewritten into multi-row inserts by the
+ * driver, see {@code reWriteBatchedInserts}) and read back as flat rows without entity overhead.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MeasurementRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** One stored value. */
+    public record Row(LocalDateTime time, int channelId, Integer value) {}
+
+    /** One aggregated bucket of one channel. */
+    public record Bucket(LocalDateTime time, int channelId, double value) {
+        static final RowMapper<Bucket> MAPPER = (rs, i) ->
+                new Bucket(rs.getTimestamp(1).toLocalDateTime(), rs.getInt(2), rs.getDouble(3));
+    }
+
+    /** Writes rows as one batch; a row written twice keeps its first value, so replays are harmless. */
+    public void insert(List<Row> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+                "insert into measurement(time, channel_id, value) values (?, ?, ?) on conflict do nothing",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(row.time()));
+                    ps.setInt(2, row.channelId());
+                    ps.setObject(3, row.value(), Types.INTEGER);
+                });
+    }
+
+    /** Rows with {@code start <= time <= stop}, ordered by time. */
+    public List<Row> findBetween(LocalDateTime start, LocalDateTime stop) {
+        return jdbcTemplate.query(
+                "select time, channel_id, value from measurement where time between ? and ? order by time, channel_id",
+                (rs, i) -> new Row(rs.getTimestamp(1).toLocalDateTime(), rs.getInt(2), (Integer) rs.getObject(3)),
+                Timestamp.valueOf(start), Timestamp.valueOf(stop));
+    }
+
+    /**
+     * {@code agg} of the non-null values per channel in buckets of {@code step} over {@code [start, stop)},
+     * ordered by bucket. Buckets are aligned to midnight of the start day.
+     */
+    public List<Bucket> aggregate(LocalDateTime start, LocalDateTime stop, Duration step, Aggregation agg) {
+        return jdbcTemplate.query(
+                "select date_bin(?::interval, time, ?), channel_id, " + agg.rawExpression() +
+                        " from measurement where time >= ? and time < ? and value is not null" +
+                        " group by 1, 2 order by 1, 2",
+                Bucket.MAPPER,
+                step.toSeconds() + " seconds", Timestamp.valueOf(start.toLocalDate().atStartOfDay()),
+                Timestamp.valueOf(start), Timestamp.valueOf(stop));
+    }
+
+    /**
+     * Streams rows with {@code start <= time < stop} of the given channels (all when empty), ordered by time,
+     * through a server-side cursor of {@code fetchSize} rows. Call inside a transaction: the driver only uses
+     * a cursor with autocommit off, otherwise it buffers the whole result.
+     */
+    public void stream(LocalDateTime start, LocalDateTime stop, Collection<Integer> channelIds, int fetchSize,
+                       Consumer<Row> consumer) {
+        String sql = "select time, channel_id, value from measurement where time >= ? and time < ?"
+                + (channelIds.isEmpty() ? "" : " and channel_id = any(?)")
+                + " order by time, channel_id";
+        RowCallbackHandler handler = rs -> consumer.accept(
+                new Row(rs.getTimestamp(1).toLocalDateTime(), rs.getInt(2), (Integer) rs.getObject(3)));
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(start));
+            ps.setTimestamp(2, Timestamp.valueOf(stop));
+            if (!channelIds.isEmpty()) ps.setArray(3, con.createArrayOf("integer", channelIds.toArray()));
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Fills {@code slots} with the non-null values in its range, straight from the result set:
+     * no row objects, times arrive as epoch seconds. Rows come in time order, so a slot holding several
+     * (e.g. imported 1-minute data) gets its earliest value, as from {@code RecentMeasurementCache}.
+     */
+    public void fill(MeasurementSlots slots) {
+        jdbcTemplate.query(
+                "select floor(extract(epoch from time))::bigint, channel_id, value from measurement " +
+                        "where time >= ? and time < ? and value is not null order by time",
+                (RowCallbackHandler) rs -> slots.put(rs.getLong(1), rs.getInt(2), rs.getInt(3)),
+                Timestamp.valueOf(slots.start()), Timestamp.valueOf(slots.stop()));
+    }
+}
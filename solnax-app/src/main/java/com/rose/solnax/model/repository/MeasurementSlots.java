@@ -0,0 +1,81 @@
+package com.rose.solnax.model.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Measurements of a range laid out as one {@code int[]} per channel, indexed by slot number and filled
+ * straight from a result set. Slot {@code i} covers {@code [start + i * slot, start + (i + 1) * slot)};
+ * the first value landing in a slot wins, and callers fill in time order, so that is the slot's earliest value.
+ * Channel ids map to columns through a lookup table, so filling allocates nothing per row.
+ */
+public final class MeasurementSlots {
+
+    /** Marks a slot without a value. */
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    private final LocalDateTime start;
+    private final LocalDateTime stop;
+    private final long startSecond;
+    private final int slotSeconds;
+    private final int slots;
+
+    private int[] columnOfChannel = new int[0];
+    private int[] channelOfColumn = new int[8];
+    private int[][] values = new int[8][];
+    private int columns;
+
+    public MeasurementSlots(LocalDateTime start, LocalDateTime stop, Duration slot) {
+        this.start = start;
+        this.stop = stop;
+        this.startSecond = start.toEpochSecond(ZoneOffset.UTC);
+        this.slotSeconds = (int) slot.toSeconds();
+        this.slots = (int) ((stop.toEpochSecond(ZoneOffset.UTC) - startSecond + slotSeconds - 1) / slotSeconds);
+    }
+
+    public LocalDateTime start() { return start; }
+    public LocalDateTime stop() { return stop; }
+    public int slots() { return slots; }
+    public int columns() { return columns; }
+    public int channelId(int column) { return channelOfColumn[column]; }
+
+    /** Values of a column by slot, {@link #ABSENT} where nothing was stored. */
+    public int[] values(int column) { return values[column]; }
+
+    public LocalDateTime time(int slot) {
+        return start.plusSeconds((long) slot * slotSeconds);
+    }
+
+    /** Stores a value at {@code epochSecond} (local wall clock read as UTC); ignored outside the range. */
+    public void put(long epochSecond, int channelId, int value) {
+        long offset = epochSecond - startSecond;
+        if (offset < 0) return;
+        long slot = offset / slotSeconds;
+        if (slot >= slots) return;
+        int[] column = column(channelId);
+        if (column[(int) slot] == ABSENT) column[(int) slot] = value;
+    }
+
+    private int[] column(int channelId) {
+        if (channelId >= columnOfChannel.length) {
+            int from = columnOfChannel.length;
+            columnOfChannel = Arrays.copyOf(columnOfChannel, Math.max(channelId + 1, from * 2));
+            Arrays.fill(columnOfChannel, from, columnOfChannel.length, -1);
+        }
+        int column = columnOfChannel[channelId];
+        if (column < 0) {
+            if (columns == values.length) {
+                values = Arrays.copyOf(values, columns * 2);
+                channelOfColumn = Arrays.copyOf(channelOfColumn, columns * 2);
+            }
+            column = columns++;
+            columnOfChannel[channelId] = column;
+            channelOfColumn[column] = channelId;
+            values[column] = new int[slots];
+            Arrays.fill(values[column], ABSENT);
+        }
+        return values[column];
+    }
+}
@@ -0,0 +1,14 @@
+package com.rose.solnax.model.repository;
+
+import com.rose.solnax.model.entity.PowerLogStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PowerLogStatsRepository extends JpaRepository<PowerLogStats, PowerLogStats.Key> {
+
+    List<PowerLogStats> findByTimeBetweenOrderByTimeAsc(LocalDateTime start, LocalDateTime stop);
+}
@@ -0,0 +1,111 @@
+package com.rose.solnax.model.repository;
+
+import com.rose.solnax.model.entity.enums.Aggregation;
+import com.rose.solnax.model.entity.enums.Resolution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hour/day rollups of {@code measurement}. Refreshing a range recomputes its buckets from the finer
+ * level and overwrites them, so it is idempotent and also picks up rows that arrived late.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RollupRepository {
+
+    private static final String UPSERT = " on conflict (bucket, channel_id) do update set " +
+            "sum = excluded.sum, count = excluded.count, min = excluded.min, max = excluded.max, avg = excluded.avg";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** One rollup bucket of one channel. */
+    public record Row(LocalDateTime bucket, int channelId, long sum, int count, Integer min, Integer max, Double avg) {}
+
+    /** Recomputes hour buckets in {@code [from, to)} from raw measurements; both bounds hour aligned. */
+    public int refreshHours(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update(
+                "insert into measurement_rollup_hour(bucket, channel_id, sum, count, min, max, avg) " +
+                        "select date_trunc('hour', time), channel_id, sum(value), count(value), min(value), max(value), avg(value) " +
+                        "from measurement where time >= ? and time < ? and value is not null group by 1, 2" + UPSERT,
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /** Recomputes day buckets in {@code [from, to)} from hour buckets; both bounds day aligned. */
+    public int refreshDays(LocalDateTime from, LocalDateTime to) {
+        return refreshFrom("measurement_rollup_hour", "measurement_rollup_day", "day", from, to);
+    }
+
+    private int refreshFrom(String source, String target, String unit, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update(
+                "insert into " + target + "(bucket, channel_id, sum, count, min, max, avg) " +
+                        "select date_trunc('" + unit + "', bucket), channel_id, sum(sum), sum(count), min(min), max(max), " +
+                        "sum(sum)::double precision / nullif(sum(count), 0) " +
+                        "from " + source + " where bucket >= ? and bucket < ? group by 1, 2" + UPSERT,
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /** Buckets with {@code start <= bucket < stop}, ordered by bucket. */
+    public List<Row> findBetween(Resolution resolution, LocalDateTime start, LocalDateTime stop) {
+        if (resolution == Resolution.RAW) {
+            throw new IllegalArgumentException("Raw data is read from MeasurementRepository");
+        }
+        return jdbcTemplate.query(
+                "select bucket, channel_id, sum, count, min, max, avg from " + resolution.table() +
+                        " where bucket >= ? and bucket < ? order by bucket, channel_id",
+                (rs, i) -> new Row(rs.getTimestamp(1).toLocalDateTime(), rs.getInt(2), rs.getLong(3), rs.getInt(4),
+                        (Integer) rs.getObject(5), (Integer) rs.getObject(6), (Double) rs.getObject(7)),
+                Timestamp.valueOf(start), Timestamp.valueOf(stop));
+    }
+
+    /**
+     * {@code agg} per channel in buckets of {@code step} over {@code [start, stop)}, built from the rollups of
+     * {@code resolution}; {@code step} must be a multiple of its bucket. Same alignment and rows as
+     * {@link MeasurementRepository#aggregate}.
+     */
+    public List<MeasurementRepository.Bucket> aggregate(Resolution resolution, LocalDateTime start, LocalDateTime stop,
+                                                        Duration step, Aggregation agg) {
+        if (resolution == Resolution.RAW) {
+            throw new IllegalArgumentException("Raw data is read from MeasurementRepository");
+        }
+        return jdbcTemplate.query(
+                "select date_bin(?::interval, bucket, ?), channel_id, " + agg.rollupExpression() +
+                        " from " + resolution.table() + " where bucket >= ? and bucket < ?" +
+                        " group by 1, 2 order by 1, 2",
+                MeasurementRepository.Bucket.MAPPER,
+                step.toSeconds() + " seconds", Timestamp.valueOf(start.toLocalDate().atStartOfDay()),
+                Timestamp.valueOf(start), Timestamp.valueOf(stop));
+    }
+
+    // -------------------------------------------------------------------------
+    // Watermark
+    // -------------------------------------------------------------------------
+
+    public Optional<LocalDateTime> watermark(String name) {
+        return jdbcTemplate.query("select time from rollup_watermark where name = ?",
+                        (rs, i) -> rs.getTimestamp(1).toLocalDateTime(), name)
+                .stream().findFirst();
+    }
+
+    public void setWatermark(String name, LocalDateTime time) {
+        jdbcTemplate.update("insert into rollup_watermark(name, time) values (?, ?) " +
+                "on conflict (name) do update set time = excluded.time", name, Timestamp.valueOf(time));
+    }
+
+    public Optional<LocalDateTime> lastMeasurement() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("select max(time) from measurement", Timestamp.class))
+                .map(Timestamp::toLocalDateTime);
+    }
+
+    /** Oldest raw measurement, where a first catch-up starts. */
+    public Optional<LocalDateTime> firstMeasurement() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("select min(time) from measurement", Timestamp.class))
+                .map(Timestamp::toLocalDateTime);
+    }
+}
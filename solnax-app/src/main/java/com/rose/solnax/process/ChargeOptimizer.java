@@ -32,9 +32,17 @@ public class ChargeOptimizer {
      *
      * Formula: availablePower = chargerCurrentDraw - gridExchange - buffer
      *   (grid is positive when importing, negative when exporting)
+     *
+     * Stale inputs (inverter or charger meter unreachable) skip the cycle entirely:
+     * better to keep the current state than to start/stop on a last known value.
      */
     @Transactional
     public void optimize(PowerLog lastLog) {
+        if (lastLog.isStale()) {
+            log.warn("Skipping optimization, grid/charger readings are stale: {}", lastLog);
+            return;
+        }
+
         // Clear per-cycle vehicle data cache to get fresh readings
         if (chargePoint instanceof TeslaWallCharger wallCharger) {
             wallCharger.clearCycleCache();
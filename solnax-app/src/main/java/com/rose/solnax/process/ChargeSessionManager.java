@@ -5,6 +5,7 @@ import com.rose.solnax.model.entity.enums.ChargeSessionStatus;
 import com.rose.solnax.model.repository.ChargeSessionRepository;
 import com.rose.solnax.process.adapters.chargepoints.tesla.TeslaBLEAdapter;
 import com.rose.solnax.process.adapters.chargepoints.tesla.model.VehicleApiResponse;
+import com.rose.solnax.process.energy.ChargeSessionEnergy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,10 +22,11 @@ public class ChargeSessionManager {
 
     private final ChargeSessionRepository chargeSessionRepository;
     private final TeslaBLEAdapter bleAdapter;
+    private final ChargeSessionEnergy chargeSessionEnergy;
 
     /**
      * Start a new charge session for the given VIN.
-     * Reads the current energy_added from the car to establish a baseline.
+     * Reads the current energy_added from the car and the charger meter's counter to establish a baseline.
      */
     @Transactional
     public ChargeSession startSession(String vin, VehicleApiResponse vehicleData) {
@@ -50,6 +52,7 @@ public class ChargeSessionManager {
                 .vin(vin)
                 .startedAt(LocalDateTime.now())
                 .energyStartKwh(energyStart)
+                .meterStartWh(chargeSessionEnergy.readMeterWh())
                 .status(ChargeSessionStatus.ACTIVE)
                 .build();
 
@@ -60,7 +63,8 @@ public class ChargeSessionManager {
 
     /**
      * End an active charge session for the given VIN.
-     * Reads energy_added to compute total charged.
+     * Charged energy comes from the charger meter, split into solar and grid; the car's energy_added
+     * (when vehicle data is given) is only used when the meter has nothing for the session.
      */
     @Transactional
     public void endSession(String vin, VehicleApiResponse vehicleData) {
@@ -86,9 +90,27 @@ public class ChargeSessionManager {
         } catch (Exception e) {
             log.warn("Could not read energy_added for session end of {}", vin);
         }
+        accountEnergy(session);
 
         chargeSessionRepository.save(session);
-        log.info("Ended charge session for VIN {}: charged {}kWh", vin, session.getEnergyChargedKwh());
+        log.info("Ended charge session for VIN {}: charged {}kWh (solar {}kWh, grid {}kWh)", vin,
+                session.getEnergyChargedKwh(), session.getEnergySolarKwh(), session.getEnergyGridKwh());
+    }
+
+    /** Sets the charged energy and its solar/grid split of an ended session from the charger meter. */
+    private void accountEnergy(ChargeSession session) {
+        try {
+            session.setMeterEndWh(chargeSessionEnergy.readMeterWh());
+            ChargeSessionEnergy.Split split = chargeSessionEnergy.measure(session.getStartedAt(), session.getEndedAt(),
+                    session.getMeterStartWh(), session.getMeterEndWh());
+            if (split == null) return;
+            session.setEnergyChargedKwh(split.totalKwh());
+            session.setEnergySolarKwh(split.solarKwh());
+            session.setEnergyGridKwh(split.gridKwh());
+            session.setEnergyMetered(split.metered());
+        } catch (RuntimeException e) {
+            log.warn("Could not measure energy of charge session {}: {}", session.getId(), e.getMessage());
+        }
     }
 
     /**
@@ -112,6 +134,7 @@ public class ChargeSessionManager {
                 .ifPresent(session -> {
                     session.setEndedAt(LocalDateTime.now());
                     session.setStatus(ChargeSessionStatus.ABORTED);
+                    accountEnergy(session);
                     chargeSessionRepository.save(session);
                     log.info("Aborted charge session for VIN {}", vin);
                 });
@@ -3,9 +3,12 @@ package com.rose.solnax.process;
 import com.rose.solnax.model.entity.PowerLog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -14,16 +17,20 @@ public class JobManager {
     private final PowerLogManager powerLogManager;
     private final ChargeOptimizer chargeOptimizer;
 
+    @Value("${solnax.sampling.high-frequency.optimizer-window:1m}")
+    private Duration optimizerWindow;
+
     /**
      * Single job during daylight: logs power (TX1), then immediately optimizes (TX2).
-     * No 1-minute delay needed — the freshly saved PowerLog is passed directly.
+     * The optimizer works on the mean of the last minute of high frequency samples when
+     * available, so it reacts to the current surplus rather than the 5-minute average.
      */
     @Scheduled(cron = "0 */5 5-22 * * *")
     void logAndOptimize() {
         PowerLog powerLog = powerLogManager.logPower();
         log.info("Logged power log: {}", powerLog);
 
-        chargeOptimizer.optimize(powerLog);
+        chargeOptimizer.optimize(powerLogManager.getRecentPowerLog(optimizerWindow).orElse(powerLog));
     }
 
     /**
@@ -0,0 +1,71 @@
+package com.rose.solnax.process;
+
+import com.rose.solnax.model.entity.PowerLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The last {@code size} logged intervals, newest last, kept in memory for reads that must not touch the database.
+ *
+ * Writers replace an immutable snapshot under a lock; readers only dereference a volatile field, so
+ * {@link #latest()} and {@link #last(int)} never block and always see a consistent window.
+ * The published {@link PowerLog}s are shared and must be treated as read-only.
+ */
+@Component
+public class LatestPowerLogs {
+
+    private final int size;
+    private volatile List<PowerLog> window = List.of();
+
+    public LatestPowerLogs(@Value("${solnax.power-log.recent-window:12}") int size) {
+        this.size = Math.max(1, size);
+    }
+
+    /** Publishes a newly logged interval; an interval older than the latest one is ignored. */
+    public synchronized void publish(PowerLog log) {
+        List<PowerLog> current = window;
+        if (!current.isEmpty() && log.getTime().isBefore(current.get(current.size() - 1).getTime())) return;
+        List<PowerLog> next = new ArrayList<>(Math.min(current.size() + 1, size));
+        int skip = current.size() + 1 - size;
+        for (int i = Math.max(0, skip); i < current.size(); i++) {
+            next.add(current.get(i));
+        }
+        next.add(log);
+        window = List.copyOf(next);
+    }
+
+    /** Replaces the window, e.g. with intervals read back from the database on startup. */
+    public synchronized void reset(Collection<PowerLog> logs) {
+        List<PowerLog> sorted = logs.stream()
+                .sorted(Comparator.comparing(PowerLog::getTime))
+                .toList();
+        List<PowerLog> current = window;
+        List<PowerLog> next = new ArrayList<>(sorted.subList(Math.max(0, sorted.size() - size), sorted.size()));
+        // Published while the caller was loading: newer than anything it read
+        for (PowerLog log : current) {
+            if (next.isEmpty() || log.getTime().isAfter(next.get(next.size() - 1).getTime())) next.add(log);
+        }
+        window = List.copyOf(next.subList(Math.max(0, next.size() - size), next.size()));
+    }
+
+    /** The most recent interval, or null before the first one. */
+    public PowerLog latest() {
+        List<PowerLog> current = window;
+        return current.isEmpty() ? null : current.get(current.size() - 1);
+    }
+
+    /** Up to {@code n} most recent intervals, oldest first. */
+    public List<PowerLog> last(int n) {
+        List<PowerLog> current = window;
+        return current.subList(Math.max(0, current.size() - n), current.size());
+    }
+
+    public int size() {
+        return size;
+    }
+}
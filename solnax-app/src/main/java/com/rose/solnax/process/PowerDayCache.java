@@ -0,0 +1,143 @@
+package com.rose.solnax.process;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rose.solnax.model.dto.ColumnarPowerLogs;
+import com.rose.solnax.model.entity.PowerLog;
+import com.rose.solnax.process.storage.MeasurementsChanged;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Serialized {@code /api/power} responses of closed days, which only change when late rows arrive.
+ *
+ * Bodies are kept as bytes per day and {@link Encoding}, bounded by {@code max-bytes} in total, and carry a
+ * strong ETag over their content. The current day is never cached; its weak ETag follows the latest logged
+ * interval, so a client polling between two intervals is answered without reading anything.
+ * Entries of days touched by a {@link MeasurementsChanged} are dropped.
+ */
+@Component
+public class PowerDayCache {
+
+    /** Response bodies {@code /api/power} can produce. */
+    public enum Encoding {
+        JSON(MediaType.APPLICATION_JSON),
+        COLUMNAR_JSON(MediaType.parseMediaType(ColumnarPowerLogs.JSON)),
+        COLUMNAR_BINARY(MediaType.parseMediaType(ColumnarPowerLogs.BINARY));
+
+        private final MediaType contentType;
+
+        Encoding(MediaType contentType) {
+            this.contentType = contentType;
+        }
+
+        public MediaType contentType() {
+            return contentType;
+        }
+    }
+
+    /** A serialized response; {@code closed} when it is kept here and only changes with late rows. */
+    public record Body(byte[] bytes, String etag, MediaType contentType, boolean closed) {}
+
+    private record Key(LocalDate day, Encoding encoding) {}
+
+    private final PowerLogManager powerLogManager;
+    private final LatestPowerLogs latestPowerLogs;
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Body> closedDays;
+
+    public PowerDayCache(PowerLogManager powerLogManager,
+                         LatestPowerLogs latestPowerLogs,
+                         ObjectMapper objectMapper,
+                         MeterRegistry registry,
+                         @Value("${solnax.power-cache.max-bytes:16777216}") long maxBytes) {
+        this.powerLogManager = powerLogManager;
+        this.latestPowerLogs = latestPowerLogs;
+        this.objectMapper = objectMapper;
+        this.closedDays = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Body body) -> body.bytes().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, closedDays, "power_days");
+    }
+
+    public boolean isClosed(LocalDate day) {
+        return day.isBefore(LocalDate.now());
+    }
+
+    /** The body of a closed day, from the cache when present. */
+    public Body closedDay(LocalDate day, Encoding encoding) {
+        return closedDays.get(new Key(day, encoding), key -> {
+            byte[] bytes = serialize(day, encoding);
+            return new Body(bytes, "\"" + day + '-' + encoding.name().toLowerCase(Locale.ROOT) + '-' + digest(bytes) + '"',
+                    encoding.contentType(), true);
+        });
+    }
+
+    /**
+     * Weak ETag of an open day's response, or null before anything was logged. Only the current day changes
+     * with new intervals; later days stay empty until then.
+     */
+    public String openDayTag(LocalDate day, Encoding encoding) {
+        PowerLog latest = latestPowerLogs.latest();
+        if (latest == null) return null;
+        return "W/\"" + day + '-' + encoding.name().toLowerCase(Locale.ROOT) + '-' + latest.getTime().toEpochSecond(ZoneOffset.UTC) + '"';
+    }
+
+    /** The body of an open day, always read fresh. */
+    public Body openDay(LocalDate day, Encoding encoding) {
+        // Tagged before reading: an interval logged meanwhile must not be claimed by a body lacking it
+        String etag = openDayTag(day, encoding);
+        return new Body(serialize(day, encoding), etag, encoding.contentType(), false);
+    }
+
+    @EventListener
+    public void onMeasurementsChanged(MeasurementsChanged changed) {
+        LocalDate from = changed.from().toLocalDate();
+        LocalDate to = changed.to().toLocalDate();
+        closedDays.asMap().keySet().removeIf(key -> !key.day().isBefore(from) && !key.day().isAfter(to));
+    }
+
+    // -------------------------------------------------------------------------
+
+    private byte[] serialize(LocalDate day, Encoding encoding) {
+        LocalDateTime start = day.atTime(LocalTime.MIN);
+        LocalDateTime stop = day.plusDays(1).atTime(LocalTime.MIN);
+        try {
+            return switch (encoding) {
+                case JSON -> objectMapper.writeValueAsBytes(powerLogManager.getPowerLogDTOForPeriod(start, stop));
+                case COLUMNAR_JSON -> objectMapper.writeValueAsBytes(powerLogManager.getColumnarPowerLogsForPeriod(start, stop));
+                case COLUMNAR_BINARY -> powerLogManager.getColumnarPowerLogsForPeriod(start, stop).toBinary();
+            };
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.rose.solnax.process;
+
+import com.rose.solnax.model.dto.PowerHistory;
+import com.rose.solnax.model.entity.enums.Aggregation;
+import com.rose.solnax.model.entity.enums.Resolution;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.RollupRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.channels.EnergyFlow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Range queries over measurement data, bucketed by the database: {@code date_bin} groups raw rows, or the
+ * coarsest rollup whose buckets fit the step, so a year at daily resolution reads ~365 day buckets per
+ * channel instead of ~105,000 raw rows, and the response never holds more than {@code max-points} buckets.
+ */
+@Component
+public class PowerHistoryManager {
+
+    /**
+     * Steps picked when none is requested, finest first. Nothing is finer than the storage interval: shorter
+     * buckets would mostly be empty, and an energy bucket would only count its one sample for its own length.
+     */
+    static final List<Duration> STEPS = List.of(Resolution.RAW.bucket(), Duration.ofMinutes(15),
+            Duration.ofHours(1), Duration.ofDays(1), Duration.ofDays(7));
+
+    private final MeasurementRepository measurementRepository;
+    private final RollupRepository rollupRepository;
+    private final ChannelRegistry channelRegistry;
+    private final EnergyFlow energyFlow;
+    private final int maxPoints;
+
+    public PowerHistoryManager(MeasurementRepository measurementRepository,
+                               RollupRepository rollupRepository,
+                               ChannelRegistry channelRegistry,
+                               EnergyFlow energyFlow,
+                               @Value("${solnax.history.max-points:1500}") int maxPoints) {
+        this.measurementRepository = measurementRepository;
+        this.rollupRepository = rollupRepository;
+        this.channelRegistry = channelRegistry;
+        this.energyFlow = energyFlow;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * {@code agg} per channel in buckets of {@code step} over {@code [from, to)}; without a step the finest
+     * of {@link #STEPS} that stays within {@code max-points} buckets.
+     * @throws IllegalArgumentException for an empty range, a step that is not a multiple of the storage interval
+     *                                  or one producing too many buckets
+     */
+    @Transactional(readOnly = true)
+    public PowerHistory getHistory(LocalDateTime from, LocalDateTime to, Duration step, Aggregation agg) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Empty range " + from + " - " + to);
+        }
+        Duration range = Duration.between(from, to);
+        if (step == null) {
+            step = stepFor(range);
+        } else if (step.isZero() || step.isNegative() || step.toSeconds() % Resolution.RAW.bucket().toSeconds() != 0) {
+            throw new IllegalArgumentException("Step must be a multiple of " + Resolution.RAW.bucket() + ": " + step);
+        } else if (buckets(range, step) > maxPoints) {
+            throw new IllegalArgumentException(buckets(range, step) + " buckets of " + step + " exceed " + maxPoints);
+        }
+
+        Resolution level = Resolution.sourceFor(step);
+        List<MeasurementRepository.Bucket> rows = level == Resolution.RAW
+                ? measurementRepository.aggregate(from, to, step, agg)
+                : rollupRepository.aggregate(level, from, to, step, agg);
+
+        // bucket -> channel -> value
+        Map<LocalDateTime, Map<String, Double>> buckets = new TreeMap<>();
+        for (MeasurementRepository.Bucket row : rows) {
+            String channel = channelRegistry.nameOf(row.channelId());
+            if (channel == null) continue;
+            buckets.computeIfAbsent(row.time(), t -> new LinkedHashMap<>()).put(channel, agg.value(row.value(), step));
+        }
+        return toHistory(new PowerHistory(step, agg, level), buckets, agg);
+    }
+
+    Duration stepFor(Duration range) {
+        for (Duration step : STEPS) {
+            if (buckets(range, step) <= maxPoints) return step;
+        }
+        // Longer than STEPS cover: whole weeks
+        long weeks = (buckets(range, Duration.ofDays(7)) + maxPoints - 1) / maxPoints;
+        return Duration.ofDays(7 * weeks);
+    }
+
+    private static long buckets(Duration range, Duration step) {
+        // +1: a range not aligned to midnight touches one more bucket
+        return range.toSeconds() / step.toSeconds() + 1;
+    }
+
+    /**
+     * Derived channels are computed from each bucket's aggregates of the stored channels. That only means something
+     * for means ({@code avg}, {@code energy}); the min, max or sum of another channel does not combine into the
+     * min, max or sum of a derived one, so derived channels are left out for those.
+     *
+     * Even for means this is an approximation: a formula such as {@code max(0, ...)} applied to bucket means is
+     * not the mean of the formula over the intervals of the bucket. It is exact while the clamp does not engage
+     * within a bucket, and drifts where it does, more so for hour and day buckets read from rollups.
+     * {@code daily_energy} integrates derived channels per interval where exact totals are needed.
+     */
+    private PowerHistory toHistory(PowerHistory history, Map<LocalDateTime, Map<String, Double>> buckets, Aggregation agg) {
+        Set<String> stored = new LinkedHashSet<>();
+        buckets.values().forEach(values -> stored.addAll(values.keySet()));
+        Set<String> derived = agg == Aggregation.AVG || agg == Aggregation.ENERGY ? energyFlow.derivedChannels() : Set.of();
+        stored.forEach(channel -> history.getChannels().put(channel, new ArrayList<>(buckets.size())));
+        derived.forEach(channel -> history.getChannels().put(channel, new ArrayList<>(buckets.size())));
+
+        buckets.forEach((time, values) -> {
+            history.getTimes().add(time);
+            for (String channel : stored) {
+                Double value = values.get(channel);
+                history.getChannels().get(channel).add(value == null ? null : (int) Math.round(value));
+            }
+            for (String channel : derived) {
+                double value = energyFlow.derived(channel, c -> values.getOrDefault(c, 0.0));
+                history.getChannels().get(channel).add((int) Math.round(value));
+            }
+        });
+        return history;
+    }
+}
@@ -1,89 +1,214 @@
 package com.rose.solnax.process;
 
 
+import com.rose.solnax.model.dto.ColumnarPowerLogs;
 import com.rose.solnax.model.dto.InstantPower;
 import com.rose.solnax.model.dto.PowerLogs;
+import com.rose.solnax.model.dto.RecentPowerLogs;
 import com.rose.solnax.model.entity.PowerLog;
-import com.rose.solnax.model.repository.PowerLogRepository;
-import com.rose.solnax.process.adapters.chargepoints.tesla.TWCManagerAdapter;
-import com.rose.solnax.process.adapters.meters.IPowerMeter;
-import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Client;
-import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Registry;
+import com.rose.solnax.model.entity.PowerLogStats;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.MeasurementSlots;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.channels.EnergyFlow;
+import com.rose.solnax.process.energy.EnergyBalanceTracker;
+import com.rose.solnax.process.sampling.HighFrequencySampler;
+import com.rose.solnax.process.sampling.MeterSample;
+import com.rose.solnax.process.sampling.MeterSampler;
+import com.rose.solnax.process.sampling.WindowStats;
+import com.rose.solnax.process.storage.MeasurementWriter;
+import com.rose.solnax.process.storage.RecentMeasurementCache;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class PowerLogManager {
 
-    private final IPowerMeter inverter;
-    public final PowerLogRepository powerLogRepository;
-    private final ShellyEm3Registry registry;
+    /** Length of the window behind one power_log row, matches the JobManager cron. */
+    private static final Duration LOG_INTERVAL = Duration.ofMinutes(5);
 
+    private static final String CHARGER = "charger";
+    private static final String HEATER = "heater";
+    private static final String KITCHEN = "kitchen";
+    /** Derived channel shown as "house" on the dashboard, see solnax.energy-flow.derived. */
+    private static final String HOUSE = "house";
 
-    @Transactional(readOnly = true)
-    public PowerLog getLastPowerLog() {
-        List<PowerLog> logs = powerLogRepository.findByTimeGreaterThanOrderByTimeDesc(LocalDateTime.now().minusMinutes(5));
-        if (!logs.isEmpty()) {
-            return logs.get(0);
+    private final MeasurementRepository measurementRepository;
+    private final MeasurementWriter measurementWriter;
+    private final RecentMeasurementCache recentMeasurements;
+    private final ChannelRegistry channelRegistry;
+    private final EnergyFlow energyFlow;
+    private final MeterSampler meterSampler;
+    private final HighFrequencySampler highFrequencySampler;
+    private final LatestPowerLogs latestPowerLogs;
+    private final EnergyBalanceTracker energyBalanceTracker;
+
+
+    /** Registers every channel a sample or the energy flow can hold, so logging never has to. */
+    @PostConstruct
+    public void registerChannels() {
+        Set<String> channels = new LinkedHashSet<>(meterSampler.channels());
+        channels.addAll(energyFlow.storedChannels());
+        channelRegistry.registerAll(channels);
+    }
+
+    /**
+     * Rebuilds the in-memory window of recent intervals from the database. When that fails the window
+     * fills up again as intervals are logged.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLatestPowerLogs() {
+        LocalDateTime now = LocalDateTime.now();
+        List<MeasurementRepository.Row> rows;
+        try {
+            rows = measurementRepository.findBetween(now.minus(LOG_INTERVAL.multipliedBy(latestPowerLogs.size() + 1L)), now);
+        } catch (RuntimeException e) {
+            log.warn("Could not load recent power logs, starting with an empty window: {}", e.getMessage());
+            return;
+        }
+        Map<LocalDateTime, Map<String, Integer>> intervals = new LinkedHashMap<>();
+        for (MeasurementRepository.Row row : rows) {
+            String channel = channelRegistry.nameOf(row.channelId());
+            if (channel != null && row.value() != null) {
+                intervals.computeIfAbsent(row.time(), time -> new HashMap<>()).put(channel, row.value());
+            }
         }
-        return null;
+        List<PowerLog> logs = new ArrayList<>(intervals.size());
+        intervals.forEach((time, stored) -> logs.add(fromStored(time, channel -> stored.getOrDefault(channel, 0), false)));
+        latestPowerLogs.reset(logs);
     }
 
-    @Transactional(readOnly = true)
+    /** The interval logged within the last 5 minutes, or null; served from memory. */
+    public PowerLog getLastPowerLog() {
+        PowerLog latest = latestPowerLogs.latest();
+        return latest != null && latest.getTime().isAfter(LocalDateTime.now().minus(LOG_INTERVAL)) ? latest : null;
+    }
+
+    /**
+     * Up to {@code n} most recently logged intervals, oldest first, at most {@code solnax.power-log.recent-window};
+     * served from memory. The entries are shared, do not modify them.
+     */
+    public List<PowerLog> getLastPowerLogs(int n) {
+        return latestPowerLogs.last(n);
+    }
+
+    /**
+     * 5-minute slots of {@code [start, stop)}, recent days from the in-memory cache, older ones from the database.
+     * Values go straight into per-channel int arrays; boxing happens once, for the DTO.
+     */
     public PowerLogs getPowerLogDTOForPeriod(LocalDateTime start, LocalDateTime stop) {
-        List<PowerLog> actualLogs = powerLogRepository.findByTimeBetweenOrderByTimeAsc(start, stop);
-
-        // 1. Convert actual logs into a Map for quick lookup (key: LocalTime)
-        Map<LocalTime, PowerLog> logMap = actualLogs.stream()
-                .collect(Collectors.toMap(
-                        log -> log.getTime().toLocalTime().withNano(0).withSecond(0),
-                        Function.identity(),
-                        (existing, replacement) -> existing // Handle duplicates if they exist
-                ));
-
-        // 2. Generate all 5-minute intervals for the day
-        LocalTime dayStart = LocalTime.MIN; // 00:00
-        int totalIntervals = 288; // (24 * 60) / 5
-
-        PowerLogs paddedLogs = new PowerLogs();
-
-        Stream.iterate(dayStart, time -> time.plusMinutes(5))
-                .limit(totalIntervals)
-                .forEach(currentTime -> {
-                    paddedLogs.getTimes().add(currentTime);
-
-                    PowerLog actual = logMap.get(currentTime);
-                    if (actual != null) {
-                        // Data exists for this slot
-                        int house = actual.getSolar() + actual.getHouse() - actual.getCharger() - actual.getKitchen() - actual.getHeater();
-                        paddedLogs.getSolar().add(actual.getSolar());
-                        paddedLogs.getHouse().add(Math.max(house, 0));
-                        paddedLogs.getCharger().add(actual.getCharger());
-                        paddedLogs.getHeater().add(actual.getHeater());
-                        paddedLogs.getKitchen().add(actual.getKitchen());
-                    }else{
-                        paddedLogs.getSolar().add(null);
-                        paddedLogs.getHouse().add(null);
-                        paddedLogs.getCharger().add(null);
-                        paddedLogs.getHeater().add(null);
-                        paddedLogs.getKitchen().add(null);
-                    }
-                });
-
-        return paddedLogs;
+        return toPowerLogs(readSlots(start, stop), channelRegistry::nameOf, energyFlow);
+    }
+
+    /** Same slots as {@link #getPowerLogDTOForPeriod}, without boxing at all. */
+    public ColumnarPowerLogs getColumnarPowerLogsForPeriod(LocalDateTime start, LocalDateTime stop) {
+        MeasurementSlots slots = readSlots(start, stop);
+        ColumnarPowerLogs logs = new ColumnarPowerLogs(start, (int) LOG_INTERVAL.toSeconds(), slots.slots());
+        channelValues(slots, channelRegistry::nameOf, energyFlow)
+                .forEach((channel, values) -> logs.add(channel, values, MeasurementSlots.ABSENT));
+        return logs;
+    }
+
+    private MeasurementSlots readSlots(LocalDateTime start, LocalDateTime stop) {
+        MeasurementSlots slots = new MeasurementSlots(start, stop, LOG_INTERVAL);
+        if (recentMeasurements.covers(start)) {
+            recentMeasurements.fill(slots);
+        } else {
+            measurementRepository.fill(slots);
+        }
+        return slots;
+    }
+
+    static PowerLogs toPowerLogs(MeasurementSlots slots, IntFunction<String> channelNames, EnergyFlow energyFlow) {
+        int n = slots.slots();
+        Map<String, int[]> values = channelValues(slots, channelNames, energyFlow);
+
+        // Box once into the DTO
+        PowerLogs logs = new PowerLogs();
+        for (int i = 0; i < n; i++) {
+            logs.getTimes().add(slots.time(i).toLocalTime());
+        }
+        values.forEach((channel, channelValues) -> logs.getChannels().put(channel, boxed(channelValues)));
+
+        // The fixed series the dashboard charts
+        Map<String, List<Integer>> channels = logs.getChannels();
+        logs.getSolar().addAll(series(channels, MeterSampler.SOLAR, n));
+        logs.getHouse().addAll(series(channels, HOUSE, n));
+        logs.getCharger().addAll(series(channels, CHARGER, n));
+        logs.getHeater().addAll(series(channels, HEATER, n));
+        logs.getKitchen().addAll(series(channels, KITCHEN, n));
+        return logs;
+    }
+
+    /** Stored channels in order of appearance, then derived ones; {@link MeasurementSlots#ABSENT} where empty. */
+    static Map<String, int[]> channelValues(MeasurementSlots slots, IntFunction<String> channelNames, EnergyFlow energyFlow) {
+        int n = slots.slots();
+
+        // 1. Stored channels, and which slots have any value at all
+        Map<String, int[]> stored = new LinkedHashMap<>();
+        boolean[] measured = new boolean[n];
+        for (int c = 0; c < slots.columns(); c++) {
+            String channel = channelNames.apply(slots.channelId(c));
+            if (channel == null) continue;
+            int[] values = slots.values(c);
+            stored.put(channel, values);
+            for (int i = 0; i < n; i++) {
+                if (values[i] != MeasurementSlots.ABSENT) measured[i] = true;
+            }
+        }
+
+        // 2. Derived channels for every slot with data
+        Map<String, int[]> all = new LinkedHashMap<>(stored);
+        for (String channel : energyFlow.derivedChannels()) {
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                int slot = i;
+                values[i] = measured[i]
+                        ? (int) energyFlow.derived(channel, c -> storedOrZero(stored.get(c), slot))
+                        : MeasurementSlots.ABSENT;
+            }
+            all.put(channel, values);
+        }
+        return all;
+    }
+
+    private static int storedOrZero(int[] values, int slot) {
+        return values == null || values[slot] == MeasurementSlots.ABSENT ? 0 : values[slot];
+    }
+
+    private static List<Integer> boxed(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value == MeasurementSlots.ABSENT ? null : value);
+        }
+        return list;
+    }
+
+    private static List<Integer> series(Map<String, List<Integer>> channels, String channel, int length) {
+        List<Integer> values = channels.get(channel);
+        return values != null ? values : Collections.nCopies(length, null);
     }
 
 
@@ -104,26 +229,101 @@ public class PowerLogManager {
 
 
     public PowerLog getPowerLog() {
-        Integer houseOut = inverter.gridMeter();
-        Integer solarIn = inverter.solarMeter();
-        Map<String, ShellyEm3Client> all = registry.getAll();
-
-        double heater = all.get("heater").getTotalActivePowerW() * -1;
-        double charger = all.get("charger").getTotalActivePowerW();
-        //double sauna = all.get("sauna").getTotalActivePowerW();
-        double kitchen = all.get("kitchen").getTotalActivePowerW() * -1;
+        MeterSample sample = meterSampler.sample();
+        return toPowerLog(sample.time(), channel -> sample.valueOr(channel, 0), isStale(sample));
+    }
+
+    /**
+     * Mean of the last {@code window} of high frequency samples.
+     * Empty when high frequency sampling is off or has not collected anything yet.
+     */
+    public Optional<PowerLog> getRecentPowerLog(Duration window) {
+        if (!highFrequencySampler.isEnabled()) return Optional.empty();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, WindowStats> stats = highFrequencySampler.rollup(now.minus(window), now);
+        if (stats.isEmpty()) return Optional.empty();
+        return Optional.of(toPowerLog(now, channel -> meanOrZero(stats, channel), isStale(stats)));
+    }
+
+    public RecentPowerLogs getRecentPowerLogs(Duration window) {
+        return RecentPowerLogs.from(highFrequencySampler.recent(window));
+    }
+
+    /** Wide view from raw readings, through the configured per-channel transforms. */
+    private PowerLog toPowerLog(LocalDateTime time, ToDoubleFunction<String> raw, boolean stale) {
+        return fromStored(time, channel -> energyFlow.stored(channel, raw), stale);
+    }
+
+    private static PowerLog fromStored(LocalDateTime time, ToDoubleFunction<String> stored, boolean stale) {
         return PowerLog.builder()
-                .time(LocalDateTime.now())
-                .solar(solarIn)
-                .house(houseOut)
-                .charger((int) Math.max(0,charger))
-                .heater((int) Math.max(0,heater))
-                .kitchen((int) Math.max(0,kitchen))
+                .time(time)
+                .solar((int) stored.applyAsDouble(MeterSampler.SOLAR))
+                .house((int) stored.applyAsDouble(MeterSampler.GRID))
+                .charger((int) stored.applyAsDouble(CHARGER))
+                .heater((int) stored.applyAsDouble(HEATER))
+                .kitchen((int) stored.applyAsDouble(KITCHEN))
+                .stale(stale)
                 .build();
     }
 
-    @Transactional
+    private static boolean isStale(MeterSample sample) {
+        return !sample.isFresh(MeterSampler.GRID) || !sample.isFresh(CHARGER);
+    }
+
+    /** High frequency windows only hold fresh samples, so a channel without stats had none. */
+    private static boolean isStale(Map<String, WindowStats> stats) {
+        return !stats.containsKey(MeterSampler.GRID) || !stats.containsKey(CHARGER);
+    }
+
+    /**
+     * Queues one measurement row per channel and 5-minute window for the write-behind writer.
+     * With high frequency sampling on, rows hold the window means and the per-channel mean/min/max/last
+     * go to power_log_stats; otherwise a single fresh sample is stored. Channels without a value get no row.
+     * Does not touch the database, so the optimizer can run right after.
+     */
     public PowerLog logPower() {
-        return powerLogRepository.save(getPowerLog());
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, WindowStats> window = highFrequencySampler.isEnabled()
+                ? highFrequencySampler.rollup(now.minus(LOG_INTERVAL), now)
+                : Map.of();
+        if (window.isEmpty()) {
+            MeterSample sample = meterSampler.sample();
+            List<String> measured = sample.channels().entrySet().stream()
+                    .filter(e -> e.getValue().hasValue())
+                    .map(Map.Entry::getKey)
+                    .toList();
+            return store(sample.time(), measured, channel -> sample.valueOr(channel, 0), isStale(sample));
+        }
+
+        measurementWriter.writeStats(window.entrySet().stream()
+                .map(e -> PowerLogStats.builder()
+                        .time(now)
+                        .channel(e.getKey())
+                        .mean((int) Math.round(e.getValue().mean()))
+                        .min((int) Math.round(e.getValue().min()))
+                        .max((int) Math.round(e.getValue().max()))
+                        .last((int) Math.round(e.getValue().last()))
+                        .samples(e.getValue().samples())
+                        .build())
+                .toList());
+        return store(now, window.keySet(), channel -> meanOrZero(window, channel), isStale(window));
+    }
+
+    private PowerLog store(LocalDateTime time, Collection<String> channels, ToDoubleFunction<String> raw, boolean stale) {
+        List<MeasurementRepository.Row> rows = new ArrayList<>(channels.size());
+        energyFlow.stored(channels, raw).forEach((channel, value) ->
+                channelRegistry.findIdOrQueue(channel).ifPresent(id ->
+                        rows.add(new MeasurementRepository.Row(time, id, (int) Math.round(value)))));
+        measurementWriter.write(rows);
+        recentMeasurements.append(rows);
+        PowerLog logged = toPowerLog(time, raw, stale);
+        latestPowerLogs.publish(logged);
+        energyBalanceTracker.accept(logged);
+        return logged;
+    }
+
+    private static double meanOrZero(Map<String, WindowStats> stats, String channel) {
+        WindowStats s = stats.get(channel);
+        return s != null ? s.mean() : 0;
     }
 }
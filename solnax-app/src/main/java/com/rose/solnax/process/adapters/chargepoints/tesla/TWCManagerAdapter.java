@@ -3,6 +3,7 @@ package com.rose.solnax.process.adapters.chargepoints.tesla;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rose.solnax.process.adapters.chargepoints.tesla.model.TeslaWallConnectorStatus;
+import com.rose.solnax.process.adapters.http.LanHttpClients;
 import jakarta.annotation.PostConstruct;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -24,10 +25,12 @@ public class TWCManagerAdapter {
     private final RetryTemplate retryTemplate;
 
     private final ObjectMapper objectMapper;
+    private final LanHttpClients lanHttpClients;
 
-    public TWCManagerAdapter(RetryTemplate retryTemplate, ObjectMapper objectMapper) {
+    public TWCManagerAdapter(RetryTemplate retryTemplate, ObjectMapper objectMapper, LanHttpClients lanHttpClients) {
         this.retryTemplate = retryTemplate;
         this.objectMapper = objectMapper;
+        this.lanHttpClients = lanHttpClients;
     }
 
 
@@ -37,9 +40,7 @@ public class TWCManagerAdapter {
     }
 
     private void buildRestClient() {
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .build();
+        this.restClient = lanHttpClients.restClient("twc-manager", baseUrl);
     }
 
     @SneakyThrows
@@ -1,6 +1,7 @@
 package com.rose.solnax.process.adapters.chargepoints.tesla;
 
 import com.rose.solnax.process.adapters.chargepoints.tesla.model.VehicleApiResponse;
+import com.rose.solnax.process.adapters.http.LanHttpClients;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,9 +22,11 @@ public class TeslaBLEAdapter {
     private String baseUrl;
     private RestClient restClient;
     private final RetryTemplate retryTemplate;
+    private final LanHttpClients lanHttpClients;
 
-    public TeslaBLEAdapter(RetryTemplate retryTemplate) {
+    public TeslaBLEAdapter(RetryTemplate retryTemplate, LanHttpClients lanHttpClients) {
         this.retryTemplate = retryTemplate;
+        this.lanHttpClients = lanHttpClients;
     }
 
     @PostConstruct
@@ -32,9 +35,7 @@ public class TeslaBLEAdapter {
     }
 
     private void buildRestClient() {
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .build();
+        this.restClient = lanHttpClients.restClient("tesla-ble", baseUrl);
     }
 
 
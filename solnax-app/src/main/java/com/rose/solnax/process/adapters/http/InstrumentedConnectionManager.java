@@ -0,0 +1,74 @@
+package com.rose.solnax.process.adapters.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pool that times how long a request waits for a connection ({@code lan.http.connection.acquire})
+ * and how long opening a new one takes ({@code lan.http.connection.connect}), tagged by host.
+ * A cheap acquire and no connects on a warm cycle means keep-alive is doing its job.
+ */
+class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final MeterRegistry registry;
+
+    /** Host of the connection last leased on this thread; the classic client connects right after leasing. */
+    private final ThreadLocal<String> leasedHost = new ThreadLocal<>();
+
+    InstrumentedConnectionManager(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest delegate = super.lease(id, route, requestTimeout, state);
+        String host = route.getTargetHost().toHostString();
+        Timer timer = timer("lan.http.connection.acquire", host);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                leasedHost.set(host);
+                try {
+                    return delegate.get(timeout);
+                } finally {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return delegate.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue timeout, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        try {
+            super.connect(endpoint, timeout, context);
+        } finally {
+            String host = leasedHost.get();
+            timer("lan.http.connection.connect", host == null ? "unknown" : host)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String host) {
+        return Timer.builder(name).tag("host", host).register(registry);
+    }
+}
@@ -0,0 +1,159 @@
+package com.rose.solnax.process.adapters.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * One keep-alive connection pool for every HTTP adapter that talks to devices on the LAN.
+ *
+ * Each adapter registers its target once; connect timeout and connection limit are applied per host,
+ * the read timeout per request factory. Metrics per host:
+ * <ul>
+ *   <li>{@code http.client.requests} – request latency (Spring's client observation, {@code client.name} = host)</li>
+ *   <li>{@code lan.http.connection.acquire} / {@code lan.http.connection.connect} – see {@link InstrumentedConnectionManager}</li>
+ *   <li>{@code lan.http.pool.leased|available|pending|max} – pool saturation</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class LanHttpClients implements DisposableBean {
+
+    private final LanHttpProperties props;
+    private final ObjectProvider<RestClient.Builder> restClientBuilders;
+    private final MeterRegistry registry;
+
+    private final InstrumentedConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    /** Connect timeout per host, consulted whenever the pool opens a connection. */
+    private final Map<HttpHost, ConnectionConfig> connectionConfigs = new ConcurrentHashMap<>();
+    private final ConnectionConfig defaultConnectionConfig;
+
+    public LanHttpClients(LanHttpProperties props,
+                          ObjectProvider<RestClient.Builder> restClientBuilders,
+                          MeterRegistry registry) {
+        this.props = props;
+        this.restClientBuilders = restClientBuilders;
+        this.registry = registry;
+
+        defaultConnectionConfig = connectionConfig(props.getConnectTimeout());
+        connectionManager = new InstrumentedConnectionManager(registry);
+        connectionManager.setMaxTotal(props.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(props.getMaxPerHost());
+        connectionManager.setConnectionConfigResolver(route ->
+                connectionConfigs.getOrDefault(route.getTargetHost(), defaultConnectionConfig));
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(props.getAcquireTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(props.getIdleTimeout()))
+                .build();
+
+        Gauge.builder("lan.http.pool.max", connectionManager, m -> m.getTotalStats().getMax())
+                .tag("host", "all").register(registry);
+        Gauge.builder("lan.http.pool.leased", connectionManager, m -> m.getTotalStats().getLeased())
+                .tag("host", "all").register(registry);
+    }
+
+    /**
+     * A {@link RestClient} on the shared pool, with Spring's observation (latency metrics) applied.
+     *
+     * @param name    target name used for {@code solnax.http.targets.<name>} overrides
+     * @param baseUrl scheme, host and optional port of the device
+     */
+    public RestClient restClient(String name, String baseUrl) {
+        return restClientBuilders.getObject()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory(name, baseUrl, props.getConnectTimeout(), props.getReadTimeout()))
+                .build();
+    }
+
+    /**
+     * Request factory on the shared pool for callers that build their own template.
+     * Configured overrides for {@code name} take precedence over the timeouts passed in.
+     */
+    public ClientHttpRequestFactory requestFactory(String name, String baseUrl,
+                                                   Duration connectTimeout, Duration readTimeout) {
+        Optional<LanHttpProperties.Target> target = Optional.ofNullable(props.getTargets().get(name));
+        HttpHost host = host(baseUrl);
+
+        connectionConfigs.put(host, connectionConfig(
+                target.map(LanHttpProperties.Target::getConnectTimeout).orElse(connectTimeout)));
+        target.map(LanHttpProperties.Target::getMaxConnections)
+                .ifPresent(max -> connectionManager.setMaxPerRoute(new HttpRoute(host), max));
+        registerPoolGauges(host);
+
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(target.map(LanHttpProperties.Target::getReadTimeout).orElse(readTimeout));
+        log.debug("HTTP target '{}' → {} on shared pool", name, host);
+        return factory;
+    }
+
+    /** Stats for one host; what {@code lan.http.pool.*} reports. */
+    public PoolStats stats(String baseUrl) {
+        return connectionManager.getStats(new HttpRoute(host(baseUrl)));
+    }
+
+    // -------------------------------------------------------------------------
+
+    private void registerPoolGauges(HttpHost host) {
+        HttpRoute route = new HttpRoute(host);
+        gauge("lan.http.pool.leased", host, route, PoolStats::getLeased);
+        gauge("lan.http.pool.available", host, route, PoolStats::getAvailable);
+        gauge("lan.http.pool.pending", host, route, PoolStats::getPending);
+        gauge("lan.http.pool.max", host, route, PoolStats::getMax);
+    }
+
+    private void gauge(String name, HttpHost host, HttpRoute route, ToIntFunction<PoolStats> value) {
+        Gauge.builder(name, connectionManager, m -> value.applyAsInt(m.getStats(route)))
+                .tag("host", host.toHostString())
+                .register(registry);
+    }
+
+    private ConnectionConfig connectionConfig(Duration connectTimeout) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setValidateAfterInactivity(TimeValue.of(props.getValidateAfterInactivity()))
+                .build();
+    }
+
+    /** Normalised target host, so the route matches the one the client computes per request. */
+    static HttpHost host(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(scheme) ? 443 : 80;
+        return new HttpHost(scheme, uri.getHost(), port);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+    }
+}
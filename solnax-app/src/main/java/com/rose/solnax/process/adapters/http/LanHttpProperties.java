@@ -0,0 +1,94 @@
+package com.rose.solnax.process.adapters.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pool shared by all HTTP adapters talking to LAN devices (Shelly, Tesla BLE proxy, TWCManager).
+ *
+ * Example application.yml:
+ *
+ * solnax:
+ *   http:
+ *     max-total: 20
+ *     max-per-host: 2
+ *     targets:
+ *       tesla-ble:
+ *         read-timeout: 90s
+ */
+@Component
+@ConfigurationProperties(prefix = "solnax.http")
+public class LanHttpProperties {
+
+    /** Connections across all hosts. */
+    private int maxTotal = 20;
+
+    /** Connections per host; LAN devices rarely handle more than a couple in parallel. */
+    private int maxPerHost = 2;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /** Sized for devices answering from memory; targets that wait on something else need an override. */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /** How long a request waits for a free pooled connection before failing. */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+    /** Kept-alive connections idle longer than this are closed; devices drop them eventually anyway. */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** A pooled connection idle longer than this is checked before reuse. */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    /** Overrides keyed by the adapter's target name ({@code shelly-<device>}, {@code tesla-ble}, {@code twc-manager}). */
+    private Map<String, Target> targets = new LinkedHashMap<>();
+
+    // -------------------------------------------------------------------------
+
+    public int getMaxTotal() { return maxTotal; }
+    public void setMaxTotal(int maxTotal) { this.maxTotal = maxTotal; }
+
+    public int getMaxPerHost() { return maxPerHost; }
+    public void setMaxPerHost(int maxPerHost) { this.maxPerHost = maxPerHost; }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    public Duration getReadTimeout() { return readTimeout; }
+    public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+
+    public Duration getAcquireTimeout() { return acquireTimeout; }
+    public void setAcquireTimeout(Duration acquireTimeout) { this.acquireTimeout = acquireTimeout; }
+
+    public Duration getIdleTimeout() { return idleTimeout; }
+    public void setIdleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; }
+
+    public Duration getValidateAfterInactivity() { return validateAfterInactivity; }
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) { this.validateAfterInactivity = validateAfterInactivity; }
+
+    public Map<String, Target> getTargets() { return targets; }
+    public void setTargets(Map<String, Target> targets) { this.targets = targets; }
+
+    // -------------------------------------------------------------------------
+
+    /** Per-target override; each field falls back to the caller's or the shared value when null. */
+    public static class Target {
+
+        private Integer maxConnections;
+        private Duration connectTimeout;
+        private Duration readTimeout;
+
+        public Integer getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(Integer maxConnections) { this.maxConnections = maxConnections; }
+
+        public Duration getConnectTimeout() { return connectTimeout; }
+        public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+        public Duration getReadTimeout() { return readTimeout; }
+        public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+    }
+}
@@ -4,8 +4,18 @@ package com.rose.solnax.process.adapters.meters;
 //Everything in watts
 public interface IPowerMeter {
 
-    //Positive means power is leaving house (exporting), negative means power is coming into the house (importing)
-    Integer gridMeter();
+    /**
+     * Reads every inverter and grid meter value in one cycle.
+     * @throws com.rose.solnax.process.exception.UnableToReadException when the device cannot be read
+     */
+    InverterSnapshot snapshot();
 
-    Integer solarMeter();
+    //Positive means power is coming into the house (importing), negative means power is leaving the house (exporting)
+    default Integer gridMeter() {
+        return snapshot().gridPowerW();
+    }
+
+    default Integer solarMeter() {
+        return snapshot().acPowerW();
+    }
 }
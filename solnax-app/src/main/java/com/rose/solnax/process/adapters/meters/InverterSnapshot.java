@@ -0,0 +1,33 @@
+package com.rose.solnax.process.adapters.meters;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * All inverter and grid meter values of one read cycle, decoded from the same register image.
+ * Power in W, energy in Wh, voltage in V, frequency in Hz.
+ *
+ * gridPowerW follows {@link IPowerMeter#gridMeter()}: positive when importing, negative when exporting.
+ * {@code stale} marks a last known good snapshot served because the current read failed.
+ */
+public record InverterSnapshot(
+        LocalDateTime takenAt,
+        int acPowerW,
+        long acEnergyWh,
+        double acVoltageV,
+        double acFrequencyHz,
+        int gridPowerW,
+        long gridImportedWh,
+        long gridExportedWh,
+        boolean stale
+) {
+
+    public InverterSnapshot asStale() {
+        return new InverterSnapshot(takenAt, acPowerW, acEnergyWh, acVoltageV, acFrequencyHz,
+                gridPowerW, gridImportedWh, gridExportedWh, true);
+    }
+
+    public Duration age() {
+        return Duration.between(takenAt, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,208 @@
+package com.rose.solnax.process.adapters.meters;
+
+import com.serotonin.modbus4j.ModbusFactory;
+import com.serotonin.modbus4j.ModbusMaster;
+import com.serotonin.modbus4j.exception.ModbusInitException;
+import com.serotonin.modbus4j.exception.ModbusTransportException;
+import com.serotonin.modbus4j.ip.IpParameters;
+import com.serotonin.modbus4j.msg.ReadHoldingRegistersRequest;
+import com.serotonin.modbus4j.msg.ReadHoldingRegistersResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Owns the single persistent Modbus TCP session to the inverter.
+ *
+ * Reads never connect: when the session is down they fail immediately and the caller serves its
+ * last known good value. Reconnects happen in {@link #maintain()} with exponential backoff and
+ * jitter, and an idle session is kept alive with a one-register probe so a dead socket is noticed
+ * before the next real read.
+ */
+@Service
+@Slf4j
+public class ModbusConnectionManager implements DisposableBean {
+
+    private final Function<IpParameters, ModbusMaster> masters;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${solaredge.modbus.host}")
+    private String host;
+    @Value("${solaredge.modbus.port:1502}")
+    private int port;
+    @Value("${solaredge.modbus.slaveId:1}")
+    private int slaveId;
+    @Value("${solaredge.modbus.connectTimeoutMs:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${solaredge.modbus.keep-alive.interval:30s}")
+    private Duration keepAliveInterval;
+    @Value("${solaredge.modbus.keep-alive.probe-offset:0}")
+    private int probeOffset;
+    @Value("${solaredge.modbus.reconnect.initial-backoff:1s}")
+    private Duration initialBackoff;
+    @Value("${solaredge.modbus.reconnect.max-backoff:2m}")
+    private Duration maxBackoff;
+
+    private ModbusMaster master;
+    private volatile boolean connected;
+    private volatile long lastSuccessMillis;
+    private long nextAttemptMillis;
+    private int failedAttempts;
+
+    public ModbusConnectionManager() {
+        this(params -> new ModbusFactory().createTcpMaster(params, true), System::currentTimeMillis);
+    }
+
+    /** Session masters from {@code masters}, times in ms from {@code clock}. */
+    ModbusConnectionManager(Function<IpParameters, ModbusMaster> masters, LongSupplier clock) {
+        this.masters = masters;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        lock.lock();
+        try {
+            connect();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Reads {@code count} holding registers on the open session.
+     * @throws ModbusTransportException when the session is down or the read fails
+     */
+    public short[] readHoldingRegisters(int offset, int count) throws ModbusTransportException {
+        lock.lock();
+        try {
+            if (!connected) {
+                throw new ModbusTransportException("Not connected to " + host + ":" + port + ", reconnect pending");
+            }
+            try {
+                short[] data = read(offset, count);
+                lastSuccessMillis = clock.getAsLong();
+                return data;
+            } catch (ExceptionResponse e) {
+                // The device answered (e.g. illegal address while probing SunSpec bases): session is fine
+                lastSuccessMillis = clock.getAsLong();
+                throw e;
+            } catch (ModbusTransportException e) {
+                disconnect("read at offset " + offset + " failed: " + e.getMessage());
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reconnects with backoff when the session is down and probes it when idle.
+     * Runs off the sampling path so reads never wait for a TCP connect.
+     */
+    @Scheduled(fixedDelayString = "${solaredge.modbus.maintenance-interval:1s}")
+    void maintain() {
+        if (!lock.tryLock()) return; // a read is in flight, the session is obviously in use
+        try {
+            long now = clock.getAsLong();
+            if (!connected) {
+                if (now >= nextAttemptMillis) connect();
+            } else if (now - lastSuccessMillis >= keepAliveInterval.toMillis()) {
+                try {
+                    read(probeOffset, 1);
+                    lastSuccessMillis = now;
+                } catch (ExceptionResponse e) {
+                    lastSuccessMillis = now;
+                } catch (ModbusTransportException e) {
+                    disconnect("keep-alive probe failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    private short[] read(int offset, int count) throws ModbusTransportException {
+        ReadHoldingRegistersRequest request = new ReadHoldingRegistersRequest(slaveId, offset, count);
+        ReadHoldingRegistersResponse response = (ReadHoldingRegistersResponse) master.send(request);
+
+        if (response == null) {
+            throw new ModbusTransportException("Read failed at offset " + offset + ": null");
+        }
+        if (response.isException()) {
+            throw new ExceptionResponse("Read failed at offset " + offset + ": " + response.getExceptionMessage());
+        }
+        return response.getShortData();
+    }
+
+    private void connect() {
+        IpParameters params = new IpParameters();
+        params.setHost(host);
+        params.setPort(port);
+
+        master = masters.apply(params);
+        master.setTimeout(connectTimeoutMs);
+        master.setRetries(1);
+
+        try {
+            master.init();
+            connected = true;
+            failedAttempts = 0;
+            lastSuccessMillis = clock.getAsLong();
+            log.info("Connected to SolarEdge Modbus TCP {}:{}", host, port);
+        } catch (ModbusInitException e) {
+            master.destroy();
+            scheduleReconnect();
+            log.error("Failed to init Modbus master: {} (next attempt in {}ms)",
+                    e.getMessage(), nextAttemptMillis - clock.getAsLong());
+        }
+    }
+
+    private void disconnect(String reason) {
+        log.warn("Dropping Modbus session to {}:{}: {}", host, port, reason);
+        connected = false;
+        if (master != null) master.destroy();
+        scheduleReconnect();
+    }
+
+    /** Exponential backoff with equal jitter, so a restarting inverter is not hit in lockstep. */
+    private void scheduleReconnect() {
+        long backoff = Math.min(maxBackoff.toMillis(),
+                initialBackoff.toMillis() << Math.min(failedAttempts, 20));
+        failedAttempts++;
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        nextAttemptMillis = clock.getAsLong() + delay;
+    }
+
+    @Override
+    public void destroy() {
+        connected = false;
+        if (master != null) {
+            master.destroy();
+        }
+    }
+
+    /** The device rejected the request with a Modbus exception code; the session itself is healthy. */
+    public static class ExceptionResponse extends ModbusTransportException {
+        ExceptionResponse(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,129 +1,187 @@
 package com.rose.solnax.process.adapters.meters;
 
-import com.serotonin.modbus4j.ModbusFactory;
-import com.serotonin.modbus4j.ModbusMaster;
-import com.serotonin.modbus4j.exception.ModbusInitException;
-import com.serotonin.modbus4j.exception.ModbusTransportException;
-import com.serotonin.modbus4j.ip.IpParameters;
-import com.serotonin.modbus4j.msg.ReadHoldingRegistersRequest;
-import com.serotonin.modbus4j.msg.ReadHoldingRegistersResponse;
+import com.rose.solnax.process.adapters.meters.sunspec.SunSpecBlockReader;
+import com.rose.solnax.process.adapters.meters.sunspec.SunSpecModel;
+import com.rose.solnax.process.adapters.meters.sunspec.SunSpecPoint;
+import com.rose.solnax.process.adapters.meters.sunspec.SunSpecRegisterMap;
+import com.rose.solnax.process.adapters.meters.sunspec.SunSpecRegisters;
+import com.rose.solnax.process.adapters.meters.sunspec.SunSpecScanner;
+import com.rose.solnax.process.exception.UnableToReadException;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.locks.ReentrantLock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
-public class SolarEdgeModBus implements IPowerMeter, DisposableBean {
+@RequiredArgsConstructor
+public class SolarEdgeModBus implements IPowerMeter {
 
-    private final ModbusFactory modbusFactory = new ModbusFactory();
-    private ModbusMaster master;
+    private final ModbusConnectionManager modbus;
 
-    @Value("${solaredge.modbus.host}")
-    private String host;
-    @Value("${solaredge.modbus.port:1502}")
-    private int port;
-    @Value("${solaredge.modbus.slaveId:1}")
-    private int slaveId;
-    @Value("${solaredge.modbus.connectTimeoutMs:3000}")
-    private int connectTimeoutMs;
-
-    // Use Relative Base-0 Offsets
+    // Use Relative Base-0 Offsets; only used when SunSpec discovery is disabled or has not succeeded yet
     @Value("${solaredge.modbus.registers.gridPowerOffset:206}")
     private int gridPowerOffset;
     @Value("${solaredge.modbus.registers.sitePowerOffset:83}")
     private int sitePowerOffset;
 
-    private final ReentrantLock connectionLock = new ReentrantLock();
+    @Value("${solaredge.modbus.discovery.enabled:true}")
+    private boolean discoveryEnabled;
+    @Value("${solaredge.modbus.discovery.retry-interval:10m}")
+    private Duration discoveryRetryInterval;
 
-    @PostConstruct
-    public void init() {
-        connect();
-    }
+    /** Swapped as a whole once discovery succeeds; everything derived from one register map. */
+    private volatile ReadPlan plan;
+    private volatile boolean discovered;
+    private volatile long nextDiscoveryMillis;
 
-    private void connect() {
-        connectionLock.lock();
-        try {
-            if (master != null && master.isInitialized()) return;
-
-            IpParameters params = new IpParameters();
-            params.setHost(host);
-            params.setPort(port);
-
-            master = modbusFactory.createTcpMaster(params, true);
-            master.setTimeout(connectTimeoutMs);
-            master.setRetries(1);
-
-            try {
-                master.init();
-                log.info("Connected to SolarEdge Modbus TCP {}:{}", host, port);
-            } catch (ModbusInitException e) {
-                log.error("Failed to init Modbus master: {}", e.getMessage());
-                master = null;
-            }
-        } finally {
-            connectionLock.unlock();
+    /** Served with {@code stale = true} while the inverter cannot be read. */
+    private volatile InverterSnapshot lastKnownGood;
+
+    /**
+     * Points read for every snapshot. AC power and energy are summed over all inverters on the bus,
+     * grid values come from the first meter.
+     */
+    private record ReadPlan(SunSpecRegisterMap map,
+                            List<SunSpecPoint> acPower,
+                            List<SunSpecPoint> acEnergy,
+                            SunSpecPoint acVoltage,
+                            SunSpecPoint acFrequency,
+                            SunSpecPoint gridPower,
+                            SunSpecPoint gridExported,
+                            SunSpecPoint gridImported,
+                            SunSpecBlockReader reader) {
+
+        static ReadPlan of(SunSpecRegisterMap map) {
+            List<SunSpecPoint> acPower = perInverter(map, "W");
+            List<SunSpecPoint> acEnergy = perInverter(map, "WH");
+            SunSpecPoint acVoltage = map.point("inverter.PhVphA");
+            SunSpecPoint acFrequency = map.point("inverter.Hz");
+            SunSpecPoint gridPower = map.point("meter.W");
+            SunSpecPoint gridExported = map.point("meter.TotWhExp");
+            SunSpecPoint gridImported = map.point("meter.TotWhImp");
+
+            List<SunSpecPoint> all = new ArrayList<>(acPower);
+            all.addAll(acEnergy);
+            all.addAll(List.of(acVoltage, acFrequency, gridPower, gridExported, gridImported));
+            return new ReadPlan(map, acPower, acEnergy, acVoltage, acFrequency,
+                    gridPower, gridExported, gridImported, new SunSpecBlockReader(all));
         }
-    }
 
-    private void ensureConnected() {
-        if (master == null || !master.isInitialized()) {
-            connect();
-            if (master == null || !master.isInitialized()) {
-                throw new IllegalStateException("Modbus master not initialized");
+        private static List<SunSpecPoint> perInverter(SunSpecRegisterMap map, String point) {
+            List<SunSpecPoint> points = new ArrayList<>();
+            for (int i = 0; i < map.count("inverter"); i++) {
+                points.add(map.point("inverter[" + i + "]." + point));
             }
+            return points;
         }
     }
 
+    @PostConstruct
+    public void init() {
+        plan = ReadPlan.of(configuredMap());
+        if (discoveryEnabled) discover();
+        log.info("SunSpec read plan: {}", plan.reader().blocks());
+    }
+
     /**
-     * Reads a SunSpec value and its scale factor.
-     * SolarEdge Power (Inverter): Value at 83, SF at 84 (Distance 1)
-     * SolarEdge Power (Grid Meter): Value at 206, SF at 210 (Distance 4)
+     * Register map from the configured anchors, used until discovery succeeds.
+     * Inverter model 103: W is point 12 of the model data, so the model ID sits at sitePowerOffset - 14.
+     * Meter model 203: W is point 16 of the model data, so the model ID sits at gridPowerOffset - 18.
      */
-    private Integer readSunSpecValue(int offset, int sfOffset) {
-        ensureConnected();
-        try {
-            int count = (sfOffset - offset) + 1;
-            ReadHoldingRegistersRequest request = new ReadHoldingRegistersRequest(slaveId, offset, count);
-            ReadHoldingRegistersResponse response = (ReadHoldingRegistersResponse) master.send(request);
-
-            if (response == null || response.isException()) {
-                throw new ModbusTransportException("Read failed: " + (response == null ? "null" : response.getExceptionMessage()));
-            }
-
-            short[] data = response.getShortData();
-            short rawValue = data[0];
-            short scaleFactor = data[data.length - 1];
+    private SunSpecRegisterMap configuredMap() {
+        return SunSpecRegisterMap.of(List.of(
+                new SunSpecModel(103, 0, sitePowerOffset - 14, 50),
+                new SunSpecModel(203, 0, gridPowerOffset - 18, 105)));
+    }
 
-            // Formula: Value * 10^SF
-            return (int) (rawValue * Math.pow(10, scaleFactor));
+    /**
+     * Walks the SunSpec model chain once and caches the resulting map. Failures (session down,
+     * unexpected layout) keep the current plan and are retried after {@code discovery.retry-interval}.
+     */
+    private void discover() {
+        nextDiscoveryMillis = System.currentTimeMillis() + discoveryRetryInterval.toMillis();
+        if (!modbus.isConnected()) return;
+        try {
+            SunSpecRegisterMap map = SunSpecScanner.scan(modbus::readHoldingRegisters, SunSpecScanner.BASE_ADDRESSES);
+            plan = ReadPlan.of(map);
+            discovered = true;
+            log.info("Discovered SunSpec models {}, read plan: {}", map, plan.reader().blocks());
         } catch (Exception e) {
-            log.error("Modbus read error at offset {}: {}", offset, e.getMessage());
-            return 0;
+            log.warn("SunSpec discovery failed, using configured offsets: {}", e.getMessage());
         }
     }
 
-    @Override
-    public Integer gridMeter() {
-        // Documentation 40207 (Value) and 40211 (SF)
-        // Relative: 206 and 210
-        return readSunSpecValue(gridPowerOffset, gridPowerOffset + 4) * -1;
+    /** The register map in use: discovered, or built from the configured offsets. */
+    public SunSpecRegisterMap registerMap() {
+        return plan.map();
     }
 
-    @Override
-    public Integer solarMeter() {
-        // Documentation 40084 (Value) and 40085 (SF)
-        // Relative: 83 and 84
-        return readSunSpecValue(sitePowerOffset, sitePowerOffset + 1);
+    /**
+     * Reads arbitrary points by name (e.g. {@code "meter[1].W"}, {@code "storage.ChaState"}) in as few
+     * requests as possible.
+     * @throws IllegalArgumentException when a point is not present on the device
+     */
+    public Map<String, Double> readPoints(Collection<String> names) throws Exception {
+        SunSpecRegisterMap map = plan.map();
+        List<SunSpecPoint> points = names.stream().map(map::point).toList();
+        SunSpecRegisters registers = new SunSpecBlockReader(points).read(modbus::readHoldingRegisters);
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (SunSpecPoint point : points) {
+            values.put(point.name(), registers.value(point));
+        }
+        return values;
     }
 
+    /**
+     * Reads the inverter and meter models in as few requests as the 125-register limit allows
+     * and decodes every value from the same register image.
+     *
+     * When the read fails the last known good snapshot is returned marked stale (its
+     * {@code takenAt} gives the age); only when nothing was ever read does this throw.
+     */
     @Override
-    public void destroy() {
-        if (master != null) {
-            master.destroy();
+    public InverterSnapshot snapshot() {
+        if (discoveryEnabled && !discovered && System.currentTimeMillis() >= nextDiscoveryMillis) {
+            discover();
+        }
+        ReadPlan plan = this.plan;
+        try {
+            SunSpecRegisters registers = plan.reader().read(modbus::readHoldingRegisters);
+            InverterSnapshot snapshot = new InverterSnapshot(
+                    LocalDateTime.now(),
+                    plan.acPower().stream().mapToInt(registers::intValue).sum(),
+                    plan.acEnergy().stream().mapToLong(registers::longValue).sum(),
+                    registers.value(plan.acVoltage()),
+                    registers.value(plan.acFrequency()),
+                    // Meter reports positive when exporting, we want positive when importing
+                    registers.intValue(plan.gridPower()) * -1,
+                    registers.longValue(plan.gridImported()),
+                    registers.longValue(plan.gridExported()),
+                    false
+            );
+            lastKnownGood = snapshot;
+            return snapshot;
+        } catch (Exception e) {
+            InverterSnapshot last = lastKnownGood;
+            if (last == null) {
+                throw new UnableToReadException("SolarEdge Modbus read failed: " + e.getMessage());
+            }
+            if (modbus.isConnected()) {
+                log.warn("Modbus snapshot read failed, serving last known good from {}: {}", last.takenAt(), e.getMessage());
+            } else {
+                log.debug("Modbus session down, serving last known good from {}", last.takenAt());
+            }
+            return last.asStale();
         }
     }
-}
\ No newline at end of file
+}
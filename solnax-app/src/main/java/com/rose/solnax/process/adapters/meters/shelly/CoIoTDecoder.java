@@ -0,0 +1,101 @@
+package com.rose.solnax.process.adapters.meters.shelly;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status.EmeterChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decodes Shelly Gen1 CoIoT status messages (CoAP over UDP, code 0.30 "/cit/s").
+ *
+ * The payload is {"G":[[channel, sensorId, value], ...]}. EM3 sensor ids of phase n (0..2) start
+ * at 4105 + 100·n, as listed by the device's /cit/d description:
+ *   +0 P (W), +1 E (Wh), +2 E returned (Wh), +3 V, +4 I (A), +5 PF
+ */
+final class CoIoTDecoder {
+
+    static final int CODE_STATUS = 0x1E; // 0.30
+    static final int OPTION_DEVICE_INFO = 3332;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private CoIoTDecoder() {}
+
+    /** Decoded message: the device info option ("SHEM-3#mac#2") and sensor id → value. */
+    record Message(String deviceInfo, Map<Integer, Double> values) {}
+
+    static Optional<Message> decode(ByteBuffer datagram) {
+        if (datagram.remaining() < 4) return Optional.empty();
+        int first = datagram.get() & 0xFF;
+        int version = first >>> 6;
+        int tokenLength = first & 0x0F;
+        int code = datagram.get() & 0xFF;
+        datagram.getShort(); // message id
+        if (version != 1 || code != CODE_STATUS || datagram.remaining() < tokenLength) return Optional.empty();
+        datagram.position(datagram.position() + tokenLength);
+
+        String deviceInfo = null;
+        int option = 0;
+        while (datagram.hasRemaining()) {
+            int header = datagram.get() & 0xFF;
+            if (header == 0xFF) break; // payload marker
+            int delta = extended(header >>> 4, datagram);
+            int length = extended(header & 0x0F, datagram);
+            if (delta < 0 || length < 0 || datagram.remaining() < length) return Optional.empty();
+            option += delta;
+            byte[] value = new byte[length];
+            datagram.get(value);
+            if (option == OPTION_DEVICE_INFO) deviceInfo = new String(value);
+        }
+
+        byte[] payload = new byte[datagram.remaining()];
+        datagram.get(payload);
+        try {
+            JsonNode groups = MAPPER.readTree(payload).path("G");
+            Map<Integer, Double> values = new HashMap<>();
+            for (JsonNode entry : groups) {
+                if (entry.size() >= 3 && entry.get(2).isNumber()) {
+                    values.put(entry.get(1).asInt(), entry.get(2).asDouble());
+                }
+            }
+            return values.isEmpty() ? Optional.empty() : Optional.of(new Message(deviceInfo, values));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /** Builds a snapshot from the sensor values; a phase is valid when its power was reported. */
+    static ShellyEm3Snapshot toSnapshot(String deviceId, Map<Integer, Double> values, LocalDateTime takenAt) {
+        List<EmeterChannel> phases = new ArrayList<>(3);
+        for (int phase = 0; phase < 3; phase++) {
+            int base = 4105 + phase * 100;
+            Double power = values.get(base);
+            phases.add(new EmeterChannel(
+                    power != null,
+                    power != null ? power : 0,
+                    values.getOrDefault(base + 5, 0.0),
+                    0,
+                    values.getOrDefault(base + 3, 0.0),
+                    values.getOrDefault(base + 4, 0.0),
+                    values.getOrDefault(base + 1, 0.0),
+                    values.getOrDefault(base + 2, 0.0)));
+        }
+        return new ShellyEm3Snapshot(deviceId, takenAt, phases);
+    }
+
+    /** CoAP option delta/length nibble: 13 and 14 announce one or two extension bytes, 15 is reserved. */
+    private static int extended(int nibble, ByteBuffer buffer) {
+        if (nibble < 13) return nibble;
+        if (nibble == 13 && buffer.remaining() >= 1) return (buffer.get() & 0xFF) + 13;
+        if (nibble == 14 && buffer.remaining() >= 2) return (buffer.getShort() & 0xFFFF) + 269;
+        return -1;
+    }
+}
@@ -0,0 +1,178 @@
+package com.rose.solnax.process.adapters.meters.shelly;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Receives CoIoT status pushes from Gen1 Shelly EM3 devices on a non-blocking UDP channel and
+ * keeps the latest snapshot per device in memory.
+ *
+ * Senders are matched to devices by the configured host address. Readers call {@link #latest(String)}
+ * which involves no network I/O; once a device has been quiet for {@code quiet-after} it returns
+ * empty and callers fall back to HTTP polling.
+ */
+@Service
+public class ShellyCoIoTListener implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ShellyCoIoTListener.class);
+
+    private final ShellyEm3Properties props;
+    private final Map<InetAddress, String> deviceByAddress = new ConcurrentHashMap<>();
+    private final Map<String, ShellyEm3Snapshot> latest = new ConcurrentHashMap<>();
+
+    private DatagramChannel channel;
+    private Selector selector;
+    private Thread thread;
+    private volatile boolean running;
+
+    public ShellyCoIoTListener(ShellyEm3Properties props) {
+        this.props = props;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        ShellyEm3Properties.CoIoT coiot = props.getCoiot();
+        if (!coiot.isEnabled()) {
+            log.info("Shelly CoIoT listener disabled, devices are polled over HTTP");
+            return;
+        }
+
+        props.getDevices().forEach((id, device) -> {
+            try {
+                deviceByAddress.put(InetAddress.getByName(device.getHost()), id);
+            } catch (IOException e) {
+                log.warn("Cannot resolve Shelly EM3 '{}' host {}: {}", id, device.getHost(), e.getMessage());
+            }
+        });
+
+        channel = DatagramChannel.open(StandardProtocolFamily.INET)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(coiot.getPort()));
+        channel.configureBlocking(false);
+        joinMulticastGroup(coiot);
+
+        selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+
+        running = true;
+        thread = new Thread(this::receiveLoop, "shelly-coiot");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Shelly CoIoT listener on UDP {} for {}", getLocalPort(), deviceByAddress.values());
+    }
+
+    /**
+     * Latest pushed snapshot of a device, empty when the device never pushed or has been
+     * quiet for longer than {@code quiet-after}.
+     */
+    public Optional<ShellyEm3Snapshot> latest(String deviceId) {
+        ShellyEm3Snapshot snapshot = latest.get(deviceId);
+        if (snapshot == null) return Optional.empty();
+        LocalDateTime quietSince = LocalDateTime.now().minus(props.getCoiot().getQuietAfter());
+        return snapshot.takenAt().isAfter(quietSince) ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    public Map<String, ShellyEm3Snapshot> getAllLatest() {
+        return Collections.unmodifiableMap(latest);
+    }
+
+    public int getLocalPort() {
+        try {
+            return channel == null ? -1 : ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    private void receiveLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(2048);
+        while (running) {
+            try {
+                if (selector.select(1000) == 0) continue;
+                selector.selectedKeys().clear();
+                SocketAddress sender;
+                while ((sender = channel.receive(buffer.clear())) != null) {
+                    buffer.flip();
+                    handle(((InetSocketAddress) sender).getAddress(), buffer);
+                }
+            } catch (ClosedSelectorException | ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                log.warn("CoIoT receive failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    void handle(InetAddress sender, ByteBuffer datagram) {
+        String deviceId = deviceByAddress.get(sender);
+        if (deviceId == null) {
+            log.trace("Ignoring CoIoT message from unknown sender {}", sender);
+            return;
+        }
+        CoIoTDecoder.decode(datagram).ifPresentOrElse(
+                message -> latest.put(deviceId, CoIoTDecoder.toSnapshot(deviceId, message.values(), LocalDateTime.now())),
+                () -> log.debug("[{}] Ignoring undecodable CoIoT message", deviceId));
+    }
+
+    private void joinMulticastGroup(ShellyEm3Properties.CoIoT coiot) {
+        try {
+            InetAddress group = InetAddress.getByName(coiot.getMulticastGroup());
+            NetworkInterface nif = StringUtils.hasText(coiot.getNetworkInterface())
+                    ? NetworkInterface.getByName(coiot.getNetworkInterface())
+                    : firstMulticastInterface();
+            if (nif == null) {
+                log.warn("No multicast interface found, CoIoT only receives unicast (set the device's CoIoT peer)");
+                return;
+            }
+            channel.join(group, nif);
+            log.info("Joined CoIoT multicast group {} on {}", group.getHostAddress(), nif.getName());
+        } catch (IOException e) {
+            log.warn("Could not join CoIoT multicast group, only unicast is received: {}", e.getMessage());
+        }
+    }
+
+    private static NetworkInterface firstMulticastInterface() throws IOException {
+        return NetworkInterface.networkInterfaces()
+                .filter(nif -> {
+                    try {
+                        return nif.isUp() && nif.supportsMulticast() && !nif.isLoopback();
+                    } catch (IOException e) {
+                        return false;
+                    }
+                })
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        running = false;
+        if (selector != null) selector.close();
+        if (channel != null) channel.close();
+    }
+}
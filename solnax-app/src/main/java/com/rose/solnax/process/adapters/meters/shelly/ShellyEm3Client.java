@@ -5,9 +5,11 @@ import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status.*;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,11 +25,22 @@ public class ShellyEm3Client {
     private final String deviceId;
     private final ShellyEm3Properties.Device device;
     private final RestTemplate rest;
+    private final ShellyStatusDecoder.Mode decoder;
+
+    /** One holder per sampling thread; the streaming decoder refills it on every poll. */
+    private static final ThreadLocal<ShellyStatusDecoder.Readings> READINGS =
+            ThreadLocal.withInitial(ShellyStatusDecoder.Readings::new);
 
     public ShellyEm3Client(String deviceId, ShellyEm3Properties.Device device, RestTemplate rest) {
+        this(deviceId, device, rest, ShellyStatusDecoder.Mode.STREAMING);
+    }
+
+    public ShellyEm3Client(String deviceId, ShellyEm3Properties.Device device, RestTemplate rest,
+                           ShellyStatusDecoder.Mode decoder) {
         this.deviceId = deviceId;
         this.device   = device;
         this.rest     = rest;
+        this.decoder  = decoder;
     }
 
     // -------------------------------------------------------------------------
@@ -51,44 +64,48 @@ public class ShellyEm3Client {
     // Aggregates
     // -------------------------------------------------------------------------
 
-    public List<EmeterChannel> getAllPhases() {
-        List<EmeterChannel> channels = getStatus().emeters();
-        if (channels == null || channels.size() < 3) {
-            throw new ShellyEm3Exception(deviceId + ": expected 3 emeter channels, got "
-                    + (channels == null ? "null" : channels.size()));
+    /**
+     * Fetches /status once and returns an immutable snapshot of all three phases.
+     * Prefer this over the single-value aggregates below when more than one value is needed.
+     * Decoded with the configured {@link ShellyStatusDecoder.Mode}; both yield the same snapshot.
+     */
+    public ShellyEm3Snapshot getSnapshot() {
+        if (decoder == ShellyStatusDecoder.Mode.BINDING) {
+            List<EmeterChannel> channels = getStatus().emeters();
+            int count = channels == null ? 0 : channels.size();
+            requirePhases(count);
+            return new ShellyEm3Snapshot(deviceId, LocalDateTime.now(), channels);
         }
-        return channels;
-    }
 
-    public Optional<EmeterChannel> getPhaseIfValid(int phaseIndex) {
-        List<EmeterChannel> phases = getAllPhases();
-        if (phaseIndex < 0 || phaseIndex >= phases.size()) return Optional.empty();
-        EmeterChannel ch = phases.get(phaseIndex);
-        return ch.valid() ? Optional.of(ch) : Optional.empty();
+        String url = device.baseUrl() + "/status";
+        log.debug("[{}] GET {} (streaming)", deviceId, url);
+        ShellyStatusDecoder.Readings readings;
+        try {
+            readings = rest.execute(url, HttpMethod.GET, null,
+                    response -> ShellyStatusDecoder.decode(response.getBody(), READINGS.get()));
+        } catch (RestClientException ex) {
+            throw new ShellyEm3Exception(deviceId + ": HTTP call failed – " + url, ex);
+        }
+        if (readings == null) throw new ShellyEm3Exception(deviceId + ": empty response from " + url);
+        requirePhases(readings.count());
+        return readings.toSnapshot(deviceId, LocalDateTime.now());
     }
 
-    public double getTotalActivePowerW() {
-        return getAllPhases().stream()
-                .filter(EmeterChannel::valid)
-                .mapToDouble(EmeterChannel::powerW)
-                .sum();
+    public List<EmeterChannel> getAllPhases() {
+        return getSnapshot().phases();
     }
 
-    public double getTotalEnergyWh() {
-        return getAllPhases().stream()
-                .filter(EmeterChannel::valid)
-                .mapToDouble(EmeterChannel::totalEnergyWh)
-                .sum();
+    public Optional<EmeterChannel> getPhaseIfValid(int phaseIndex) {
+        return getSnapshot().phaseIfValid(phaseIndex);
     }
 
+    public double getTotalActivePowerW()       { return getSnapshot().totalActivePowerW(); }
+
+    public double getTotalEnergyWh()           { return getSnapshot().totalEnergyWh(); }
+
     public double getTotalEnergyKWh()          { return getTotalEnergyWh() / 1000.0; }
 
-    public double getTotalReturnedEnergyWh() {
-        return getAllPhases().stream()
-                .filter(EmeterChannel::valid)
-                .mapToDouble(EmeterChannel::totalReturnedWh)
-                .sum();
-    }
+    public double getTotalReturnedEnergyWh()   { return getSnapshot().totalReturnedEnergyWh(); }
 
     // -------------------------------------------------------------------------
     // Control
@@ -119,6 +136,12 @@ public class ShellyEm3Client {
         }
     }
 
+    private void requirePhases(int count) {
+        if (count < 3) {
+            throw new ShellyEm3Exception(deviceId + ": expected 3 emeter channels, got " + count);
+        }
+    }
+
     private static void validatePhase(int index) {
         if (index < 0 || index > 2)
             throw new IllegalArgumentException("Phase index must be 0, 1 or 2 – got: " + index);
@@ -26,6 +26,10 @@ import java.util.Map;
  *       main-panel:
  *         host: 192.168.1.102
  *         port: 8080
+ *     coiot:
+ *       enabled: true
+ *       quiet-after: 30s
+ *     decoder: streaming
  */
 @Component
 @ConfigurationProperties(prefix = "shelly.em3")
@@ -40,6 +44,12 @@ public class ShellyEm3Properties {
     /** Named device map. Key = logical name used throughout the application. */
     private Map<String, Device> devices = new LinkedHashMap<>();
 
+    /** Push updates over CoIoT (UDP), used instead of HTTP polling while devices keep sending. */
+    private CoIoT coiot = new CoIoT();
+
+    /** How /status is decoded; BINDING maps the full document and is kept to cross-check STREAMING. */
+    private ShellyStatusDecoder.Mode decoder = ShellyStatusDecoder.Mode.STREAMING;
+
     // -------------------------------------------------------------------------
 
     public Duration getConnectTimeout() { return connectTimeout; }
@@ -51,6 +61,12 @@ public class ShellyEm3Properties {
     public Map<String, Device> getDevices() { return devices; }
     public void setDevices(Map<String, Device> devices) { this.devices = devices; }
 
+    public CoIoT getCoiot() { return coiot; }
+    public void setCoiot(CoIoT coiot) { this.coiot = coiot; }
+
+    public ShellyStatusDecoder.Mode getDecoder() { return decoder; }
+    public void setDecoder(ShellyStatusDecoder.Mode decoder) { this.decoder = decoder; }
+
     // -------------------------------------------------------------------------
 
     public static class Device {
@@ -86,4 +102,34 @@ public class ShellyEm3Properties {
             return "http://" + host + (port != 80 ? ":" + port : "");
         }
     }
-}
\ No newline at end of file
+
+    // -------------------------------------------------------------------------
+
+    public static class CoIoT {
+
+        private boolean enabled = false;
+        private int port = 5683;
+        private String multicastGroup = "224.0.1.187";
+
+        /** Network interface to join the multicast group on; first multicast capable one when empty. */
+        private String networkInterface = "";
+
+        /** A device that has not pushed for this long is polled over HTTP again. */
+        private Duration quietAfter = Duration.ofSeconds(30);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getPort() { return port; }
+        public void setPort(int port) { this.port = port; }
+
+        public String getMulticastGroup() { return multicastGroup; }
+        public void setMulticastGroup(String multicastGroup) { this.multicastGroup = multicastGroup; }
+
+        public String getNetworkInterface() { return networkInterface; }
+        public void setNetworkInterface(String networkInterface) { this.networkInterface = networkInterface; }
+
+        public Duration getQuietAfter() { return quietAfter; }
+        public void setQuietAfter(Duration quietAfter) { this.quietAfter = quietAfter; }
+    }
+}
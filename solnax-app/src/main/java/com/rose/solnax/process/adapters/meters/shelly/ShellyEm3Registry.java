@@ -1,5 +1,6 @@
 package com.rose.solnax.process.adapters.meters.shelly;
 
+import com.rose.solnax.process.adapters.http.LanHttpClients;
 import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status;
 import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status.*;
 import  com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Properties.*;
@@ -28,7 +29,8 @@ public class ShellyEm3Registry {
     private final Map<String, ShellyEm3Client> clients;
 
     public ShellyEm3Registry(ShellyEm3Properties props,
-                             RestTemplateBuilder builder) {
+                             RestTemplateBuilder builder,
+                             LanHttpClients lanHttpClients) {
         if (props.getDevices().isEmpty()) {
             log.warn("No Shelly EM3 devices configured under shelly.em3.devices");
         }
@@ -36,7 +38,7 @@ public class ShellyEm3Registry {
         clients = props.getDevices().entrySet().stream()
                 .collect(Collectors.toUnmodifiableMap(
                         Map.Entry::getKey,
-                        e -> buildClient(e.getKey(), e.getValue(), props, builder)
+                        e -> buildClient(e.getKey(), e.getValue(), props, builder, lanHttpClients)
                 ));
 
         log.info("Shelly EM3 registry initialised with {} device(s): {}",
@@ -80,12 +82,32 @@ public class ShellyEm3Registry {
     // Cross-device aggregates
     // -------------------------------------------------------------------------
 
+    /**
+     * Takes one snapshot per device (one /status call each).
+     * Devices that fail to respond are skipped and logged.
+     */
+    public Map<String, ShellyEm3Snapshot> getSnapshots() {
+        Map<String, ShellyEm3Snapshot> result = new LinkedHashMap<>();
+        clients.forEach((id, client) -> {
+            try {
+                result.put(id, client.getSnapshot());
+            } catch (ShellyEm3Exception ex) {
+                log.warn("Skipping device '{}' during snapshot sweep: {}", id, ex.getMessage());
+            }
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
     /**
      * Returns the combined active power in Watts across ALL devices and phases.
      */
     public double getCombinedActivePowerW() {
-        return clients.values().stream()
-                .mapToDouble(ShellyEm3Client::getTotalActivePowerW)
+        return getCombinedActivePowerW(getSnapshots().values());
+    }
+
+    public static double getCombinedActivePowerW(Collection<ShellyEm3Snapshot> snapshots) {
+        return snapshots.stream()
+                .mapToDouble(ShellyEm3Snapshot::totalActivePowerW)
                 .sum();
     }
 
@@ -93,8 +115,12 @@ public class ShellyEm3Registry {
      * Returns the combined accumulated energy in kWh across ALL devices.
      */
     public double getCombinedEnergyKWh() {
-        return clients.values().stream()
-                .mapToDouble(ShellyEm3Client::getTotalEnergyKWh)
+        return getCombinedEnergyKWh(getSnapshots().values());
+    }
+
+    public static double getCombinedEnergyKWh(Collection<ShellyEm3Snapshot> snapshots) {
+        return snapshots.stream()
+                .mapToDouble(ShellyEm3Snapshot::totalEnergyKWh)
                 .sum();
     }
 
@@ -103,14 +129,12 @@ public class ShellyEm3Registry {
      * Devices that fail to respond are skipped and logged.
      */
     public Map<String, Double> getActivePowerPerDevice() {
+        return getActivePowerPerDevice(getSnapshots());
+    }
+
+    public static Map<String, Double> getActivePowerPerDevice(Map<String, ShellyEm3Snapshot> snapshots) {
         Map<String, Double> result = new LinkedHashMap<>();
-        clients.forEach((id, client) -> {
-            try {
-                result.put(id, client.getTotalActivePowerW());
-            } catch (ShellyEm3Exception ex) {
-                log.warn("Skipping device '{}' during power snapshot: {}", id, ex.getMessage());
-            }
-        });
+        snapshots.forEach((id, snapshot) -> result.put(id, snapshot.totalActivePowerW()));
         return Collections.unmodifiableMap(result);
     }
 
@@ -118,16 +142,16 @@ public class ShellyEm3Registry {
      * Returns all valid emeter channels across every device, tagged with their device ID.
      */
     public List<TaggedChannel> getAllChannels() {
+        return getAllChannels(getSnapshots());
+    }
+
+    public static List<TaggedChannel> getAllChannels(Map<String, ShellyEm3Snapshot> snapshots) {
         List<TaggedChannel> result = new ArrayList<>();
-        clients.forEach((id, client) -> {
-            try {
-                List<ShellyEm3Status.EmeterChannel> phases = client.getAllPhases();
-                for (int i = 0; i < phases.size(); i++) {
-                    ShellyEm3Status.EmeterChannel ch = phases.get(i);
-                    if (ch.valid()) result.add(new TaggedChannel(id, i, ch));
-                }
-            } catch (ShellyEm3Exception ex) {
-                log.warn("Skipping device '{}' during channel sweep: {}", id, ex.getMessage());
+        snapshots.forEach((id, snapshot) -> {
+            List<ShellyEm3Status.EmeterChannel> phases = snapshot.phases();
+            for (int i = 0; i < phases.size(); i++) {
+                ShellyEm3Status.EmeterChannel ch = phases.get(i);
+                if (ch.valid()) result.add(new TaggedChannel(id, i, ch));
             }
         });
         return Collections.unmodifiableList(result);
@@ -139,22 +163,23 @@ public class ShellyEm3Registry {
 
     private static ShellyEm3Client buildClient(String id, Device device,
                                                ShellyEm3Properties props,
-                                               RestTemplateBuilder builder) {
+                                               RestTemplateBuilder builder,
+                                               LanHttpClients lanHttpClients) {
         Duration connectTimeout = Optional.ofNullable(device.getConnectTimeout())
                 .orElse(props.getConnectTimeout());
         Duration readTimeout = Optional.ofNullable(device.getReadTimeout())
                 .orElse(props.getReadTimeout());
 
-        RestTemplateBuilder b = builder
-                .connectTimeout(connectTimeout)
-                .readTimeout(readTimeout);
+        // Timeouts live on the shared pool's request factory, not on the builder
+        RestTemplateBuilder b = builder.requestFactory(() -> lanHttpClients.requestFactory(
+                "shelly-" + id, device.baseUrl(), connectTimeout, readTimeout));
 
         if (StringUtils.hasText(device.getUsername())) {
             b = b.basicAuthentication(device.getUsername(), device.getPassword());
         }
 
         log.debug("Registering Shelly EM3 device '{}' → {}", id, device.baseUrl());
-        return new ShellyEm3Client(id, device, b.build());
+        return new ShellyEm3Client(id, device, b.build(), props.getDecoder());
     }
 
     // -------------------------------------------------------------------------
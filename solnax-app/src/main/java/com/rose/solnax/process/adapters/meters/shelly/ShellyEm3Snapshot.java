@@ -0,0 +1,69 @@
+package com.rose.solnax.process.adapters.meters.shelly;
+
+import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status.EmeterChannel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable view of one Shelly EM3 taken from a single /status call.
+ * Every aggregate is derived from the same response, so values are consistent with each other.
+ */
+public record ShellyEm3Snapshot(String deviceId, LocalDateTime takenAt, List<EmeterChannel> phases) {
+
+    public ShellyEm3Snapshot {
+        phases = List.copyOf(phases);
+    }
+
+    // -------------------------------------------------------------------------
+    // Per phase
+    // -------------------------------------------------------------------------
+
+    public boolean isValid(int phaseIndex) {
+        return phaseIndex >= 0 && phaseIndex < phases.size() && phases.get(phaseIndex).valid();
+    }
+
+    public boolean allPhasesValid() {
+        return phases.stream().allMatch(EmeterChannel::valid);
+    }
+
+    public Optional<EmeterChannel> phaseIfValid(int phaseIndex) {
+        return isValid(phaseIndex) ? Optional.of(phases.get(phaseIndex)) : Optional.empty();
+    }
+
+    public double voltageV(int phaseIndex) {
+        return phaseIfValid(phaseIndex).map(EmeterChannel::voltageV).orElse(0.0);
+    }
+
+    public double currentA(int phaseIndex) {
+        return phaseIfValid(phaseIndex).map(EmeterChannel::currentA).orElse(0.0);
+    }
+
+    // -------------------------------------------------------------------------
+    // Aggregates (valid phases only)
+    // -------------------------------------------------------------------------
+
+    public double totalActivePowerW() {
+        return phases.stream()
+                .filter(EmeterChannel::valid)
+                .mapToDouble(EmeterChannel::powerW)
+                .sum();
+    }
+
+    public double totalEnergyWh() {
+        return phases.stream()
+                .filter(EmeterChannel::valid)
+                .mapToDouble(EmeterChannel::totalEnergyWh)
+                .sum();
+    }
+
+    public double totalEnergyKWh()             { return totalEnergyWh() / 1000.0; }
+
+    public double totalReturnedEnergyWh() {
+        return phases.stream()
+                .filter(EmeterChannel::valid)
+                .mapToDouble(EmeterChannel::totalReturnedWh)
+                .sum();
+    }
+}
@@ -0,0 +1,68 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plans the fewest holding-register reads that cover a set of points.
+ *
+ * Modbus caps one read at 125 registers; neighbouring points are merged into one block
+ * (gaps included) as long as the block stays within that limit.
+ */
+public final class SunSpecBlockReader {
+
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    /** A contiguous holding-register read. */
+    public record Block(int offset, int count) {}
+
+    @FunctionalInterface
+    public interface BlockSource {
+        short[] read(int offset, int count) throws Exception;
+    }
+
+    private final List<Block> blocks;
+    private final int firstRegister;
+    private final int length;
+
+    public SunSpecBlockReader(List<SunSpecPoint> points) {
+        List<SunSpecPoint> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingInt(SunSpecPoint::firstRegister));
+
+        List<Block> planned = new ArrayList<>();
+        int start = -1;
+        int end = -1;
+        for (SunSpecPoint point : sorted) {
+            if (start < 0) {
+                start = point.firstRegister();
+                end = point.lastRegister();
+            } else if (Math.max(end, point.lastRegister()) - start + 1 <= MAX_REGISTERS_PER_READ) {
+                end = Math.max(end, point.lastRegister());
+            } else {
+                planned.add(new Block(start, end - start + 1));
+                start = point.firstRegister();
+                end = point.lastRegister();
+            }
+        }
+        if (start >= 0) planned.add(new Block(start, end - start + 1));
+
+        this.blocks = List.copyOf(planned);
+        this.firstRegister = blocks.isEmpty() ? 0 : blocks.get(0).offset();
+        Block last = blocks.isEmpty() ? new Block(0, 0) : blocks.get(blocks.size() - 1);
+        this.length = last.offset() + last.count() - firstRegister;
+    }
+
+    public List<Block> blocks() {
+        return blocks;
+    }
+
+    /** Runs every planned block read and returns the combined register image. */
+    public SunSpecRegisters read(BlockSource source) throws Exception {
+        SunSpecRegisters image = new SunSpecRegisters(firstRegister, length);
+        for (Block block : blocks) {
+            image.fill(block.offset(), source.read(block.offset(), block.count()));
+        }
+        return image;
+    }
+}
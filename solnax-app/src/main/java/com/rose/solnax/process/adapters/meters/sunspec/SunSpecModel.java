@@ -0,0 +1,17 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+/**
+ * One model found in the SunSpec chain.
+ * {@code offset} is the register holding the model ID, the length register follows and data starts after it.
+ * {@code instance} counts models of the same family (first inverter = 0, second inverter = 1, ...).
+ */
+public record SunSpecModel(int id, int instance, int offset, int length) {
+
+    public int dataStart() {
+        return offset + 2;
+    }
+
+    public String family() {
+        return SunSpecPoints.family(id);
+    }
+}
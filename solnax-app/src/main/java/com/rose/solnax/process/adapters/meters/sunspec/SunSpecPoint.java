@@ -0,0 +1,23 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+/**
+ * A scaled SunSpec point: value register(s) plus the register holding its scale factor.
+ * Offsets are absolute Modbus register addresses; {@link #NO_SCALE_FACTOR} for unscaled points.
+ */
+public record SunSpecPoint(String name, int offset, int sfOffset, SunSpecType type) {
+
+    public static final int NO_SCALE_FACTOR = -1;
+
+    public boolean isScaled() {
+        return sfOffset != NO_SCALE_FACTOR;
+    }
+
+    /** Last register occupied by this point, value or scale factor. */
+    public int lastRegister() {
+        return Math.max(offset + type.size() - 1, sfOffset);
+    }
+
+    public int firstRegister() {
+        return isScaled() ? Math.min(offset, sfOffset) : offset;
+    }
+}
@@ -0,0 +1,78 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+import java.util.List;
+
+/**
+ * Point layouts of the SunSpec models we know how to read, indexed from the start of the model data.
+ *
+ * Inverters 101/102/103 share one layout, as do meters 201..204. Storage 124 exposes its main
+ * control and state points; other models (e.g. 802 battery) are discovered and listed in the map
+ * but expose no named points yet.
+ */
+final class SunSpecPoints {
+
+    /** Point relative to the model data start; {@code sfIndex} is -1 for unscaled points. */
+    record Def(String name, int index, int sfIndex, SunSpecType type) {}
+
+    private static final List<Def> INVERTER = List.of(
+            new Def("A", 0, 4, SunSpecType.UINT16),
+            new Def("PhVphA", 8, 11, SunSpecType.UINT16),
+            new Def("PhVphB", 9, 11, SunSpecType.UINT16),
+            new Def("PhVphC", 10, 11, SunSpecType.UINT16),
+            new Def("W", 12, 13, SunSpecType.INT16),
+            new Def("Hz", 14, 15, SunSpecType.UINT16),
+            new Def("VA", 16, 17, SunSpecType.INT16),
+            new Def("VAr", 18, 19, SunSpecType.INT16),
+            new Def("PF", 20, 21, SunSpecType.INT16),
+            new Def("WH", 22, 24, SunSpecType.ACC32),
+            new Def("DCA", 25, 26, SunSpecType.UINT16),
+            new Def("DCV", 27, 28, SunSpecType.UINT16),
+            new Def("DCW", 29, 30, SunSpecType.INT16),
+            new Def("TmpCab", 31, 35, SunSpecType.INT16),
+            new Def("St", 36, -1, SunSpecType.UINT16)
+    );
+
+    private static final List<Def> METER = List.of(
+            new Def("A", 0, 4, SunSpecType.INT16),
+            new Def("PhV", 5, 13, SunSpecType.INT16),
+            new Def("PhVphA", 6, 13, SunSpecType.INT16),
+            new Def("Hz", 14, 15, SunSpecType.INT16),
+            new Def("W", 16, 20, SunSpecType.INT16),
+            new Def("WphA", 17, 20, SunSpecType.INT16),
+            new Def("WphB", 18, 20, SunSpecType.INT16),
+            new Def("WphC", 19, 20, SunSpecType.INT16),
+            new Def("VA", 21, 25, SunSpecType.INT16),
+            new Def("VAR", 26, 30, SunSpecType.INT16),
+            new Def("PF", 31, 35, SunSpecType.INT16),
+            new Def("TotWhExp", 36, 52, SunSpecType.ACC32),
+            new Def("TotWhImp", 44, 52, SunSpecType.ACC32)
+    );
+
+    private static final List<Def> STORAGE = List.of(
+            new Def("WChaMax", 0, 16, SunSpecType.UINT16),
+            new Def("ChaState", 6, 20, SunSpecType.UINT16),
+            new Def("InBatV", 8, 22, SunSpecType.UINT16),
+            new Def("OutWRte", 10, 23, SunSpecType.INT16),
+            new Def("InWRte", 11, 23, SunSpecType.INT16)
+    );
+
+    private SunSpecPoints() {}
+
+    static String family(int modelId) {
+        if (modelId >= 101 && modelId <= 103) return "inverter";
+        if (modelId >= 201 && modelId <= 204) return "meter";
+        if (modelId == 124) return "storage";
+        if (modelId == 802) return "battery";
+        if (modelId == 1) return "common";
+        return "model" + modelId;
+    }
+
+    static List<Def> layout(int modelId) {
+        return switch (family(modelId)) {
+            case "inverter" -> INVERTER;
+            case "meter" -> METER;
+            case "storage" -> STORAGE;
+            default -> List.of();
+        };
+    }
+}
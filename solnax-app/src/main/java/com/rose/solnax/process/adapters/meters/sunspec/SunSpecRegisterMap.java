@@ -0,0 +1,68 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable name → register map built once from the discovered SunSpec model chain.
+ *
+ * Every point is registered as {@code family[instance].Point} (e.g. {@code meter[1].W});
+ * the first instance of a family is also available as {@code family.Point} (e.g. {@code inverter.W}).
+ */
+public final class SunSpecRegisterMap {
+
+    private final List<SunSpecModel> models;
+    private final Map<String, SunSpecPoint> points;
+
+    private SunSpecRegisterMap(List<SunSpecModel> models, Map<String, SunSpecPoint> points) {
+        this.models = List.copyOf(models);
+        this.points = Collections.unmodifiableMap(points);
+    }
+
+    public static SunSpecRegisterMap of(List<SunSpecModel> models) {
+        Map<String, SunSpecPoint> points = new LinkedHashMap<>();
+        for (SunSpecModel model : models) {
+            for (SunSpecPoints.Def def : SunSpecPoints.layout(model.id())) {
+                int offset = model.dataStart() + def.index();
+                int sfOffset = def.sfIndex() < 0 ? SunSpecPoint.NO_SCALE_FACTOR : model.dataStart() + def.sfIndex();
+                String indexed = model.family() + "[" + model.instance() + "]." + def.name();
+                points.put(indexed, new SunSpecPoint(indexed, offset, sfOffset, def.type()));
+                if (model.instance() == 0) {
+                    String plain = model.family() + "." + def.name();
+                    points.put(plain, new SunSpecPoint(plain, offset, sfOffset, def.type()));
+                }
+            }
+        }
+        return new SunSpecRegisterMap(models, points);
+    }
+
+    public List<SunSpecModel> models() {
+        return models;
+    }
+
+    /** Number of models of a family, e.g. how many inverters are on the bus. */
+    public int count(String family) {
+        return (int) models.stream().filter(m -> m.family().equals(family)).count();
+    }
+
+    public Optional<SunSpecPoint> find(String name) {
+        return Optional.ofNullable(points.get(name));
+    }
+
+    /** @throws IllegalArgumentException when the point is not present on this device */
+    public SunSpecPoint point(String name) {
+        SunSpecPoint point = points.get(name);
+        if (point == null) {
+            throw new IllegalArgumentException("Unknown SunSpec point '" + name + "', models present: " + models);
+        }
+        return point;
+    }
+
+    @Override
+    public String toString() {
+        return models.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+/**
+ * Register image covering [firstRegister, firstRegister + length), filled by one or more block reads.
+ * All points of a read cycle are decoded from this single array.
+ */
+public class SunSpecRegisters {
+
+    /** SunSpec marks unimplemented scale factors with 0x8000. */
+    private static final short SF_NOT_IMPLEMENTED = (short) 0x8000;
+
+    /** 10^sf for the SunSpec scale factor range -10..10, so no Math.pow per read. */
+    private static final double[] POW10 = new double[21];
+
+    static {
+        for (int sf = -10; sf <= 10; sf++) {
+            POW10[sf + 10] = Math.pow(10, sf);
+        }
+    }
+
+    private final int firstRegister;
+    private final short[] registers;
+
+    public SunSpecRegisters(int firstRegister, int length) {
+        this.firstRegister = firstRegister;
+        this.registers = new short[length];
+    }
+
+    /** Copies the response of a block read starting at {@code offset} into the image. */
+    public void fill(int offset, short[] data) {
+        System.arraycopy(data, 0, registers, offset - firstRegister, data.length);
+    }
+
+    public short raw(int offset) {
+        return registers[offset - firstRegister];
+    }
+
+    public double value(SunSpecPoint point) {
+        double scale = point.isScaled() ? scale(raw(point.sfOffset())) : 1.0;
+        return raw(point.offset(), point.type()) * scale;
+    }
+
+    public int intValue(SunSpecPoint point) {
+        return (int) Math.round(value(point));
+    }
+
+    public long longValue(SunSpecPoint point) {
+        return Math.round(value(point));
+    }
+
+    private long raw(int offset, SunSpecType type) {
+        return switch (type) {
+            case INT16 -> raw(offset);
+            case UINT16 -> raw(offset) & 0xFFFF;
+            case ACC32, UINT32 -> ((long) (raw(offset) & 0xFFFF) << 16) | (raw(offset + 1) & 0xFFFF);
+        };
+    }
+
+    static double scale(short sf) {
+        if (sf == SF_NOT_IMPLEMENTED) return 1.0;
+        if (sf < -10 || sf > 10) return Math.pow(10, sf);
+        return POW10[sf + 10];
+    }
+}
@@ -0,0 +1,55 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walks the SunSpec model chain: the "SunS" marker at one of the well-known base addresses,
+ * then (ID, length) headers until the 0xFFFF end model.
+ */
+public final class SunSpecScanner {
+
+    /** Well-known SunSpec base registers, in the order they are tried. */
+    public static final List<Integer> BASE_ADDRESSES = List.of(40000, 0, 50000);
+
+    private static final short SUNS_HI = 0x5375; // "Su"
+    private static final short SUNS_LO = 0x6E53; // "nS"
+    private static final int END_MODEL = 0xFFFF;
+    private static final int MAX_MODELS = 64;
+
+    private SunSpecScanner() {}
+
+    public static SunSpecRegisterMap scan(SunSpecBlockReader.BlockSource source, List<Integer> bases) throws Exception {
+        for (int base : bases) {
+            short[] marker;
+            try {
+                marker = source.read(base, 2);
+            } catch (Exception e) {
+                continue; // base not mapped on this device
+            }
+            if (marker.length == 2 && marker[0] == SUNS_HI && marker[1] == SUNS_LO) {
+                return SunSpecRegisterMap.of(walk(source, base + 2));
+            }
+        }
+        throw new IllegalStateException("No SunSpec marker found at any of " + bases);
+    }
+
+    private static List<SunSpecModel> walk(SunSpecBlockReader.BlockSource source, int offset) throws Exception {
+        List<SunSpecModel> models = new ArrayList<>();
+        Map<String, Integer> instances = new HashMap<>();
+        for (int i = 0; i < MAX_MODELS; i++) {
+            short[] header = source.read(offset, 2);
+            int id = header[0] & 0xFFFF;
+            int length = header[1] & 0xFFFF;
+            if (id == END_MODEL) break;
+
+            String family = SunSpecPoints.family(id);
+            int instance = instances.merge(family, 1, Integer::sum) - 1;
+            models.add(new SunSpecModel(id, instance, offset, length));
+            offset += 2 + length;
+        }
+        return models;
+    }
+}
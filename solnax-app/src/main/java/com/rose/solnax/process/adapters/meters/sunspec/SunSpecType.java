@@ -0,0 +1,18 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+public enum SunSpecType {
+    INT16(1),
+    UINT16(1),
+    ACC32(2),
+    UINT32(2);
+
+    private final int size;
+
+    SunSpecType(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+}
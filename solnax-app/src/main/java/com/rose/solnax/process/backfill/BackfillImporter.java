@@ -0,0 +1,283 @@
+package com.rose.solnax.process.backfill;
+
+import com.rose.solnax.model.entity.ImportJob;
+import com.rose.solnax.model.entity.enums.ImportJobState;
+import com.rose.solnax.model.repository.ImportJobRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.storage.RecentMeasurementCache;
+import com.rose.solnax.process.storage.RollupManager;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads historical meter data (SolarEdge monitoring exports, Shelly CSVs, ...) into {@code measurement}.
+ *
+ * The upload is read line by line and buffered as COPY input for {@code chunk-size} values. Each chunk is
+ * copied into a temporary table and moved into {@code measurement} with {@code on conflict do nothing}, so
+ * values that already exist are kept and counted as duplicates. Missing monthly partitions are created first.
+ * The chunk and the job's progress commit together: re-uploading the same file under the same job id
+ * continues after the last committed line. Rollups of the imported range are recomputed at the end.
+ *
+ * Values go into known channels only, or into the targets of an explicit {@code from:to} mapping, which are
+ * registered on first use. Anything else is rejected rather than becoming a channel of its own.
+ */
+@Component
+@Slf4j
+public class BackfillImporter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportJobRepository importJobRepository;
+    private final ChannelRegistry channelRegistry;
+    private final RollupManager rollupManager;
+    private final RecentMeasurementCache recentMeasurements;
+    private final int chunkSize;
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public BackfillImporter(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ImportJobRepository importJobRepository,
+                            ChannelRegistry channelRegistry,
+                            RollupManager rollupManager,
+                            RecentMeasurementCache recentMeasurements,
+                            @Value("${solnax.import.chunk-size:50000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.importJobRepository = importJobRepository;
+        this.channelRegistry = channelRegistry;
+        this.rollupManager = rollupManager;
+        this.recentMeasurements = recentMeasurements;
+        this.chunkSize = chunkSize;
+    }
+
+    public Optional<ImportJob> find(String id) {
+        return importJobRepository.findById(id);
+    }
+
+    /** {@code from:to} pairs, e.g. {@code Production:solar} or {@code Unit:-} to skip a column. */
+    public static Map<String, String> renames(List<String> mappings) {
+        Map<String, String> rename = new HashMap<>();
+        for (String mapping : mappings) {
+            int colon = mapping.lastIndexOf(':');
+            if (colon <= 0) throw new IllegalArgumentException("Expected from:to, got '" + mapping + "'");
+            rename.put(mapping.substring(0, colon).trim(), mapping.substring(colon + 1).trim());
+        }
+        return rename;
+    }
+
+    /**
+     * Imports {@code input} under job {@code id}, creating the job or resuming it.
+     * @param scale multiplier for every value, e.g. 1000 for kW inputs
+     * @throws IllegalArgumentException when the job exists with another format or the header is unusable
+     * @throws IllegalStateException when the job is already being uploaded
+     */
+    public ImportJob importLines(String id, ImportFormat format, InputStream input, double scale,
+                                 Map<String, String> rename) throws IOException {
+        if (!running.add(id)) throw new IllegalStateException("Import " + id + " is already running");
+        try {
+            return load(start(id, format), format, input, scale, rename);
+        } finally {
+            running.remove(id);
+        }
+    }
+
+    private ImportJob load(ImportJob job, ImportFormat format, InputStream input, double scale,
+                           Map<String, String> rename) throws IOException {
+        String id = job.getId();
+        Chunk chunk = new Chunk();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+            long resumeAfter = job.getLinesCommitted();
+            long line = 0;
+            String first = null;
+            if (ImportLineParser.hasHeader(format)) {
+                first = reader.readLine();
+                line++;
+            }
+            Set<String> mapped = new HashSet<>(rename.values());
+            mapped.remove(ImportLineParser.SKIP);
+            ImportLineParser parser = ImportLineParser.create(format, first, rename,
+                    channel -> mapped.contains(channel) || channelRegistry.findId(channel).isPresent());
+            ImportLineParser.Values values = new ImportLineParser.Values();
+
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line <= resumeAfter) continue;
+                try {
+                    if (parser.parse(text, values)) chunk.add(values, scale);
+                } catch (IllegalArgumentException e) {
+                    chunk.reject(line, e.getMessage());
+                }
+                if (chunk.rows >= chunkSize) job = commit(job, chunk, line);
+            }
+            job = commit(job, chunk, Math.max(line, resumeAfter));
+            job.setState(ImportJobState.COMPLETED);
+            job.setUpdatedAt(LocalDateTime.now());
+            log.info("Import {} completed: {} line(s), {} value(s), {} new, {} line(s) rejected", id,
+                    job.getLinesCommitted(), job.getRowsRead(), job.getRowsInserted(), job.getLinesRejected());
+            return importJobRepository.save(job);
+        } catch (IOException | RuntimeException e) {
+            // The in-memory job may hold counters of a chunk that rolled back
+            importJobRepository.findById(id).ifPresent(stored -> {
+                stored.setState(ImportJobState.FAILED);
+                stored.setMessage(e.getMessage());
+                stored.setUpdatedAt(LocalDateTime.now());
+                importJobRepository.save(stored);
+            });
+            log.warn("Import {} stopped: {}", id, e.getMessage());
+            throw e;
+        } finally {
+            chunk.afterImport();
+        }
+    }
+
+    private ImportJob start(String id, ImportFormat format) {
+        LocalDateTime now = LocalDateTime.now();
+        ImportJob job = importJobRepository.findById(id).orElseGet(() -> ImportJob.builder()
+                .id(id)
+                .format(format.name())
+                .startedAt(now)
+                .build());
+        if (!job.getFormat().equals(format.name())) {
+            throw new IllegalArgumentException("Import " + id + " was started as " + job.getFormat());
+        }
+        if (job.getLinesCommitted() > 0) log.info("Resuming import {} after line {}", id, job.getLinesCommitted());
+        job.setState(ImportJobState.RUNNING);
+        job.setUpdatedAt(now);
+        return importJobRepository.save(job);
+    }
+
+    /** Loads the chunk and records progress up to {@code line} in one transaction. */
+    private ImportJob commit(ImportJob job, Chunk chunk, long line) {
+        ImportJob committed = transactionTemplate.execute(status -> {
+            // Data and progress commit together, so losing the last chunk on a crash only means re-reading it
+            jdbcTemplate.execute("set local synchronous_commit = off");
+            for (YearMonth month : chunk.months) {
+                jdbcTemplate.queryForObject("select ensure_measurement_partition(?)", String.class, Date.valueOf(month.atDay(1)));
+            }
+            int inserted = 0;
+            if (chunk.rows > 0) {
+                jdbcTemplate.execute("create temp table measurement_import " +
+                        "(time timestamp, channel_id integer, value integer) on commit drop");
+                jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+                    try {
+                        return con.unwrap(PGConnection.class).getCopyAPI()
+                                .copyIn("copy measurement_import from stdin (format csv)", new StringReader(chunk.copy.toString()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                inserted = jdbcTemplate.update("insert into measurement(time, channel_id, value) " +
+                        "select time, channel_id, value from measurement_import on conflict do nothing");
+            }
+            job.setLinesCommitted(line);
+            job.setRowsRead(job.getRowsRead() + chunk.rows);
+            job.setRowsInserted(job.getRowsInserted() + inserted);
+            job.setLinesRejected(job.getLinesRejected() + chunk.rejected);
+            if (job.getMessage() == null) job.setMessage(chunk.firstRejection);
+            if (chunk.first != null && (job.getFirstTime() == null || chunk.first.isBefore(job.getFirstTime()))) {
+                job.setFirstTime(chunk.first);
+            }
+            if (chunk.last != null && (job.getLastTime() == null || chunk.last.isAfter(job.getLastTime()))) {
+                job.setLastTime(chunk.last);
+            }
+            job.setUpdatedAt(LocalDateTime.now());
+            return importJobRepository.save(job);
+        });
+        log.info("Import {}: line {}, {} value(s) read, {} new", job.getId(), line, committed.getRowsRead(), committed.getRowsInserted());
+        chunk.committed();
+        return committed;
+    }
+
+    // -------------------------------------------------------------------------
+
+    /** COPY input of the values since the last commit, and the range committed by this upload. */
+    private final class Chunk {
+
+        final StringBuilder copy = new StringBuilder();
+        final Set<YearMonth> months = new TreeSet<>();
+        int rows;
+        long rejected;
+        String firstRejection;
+        LocalDateTime first;
+        LocalDateTime last;
+
+        private LocalDateTime importedFrom;
+        private LocalDateTime importedTo;
+
+        void add(ImportLineParser.Values values, double scale) {
+            long[] scaled = new long[values.size()];
+            for (int i = 0; i < values.size(); i++) {
+                scaled[i] = Math.round(values.values[i] * scale);
+                if (scaled[i] < Integer.MIN_VALUE || scaled[i] > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Value " + values.values[i] + " of " + values.channels.get(i) + " out of range");
+                }
+            }
+            String time = values.time.toString();
+            for (int i = 0; i < values.size(); i++) {
+                // Only known channels and mapped targets get here, see ImportLineParser
+                copy.append(time).append(',').append(channelRegistry.idOf(values.channels.get(i)))
+                        .append(',').append(scaled[i]).append('\n');
+            }
+            rows += values.size();
+            months.add(YearMonth.from(values.time));
+            if (first == null || values.time.isBefore(first)) first = values.time;
+            if (last == null || values.time.isAfter(last)) last = values.time;
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (firstRejection == null) firstRejection = "Line " + line + ": " + reason;
+        }
+
+        void committed() {
+            if (first != null && (importedFrom == null || first.isBefore(importedFrom))) importedFrom = first;
+            if (last != null && (importedTo == null || last.isAfter(importedTo))) importedTo = last;
+            copy.setLength(0);
+            months.clear();
+            rows = 0;
+            rejected = 0;
+            firstRejection = null;
+            first = null;
+            last = null;
+        }
+
+        /** Rollups and the recent cache learn about whatever was committed, also when the upload broke off. */
+        void afterImport() {
+            if (importedFrom == null) return;
+            try {
+                rollupManager.refresh(importedFrom, importedTo);
+                recentMeasurements.reload(importedFrom, importedTo);
+            } catch (RuntimeException e) {
+                log.warn("Refreshing rollups after import failed, will catch up: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.rose.solnax.process.backfill;
+
+import java.util.Locale;
+
+/** Upload formats of {@link BackfillImporter}. */
+public enum ImportFormat {
+
+    /** Header {@code time,<channel>,...} then one line per interval; {@code ,}, {@code ;} or tab separated. */
+    CSV,
+
+    /** One JSON object per line: {@code {"time": ..., "<channel>": <value>, ...}}. */
+    NDJSON;
+
+    /** Case-insensitive, e.g. {@code ndjson}. */
+    public static ImportFormat parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /** NDJSON for any JSON content type, CSV otherwise. */
+    public static ImportFormat fromContentType(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json") ? NDJSON : CSV;
+    }
+}
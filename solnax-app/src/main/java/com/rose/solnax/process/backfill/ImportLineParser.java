@@ -0,0 +1,216 @@
+package com.rose.solnax.process.backfill;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Turns one input line into a time and channel values. Input column names go through a rename map first;
+ * a column renamed to {@code -} is skipped. Every other name must be an accepted channel: an unknown CSV column
+ * rejects the header, an unknown NDJSON field its line, so a stray column never becomes a channel. Times are ISO local date-times (a space instead of the {@code T} is
+ * fine), ISO times with an offset, or epoch seconds/milliseconds; the latter two are converted to local time.
+ */
+abstract class ImportLineParser {
+
+    static final String SKIP = "-";
+
+    /** One parsed line, reused between calls. */
+    static final class Values {
+        LocalDateTime time;
+        final List<String> channels = new ArrayList<>();
+        double[] values = new double[8];
+
+        int size() {
+            return channels.size();
+        }
+
+        void clear() {
+            time = null;
+            channels.clear();
+        }
+
+        void add(String channel, double value) {
+            if (channels.size() == values.length) values = Arrays.copyOf(values, values.length * 2);
+            values[channels.size()] = value;
+            channels.add(channel);
+        }
+    }
+
+    /**
+     * Parses {@code line} into {@code out}.
+     * @return false for a blank line
+     * @throws IllegalArgumentException when the line is malformed
+     */
+    abstract boolean parse(String line, Values out);
+
+    /** @param accepted channel names values may be imported into, after renaming */
+    static ImportLineParser create(ImportFormat format, String firstLine, Map<String, String> rename,
+                                   Predicate<String> accepted) {
+        return switch (format) {
+            case CSV -> new Csv(firstLine, rename, accepted);
+            case NDJSON -> new NdJson(rename, accepted);
+        };
+    }
+
+    /** True when the format starts with a header line. */
+    static boolean hasHeader(ImportFormat format) {
+        return format == ImportFormat.CSV;
+    }
+
+    static LocalDateTime parseTime(String text) {
+        String t = unquote(text.trim());
+        if (!t.isEmpty() && t.chars().allMatch(Character::isDigit)) {
+            long epoch = Long.parseLong(t);
+            Instant instant = epoch > 100_000_000_000L ? Instant.ofEpochMilli(epoch) : Instant.ofEpochSecond(epoch);
+            return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        if (t.length() > 10 && t.charAt(10) == ' ') t = t.substring(0, 10) + 'T' + t.substring(11);
+        try {
+            return LocalDateTime.parse(t);
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(t).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            } catch (DateTimeParseException e2) {
+                throw new IllegalArgumentException("Unreadable time '" + text + "'");
+            }
+        }
+    }
+
+    private static String unquote(String text) {
+        return text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"'
+                ? text.substring(1, text.length() - 1)
+                : text;
+    }
+
+    // -------------------------------------------------------------------------
+
+    private static final class Csv extends ImportLineParser {
+
+        private final char delimiter;
+        /** Channel per column after the time column, null when skipped. */
+        private final String[] channels;
+
+        Csv(String header, Map<String, String> rename, Predicate<String> accepted) {
+            if (header == null) throw new IllegalArgumentException("Empty upload, expected a CSV header");
+            this.delimiter = detectDelimiter(header);
+            List<String> columns = split(header, delimiter);
+            if (columns.size() < 2) throw new IllegalArgumentException("CSV header needs a time and at least one channel column");
+            this.channels = new String[columns.size() - 1];
+            for (int i = 1; i < columns.size(); i++) {
+                String name = unquote(columns.get(i).trim());
+                String channel = rename.getOrDefault(name, name);
+                if (SKIP.equals(channel) || channel.isEmpty()) continue;
+                if (!accepted.test(channel)) {
+                    throw new IllegalArgumentException("Unknown channel '" + channel + "' in column '" + name
+                            + "', map it with " + name + ":<channel> or skip it with " + name + ":-");
+                }
+                channels[i - 1] = channel;
+            }
+        }
+
+        @Override
+        boolean parse(String line, Values out) {
+            out.clear();
+            if (line.isBlank()) return false;
+            List<String> fields = split(line, delimiter);
+            if (fields.size() != channels.length + 1) {
+                throw new IllegalArgumentException("Expected " + (channels.length + 1) + " fields, got " + fields.size());
+            }
+            out.time = parseTime(fields.get(0));
+            for (int i = 0; i < channels.length; i++) {
+                String value = unquote(fields.get(i + 1).trim());
+                if (channels[i] == null || value.isEmpty()) continue;
+                try {
+                    out.add(channels[i], Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Unreadable value '" + value + "' for " + channels[i]);
+                }
+            }
+            return true;
+        }
+
+        private static char detectDelimiter(String header) {
+            char best = ',';
+            long bestCount = 0;
+            for (char candidate : new char[]{',', ';', '\t'}) {
+                long count = header.chars().filter(c -> c == candidate).count();
+                if (count > bestCount) {
+                    best = candidate;
+                    bestCount = count;
+                }
+            }
+            return best;
+        }
+
+        /** Splits on {@code delimiter} outside double quotes; quotes are kept and stripped per field. */
+        private static List<String> split(String line, char delimiter) {
+            List<String> fields = new ArrayList<>();
+            boolean quoted = false;
+            int start = 0;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') quoted = !quoted;
+                else if (c == delimiter && !quoted) {
+                    fields.add(line.substring(start, i));
+                    start = i + 1;
+                }
+            }
+            fields.add(line.substring(start));
+            return fields;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    private static final class NdJson extends ImportLineParser {
+
+        private static final JsonFactory JSON = new JsonFactory();
+
+        private final Map<String, String> rename;
+        private final Predicate<String> accepted;
+
+        NdJson(Map<String, String> rename, Predicate<String> accepted) {
+            this.rename = rename;
+            this.accepted = accepted;
+        }
+
+        @Override
+        boolean parse(String line, Values out) {
+            out.clear();
+            if (line.isBlank()) return false;
+            try (JsonParser parser = JSON.createParser(line)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) throw new IllegalArgumentException("Expected a JSON object");
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    if ("time".equals(name)) {
+                        out.time = parseTime(parser.getText());
+                    } else if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                        String channel = rename.getOrDefault(name, name);
+                        if (SKIP.equals(channel)) continue;
+                        if (!accepted.test(channel)) throw new IllegalArgumentException("Unknown channel '" + channel + "'");
+                        out.add(channel, parser.getDoubleValue());
+                    } else {
+                        parser.skipChildren(); // units, labels, nested objects
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getMessage());
+            }
+            if (out.time == null) throw new IllegalArgumentException("No \"time\" field");
+            return true;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.rose.solnax.process.channels;
+
+import com.rose.solnax.model.entity.Channel;
+import com.rose.solnax.model.repository.ChannelRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Name ↔ id of every measurement channel. Configured channels are registered at startup, so adding a
+ * device needs configuration only. The write path never touches the database: a channel it does not know
+ * yet is queued, and the measurement writer registers it with its next flush; until then its values are
+ * skipped.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChannelRegistry {
+
+    private final ChannelRepository channelRepository;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        channelRepository.findAll().forEach(this::remember);
+        log.info("Channel registry loaded {} channel(s): {}", ids.size(), ids.keySet());
+    }
+
+    /** Id of {@code name}, registering the channel when it is new. Touches the database for a new channel. */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : register(name);
+    }
+
+    /** Id of a known channel, without registering it. */
+    public Optional<Integer> findId(String name) {
+        return Optional.ofNullable(ids.get(name));
+    }
+
+    /** Id of a known channel; an unknown one is queued for {@link #registerPending()} and empty until then. */
+    public Optional<Integer> findIdOrQueue(String name) {
+        Integer id = ids.get(name);
+        if (id == null && pending.add(name)) log.info("Channel '{}' queued for registration, skipping its values until then", name);
+        return Optional.ofNullable(id);
+    }
+
+    /** Registers {@code channels} now; any that fail are queued for {@link #registerPending()}. */
+    public void registerAll(Collection<String> channels) {
+        for (String name : channels) {
+            if (ids.containsKey(name)) continue;
+            try {
+                register(name);
+            } catch (RuntimeException e) {
+                pending.add(name);
+                log.warn("Could not register channel '{}', queued: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Registers the queued channels; called off the sampling path by the measurement writer.
+     * @throws RuntimeException when the database fails, leaving the rest queued
+     */
+    public void registerPending() {
+        for (String name : pending) {
+            register(name);
+            pending.remove(name);
+        }
+    }
+
+    /** Name of a channel id, or {@code null} when unknown. */
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public List<String> names() {
+        return List.copyOf(ids.keySet());
+    }
+
+    private synchronized int register(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        Channel channel = channelRepository.findByName(name)
+                .orElseGet(() -> channelRepository.save(Channel.builder()
+                        .name(name)
+                        .unit("W")
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+        log.info("Registered channel '{}' as {}", name, channel.getId());
+        remember(channel);
+        return channel.getId();
+    }
+
+    private void remember(Channel channel) {
+        ids.put(channel.getName(), channel.getId());
+        names.put(channel.getId(), channel.getName());
+    }
+}
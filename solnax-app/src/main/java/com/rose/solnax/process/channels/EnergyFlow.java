@@ -0,0 +1,68 @@
+package com.rose.solnax.process.channels;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The configured energy flow: per-channel transforms applied before storing and derived channels
+ * computed when reading. Formulas are parsed once at startup, so a typo fails the boot.
+ */
+@Component
+@Slf4j
+public class EnergyFlow {
+
+    private final Map<String, EnergyFlowFormula> stored;
+    private final Map<String, EnergyFlowFormula> derived;
+
+    public EnergyFlow(EnergyFlowProperties props) {
+        this.stored = compile(props.getChannels());
+        this.derived = compile(props.getDerived());
+        log.info("Energy flow: stored {} derived {}", stored, derived);
+    }
+
+    private static Map<String, EnergyFlowFormula> compile(Map<String, String> formulas) {
+        Map<String, EnergyFlowFormula> compiled = new LinkedHashMap<>();
+        formulas.forEach((name, formula) -> compiled.put(name, EnergyFlowFormula.parse(formula)));
+        return Collections.unmodifiableMap(compiled);
+    }
+
+    /** Value to store for {@code channel}; the raw reading when no transform is configured. */
+    public double stored(String channel, ToDoubleFunction<String> raw) {
+        EnergyFlowFormula formula = stored.get(channel);
+        return formula != null ? formula.evaluate(raw) : raw.applyAsDouble(channel);
+    }
+
+    /** Stored values for all {@code channels}, in order. */
+    public Map<String, Double> stored(Collection<String> channels, ToDoubleFunction<String> raw) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (String channel : channels) {
+            values.put(channel, stored(channel, raw));
+        }
+        return values;
+    }
+
+    /** Channels with a configured transform. */
+    public Set<String> storedChannels() {
+        return stored.keySet();
+    }
+
+    public Set<String> derivedChannels() {
+        return derived.keySet();
+    }
+
+    /** Evaluates a derived channel against stored channel values. */
+    public double derived(String channel, ToDoubleFunction<String> stored) {
+        EnergyFlowFormula formula = derived.get(channel);
+        if (formula == null) {
+            throw new IllegalArgumentException("No derived channel '" + channel + "', configured: " + derived.keySet());
+        }
+        return formula.evaluate(stored);
+    }
+}
@@ -0,0 +1,204 @@
+package com.rose.solnax.process.channels;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Arithmetic over channel values, e.g. {@code max(0, solar + grid - charger - kitchen - heater)}.
+ *
+ * Supports {@code + - * /}, unary minus, parentheses, numbers, channel names
+ * ({@code [A-Za-z_][A-Za-z0-9_]*}) and the functions {@code min}, {@code max} and {@code abs}.
+ * Parsed once into a small tree; evaluation does not allocate.
+ */
+public final class EnergyFlowFormula {
+
+    private final String source;
+    private final Node root;
+    private final Set<String> channels;
+
+    private EnergyFlowFormula(String source, Node root, Set<String> channels) {
+        this.source = source;
+        this.root = root;
+        this.channels = Collections.unmodifiableSet(channels);
+    }
+
+    /** @throws IllegalArgumentException on a syntax error, with the position in the message */
+    public static EnergyFlowFormula parse(String source) {
+        Parser parser = new Parser(source);
+        Node root = parser.expression();
+        parser.skipSpaces();
+        if (parser.pos < source.length()) {
+            throw parser.error("unexpected '" + source.charAt(parser.pos) + "'");
+        }
+        return new EnergyFlowFormula(source, root, parser.channels);
+    }
+
+    public double evaluate(ToDoubleFunction<String> channel) {
+        return root.eval(channel);
+    }
+
+    /** Channels the formula reads. */
+    public Set<String> channels() {
+        return channels;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    // -------------------------------------------------------------------------
+
+    private interface Node {
+        double eval(ToDoubleFunction<String> channel);
+    }
+
+    private static final class Parser {
+
+        private final String in;
+        private int pos;
+        private final Set<String> channels = new LinkedHashSet<>();
+
+        Parser(String in) {
+            this.in = in;
+        }
+
+        Node expression() {
+            Node left = term();
+            while (true) {
+                if (accept('+')) {
+                    Node l = left, r = term();
+                    left = c -> l.eval(c) + r.eval(c);
+                } else if (accept('-')) {
+                    Node l = left, r = term();
+                    left = c -> l.eval(c) - r.eval(c);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node term() {
+            Node left = factor();
+            while (true) {
+                if (accept('*')) {
+                    Node l = left, r = factor();
+                    left = c -> l.eval(c) * r.eval(c);
+                } else if (accept('/')) {
+                    Node l = left, r = factor();
+                    left = c -> l.eval(c) / r.eval(c);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node factor() {
+            if (accept('-')) {
+                Node operand = factor();
+                return c -> -operand.eval(c);
+            }
+            if (accept('(')) {
+                Node inner = expression();
+                expect(')');
+                return inner;
+            }
+            skipSpaces();
+            if (pos < in.length() && (Character.isDigit(in.charAt(pos)) || in.charAt(pos) == '.')) {
+                return number();
+            }
+            String name = identifier();
+            if (accept('(')) {
+                return function(name);
+            }
+            channels.add(name);
+            return c -> c.applyAsDouble(name);
+        }
+
+        private Node function(String name) {
+            List<Node> args = new ArrayList<>();
+            if (!accept(')')) {
+                do {
+                    args.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            switch (name) {
+                case "abs":
+                    arity(name, args, 1);
+                    Node x = args.get(0);
+                    return c -> Math.abs(x.eval(c));
+                case "min":
+                case "max":
+                    if (args.isEmpty()) throw error(name + "() needs at least one argument");
+                    Node[] nodes = args.toArray(new Node[0]);
+                    boolean max = name.equals("max");
+                    return c -> {
+                        double result = nodes[0].eval(c);
+                        for (int i = 1; i < nodes.length; i++) {
+                            double v = nodes[i].eval(c);
+                            result = max ? Math.max(result, v) : Math.min(result, v);
+                        }
+                        return result;
+                    };
+                default:
+                    throw error("unknown function '" + name + "'");
+            }
+        }
+
+        private Node number() {
+            int start = pos;
+            while (pos < in.length() && (Character.isDigit(in.charAt(pos)) || in.charAt(pos) == '.')) pos++;
+            try {
+                double value = Double.parseDouble(in.substring(start, pos));
+                return c -> value;
+            } catch (NumberFormatException e) {
+                throw error("bad number '" + in.substring(start, pos) + "'");
+            }
+        }
+
+        private String identifier() {
+            skipSpaces();
+            int start = pos;
+            if (pos < in.length() && (Character.isLetter(in.charAt(pos)) || in.charAt(pos) == '_')) {
+                pos++;
+                while (pos < in.length() && (Character.isLetterOrDigit(in.charAt(pos)) || in.charAt(pos) == '_')) pos++;
+            }
+            if (start == pos) {
+                throw error(pos < in.length() ? "unexpected '" + in.charAt(pos) + "'" : "unexpected end");
+            }
+            return in.substring(start, pos);
+        }
+
+        private void arity(String name, List<Node> args, int expected) {
+            if (args.size() != expected) {
+                throw error(name + "() takes " + expected + " argument(s), got " + args.size());
+            }
+        }
+
+        private boolean accept(char ch) {
+            skipSpaces();
+            if (pos < in.length() && in.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char ch) {
+            if (!accept(ch)) throw error("expected '" + ch + "'");
+        }
+
+        void skipSpaces() {
+            while (pos < in.length() && Character.isWhitespace(in.charAt(pos))) pos++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Energy flow formula '" + in + "' at " + pos + ": " + message);
+        }
+    }
+}
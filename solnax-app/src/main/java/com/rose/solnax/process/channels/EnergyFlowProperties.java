@@ -0,0 +1,37 @@
+package com.rose.solnax.process.channels;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How raw meter readings become stored channel values, and which channels are derived from them.
+ *
+ * Example application.yml:
+ *
+ * solnax:
+ *   energy-flow:
+ *     channels:             # applied before storing; unlisted channels are stored as read
+ *       heater: max(0, -heater)
+ *       charger: max(0, charger)
+ *     derived:              # computed from stored channels when reading
+ *       house: max(0, solar + grid - charger - heater)
+ */
+@Component
+@ConfigurationProperties(prefix = "solnax.energy-flow")
+public class EnergyFlowProperties {
+
+    /** Channel name → formula over raw readings giving the value to store. */
+    private Map<String, String> channels = new LinkedHashMap<>();
+
+    /** Channel name → formula over stored channels, evaluated at read time. */
+    private Map<String, String> derived = new LinkedHashMap<>();
+
+    public Map<String, String> getChannels() { return channels; }
+    public void setChannels(Map<String, String> channels) { this.channels = channels; }
+
+    public Map<String, String> getDerived() { return derived; }
+    public void setDerived(Map<String, String> derived) { this.derived = derived; }
+}
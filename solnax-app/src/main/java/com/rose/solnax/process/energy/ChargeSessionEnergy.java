@@ -0,0 +1,151 @@
+package com.rose.solnax.process.energy;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Registry;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Snapshot;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.sampling.MeterSampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Energy drawn by the charger during a charge session, split into solar and grid.
+ *
+ * The total is the difference of the charger Shelly's cumulative counter between session start and end; when a
+ * counter could not be read (or went backwards after a device reset) the stored charger power is integrated
+ * instead. At every stored interval the charger's grid share is the grid import, capped at the charger power;
+ * the rest came from solar. The integrated shares give the split, applied to the metered total.
+ */
+@Component
+@Slf4j
+public class ChargeSessionEnergy {
+
+    /**
+     * A metered total above this multiple of the integrated charger energy (plus {@link #METER_SLACK_KWH}) is
+     * taken for a bad counter reading rather than energy, e.g. a phase missing from one of the two readings.
+     */
+    static final double METER_TOLERANCE = 1.5;
+    static final double METER_SLACK_KWH = 1.0;
+
+    /** Session energy in kWh; {@code metered} when the total comes from the charger's counter. */
+    public record Split(double totalKwh, double solarKwh, double gridKwh, boolean metered) {}
+
+    private final ShellyEm3Registry shellyRegistry;
+    private final MeasurementRepository measurementRepository;
+    private final ChannelRegistry channelRegistry;
+    private final String charger;
+    private final Duration maxGap;
+
+    public ChargeSessionEnergy(ShellyEm3Registry shellyRegistry,
+                               MeasurementRepository measurementRepository,
+                               ChannelRegistry channelRegistry,
+                               @Value("${solnax.charge-session.meter:charger}") String charger,
+                               @Value("${solnax.energy.max-gap:15m}") Duration maxGap) {
+        this.shellyRegistry = shellyRegistry;
+        this.measurementRepository = measurementRepository;
+        this.channelRegistry = channelRegistry;
+        this.charger = charger;
+        this.maxGap = maxGap;
+    }
+
+    /**
+     * The charger's cumulative energy counter in Wh, or null when it cannot be read. A snapshot with an invalid
+     * phase is not used: its total would lack that phase's whole lifetime counter.
+     */
+    public Double readMeterWh() {
+        if (!shellyRegistry.contains(charger)) return null;
+        try {
+            ShellyEm3Snapshot snapshot = shellyRegistry.get(charger).getSnapshot();
+            if (!snapshot.allPhasesValid()) {
+                log.warn("Energy counter of '{}' not used, a phase is invalid", charger);
+                return null;
+            }
+            return snapshot.totalEnergyWh();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the energy counter of '{}': {}", charger, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Energy of the session {@code [from, to]}, or null when neither the counters nor any stored interval
+     * cover it. Counter readings may be null; a metered total far above the integrated one is not trusted.
+     */
+    public Split measure(LocalDateTime from, LocalDateTime to, Double meterStartWh, Double meterEndWh) {
+        double[] integrated = integrate(from, to);
+        double chargerWh = integrated[0];
+        double gridWh = integrated[1];
+        double gridShare = chargerWh > 0 ? gridWh / chargerWh : 0;
+
+        if (meterStartWh != null && meterEndWh != null && meterEndWh >= meterStartWh
+                && isPlausible((meterEndWh - meterStartWh) / 1000, chargerWh / 1000, integrated[2] > 0)) {
+            double totalKwh = (meterEndWh - meterStartWh) / 1000;
+            // Counter moved but no interval saw the charger drawing: source unknown, count it as grid
+            if (chargerWh <= 0 && totalKwh > 0) gridShare = 1;
+            return new Split(totalKwh, totalKwh * (1 - gridShare), totalKwh * gridShare, true);
+        }
+        if (integrated[2] == 0) return null;
+        return new Split(chargerWh / 1000, (chargerWh - gridWh) / 1000, gridWh / 1000, false);
+    }
+
+    private static boolean isPlausible(double meteredKwh, double integratedKwh, boolean covered) {
+        if (!covered || meteredKwh <= integratedKwh * METER_TOLERANCE + METER_SLACK_KWH) return true;
+        log.warn("Metered {} kWh far above the integrated {} kWh, using the integrated energy", meteredKwh, integratedKwh);
+        return false;
+    }
+
+    /** Charger Wh, its grid share in Wh and the covered seconds, over the stored intervals of the session. */
+    private double[] integrate(LocalDateTime from, LocalDateTime to) {
+        Samples samples = new Samples();
+        LocalDateTime time = null;
+        Double chargerW = null;
+        Double gridW = null;
+        for (MeasurementRepository.Row row : measurementRepository.findBetween(from.minus(maxGap), to.plusSeconds(1))) {
+            if (!row.time().equals(time)) {
+                samples.add(time, chargerW, gridW);
+                time = row.time();
+                chargerW = null;
+                gridW = null;
+            }
+            String channel = channelRegistry.nameOf(row.channelId());
+            if (row.value() == null || channel == null) continue;
+            if (channel.equals(charger)) chargerW = row.value().doubleValue();
+            else if (channel.equals(MeterSampler.GRID)) gridW = row.value().doubleValue();
+        }
+        samples.add(time, chargerW, gridW);
+
+        long start = from.toEpochSecond(ZoneOffset.UTC);
+        long stop = to.toEpochSecond(ZoneOffset.UTC);
+        EnergyIntegral charging = EnergyIntegral.of(samples.times, samples.charging, samples.n, start, stop, maxGap.toSeconds());
+        EnergyIntegral fromGrid = EnergyIntegral.of(samples.times, samples.fromGrid, samples.n, start, stop, maxGap.toSeconds());
+        return new double[]{charging.positiveWattSeconds() / 3600, fromGrid.positiveWattSeconds() / 3600,
+                charging.coveredSeconds()};
+    }
+
+    /** Intervals with both a charger and a grid value: charger power and the part of it imported from the grid. */
+    private static final class Samples {
+        long[] times = new long[64];
+        double[] charging = new double[64];
+        double[] fromGrid = new double[64];
+        int n;
+
+        void add(LocalDateTime time, Double chargerW, Double gridW) {
+            if (time == null || chargerW == null || gridW == null) return;
+            if (n == times.length) {
+                times = Arrays.copyOf(times, n * 2);
+                charging = Arrays.copyOf(charging, n * 2);
+                fromGrid = Arrays.copyOf(fromGrid, n * 2);
+            }
+            double power = Math.max(0, chargerW);
+            times[n] = time.toEpochSecond(ZoneOffset.UTC);
+            charging[n] = power;
+            fromGrid[n++] = Math.min(Math.max(0, gridW), power);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.rose.solnax.process.energy;
+
+import com.rose.solnax.config.SchedulingConfig;
+import com.rose.solnax.model.dto.EnergySummary;
+import com.rose.solnax.model.repository.DailyEnergyRepository;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.RollupRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.channels.EnergyFlow;
+import com.rose.solnax.process.sampling.MeterSampler;
+import com.rose.solnax.process.storage.MeasurementsChanged;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Integrates every stored and derived channel into Wh per day ({@code daily_energy}), so energy questions read
+ * one row per channel and day instead of raw measurements.
+ *
+ * Days are integrated from a watermark (the first day not yet closed) up to today; today is recomputed on every
+ * run until it is over. Measurements arriving late for an integrated day move the watermark back, so the next
+ * run recomputes from there; while an integration is running they are only recorded, and the run itself moves
+ * back before its next day, so the writer reporting them never waits for it. Derived channels are evaluated at every interval from the stored values of that
+ * interval, then integrated like stored ones.
+ */
+@Component
+@Slf4j
+public class DailyEnergyManager {
+
+    static final String WATERMARK = "daily_energy";
+
+    private final MeasurementRepository measurementRepository;
+    private final RollupRepository rollupRepository;
+    private final DailyEnergyRepository dailyEnergyRepository;
+    private final ChannelRegistry channelRegistry;
+    private final EnergyFlow energyFlow;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxGap;
+
+    /** Held for a whole run of {@link #integrate()}. */
+    private final ReentrantLock integrating = new ReentrantLock();
+    /** Earliest day changed while a run was holding {@link #integrating}, applied by that run. */
+    private final AtomicReference<LocalDate> rewindTo = new AtomicReference<>();
+
+    public DailyEnergyManager(MeasurementRepository measurementRepository,
+                              RollupRepository rollupRepository,
+                              DailyEnergyRepository dailyEnergyRepository,
+                              ChannelRegistry channelRegistry,
+                              EnergyFlow energyFlow,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${solnax.energy.max-gap:15m}") Duration maxGap) {
+        this.measurementRepository = measurementRepository;
+        this.rollupRepository = rollupRepository;
+        this.dailyEnergyRepository = dailyEnergyRepository;
+        this.channelRegistry = channelRegistry;
+        this.energyFlow = energyFlow;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxGap = maxGap;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        integrate();
+    }
+
+    @Scheduled(cron = "${solnax.energy.cron:0 10 * * * *}", scheduler = SchedulingConfig.STORAGE)
+    public void catchUp() {
+        integrate();
+    }
+
+    /** Integrates from the watermark up to today; stops at the first failing day and resumes there next time. */
+    public void integrate() {
+        integrating.lock();
+        try {
+            integrateFromWatermark();
+        } finally {
+            integrating.unlock();
+        }
+    }
+
+    private void integrateFromWatermark() {
+        LocalDate today = LocalDate.now();
+        LocalDate day;
+        try {
+            day = rollupRepository.watermark(WATERMARK)
+                    .or(rollupRepository::firstMeasurement)
+                    .map(LocalDateTime::toLocalDate)
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Daily energy not integrated, database unavailable: {}", e.getMessage());
+            return;
+        }
+        if (day == null) return; // nothing measured yet
+
+        int days = 0;
+        for (; !day.isAfter(today); day = day.plusDays(1)) {
+            try {
+                day = rewound(day);
+                LocalDate current = day;
+                transactionTemplate.executeWithoutResult(status -> {
+                    dailyEnergyRepository.replaceDay(current, integrateDay(current));
+                    if (current.isBefore(today)) {
+                        rollupRepository.setWatermark(WATERMARK, current.plusDays(1).atStartOfDay());
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Integrating energy of {} failed, will resume there: {}", day, e.getMessage());
+                return;
+            }
+            days++;
+        }
+        try {
+            rewound(day);
+        } catch (RuntimeException e) {
+            log.warn("Moving the daily energy watermark back failed, will retry: {}", e.getMessage());
+        }
+        log.debug("Daily energy integrated for {} day(s)", days);
+    }
+
+    /** {@code day}, or the earliest day changed since the last call when that is before it; the watermark follows. */
+    private LocalDate rewound(LocalDate day) {
+        LocalDate rewind = rewindTo.getAndSet(null);
+        if (rewind == null || !rewind.isBefore(day)) return day;
+        try {
+            rollupRepository.setWatermark(WATERMARK, rewind.atStartOfDay());
+        } catch (RuntimeException e) {
+            rewindTo.accumulateAndGet(rewind, DailyEnergyManager::earlier);
+            throw e;
+        }
+        log.debug("Daily energy moves back to {} for late measurements", rewind);
+        return rewind;
+    }
+
+    /**
+     * Days with late measurements are integrated again by the next run. Called on the measurement writer's
+     * thread, so it never waits for a running integration: that run gets the day recorded and moves back itself,
+     * rather than advancing the watermark past a day it read before the late rows arrived.
+     */
+    @EventListener
+    public void onMeasurementsChanged(MeasurementsChanged changed) {
+        LocalDate from = changed.from().toLocalDate();
+        if (!integrating.tryLock()) {
+            rewindTo.accumulateAndGet(from, DailyEnergyManager::earlier);
+            return;
+        }
+        try {
+            LocalDateTime start = from.atStartOfDay();
+            rollupRepository.watermark(WATERMARK)
+                    .filter(watermark -> start.isBefore(watermark))
+                    .ifPresent(watermark -> rollupRepository.setWatermark(WATERMARK, start));
+        } finally {
+            integrating.unlock();
+        }
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a == null || b.isBefore(a) ? b : a;
+    }
+
+    /** One row per channel with samples on {@code day}; the grid splits into import (positive) and export (negative). */
+    List<DailyEnergyRepository.Row> integrateDay(LocalDate day) {
+        long from = day.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long to = from + Duration.ofDays(1).toSeconds();
+        Map<String, Series> series = read(day.atStartOfDay().minus(maxGap), day.plusDays(1).atStartOfDay().plus(maxGap));
+
+        List<DailyEnergyRepository.Row> rows = new ArrayList<>(series.size());
+        series.forEach((channel, s) -> {
+            EnergyIntegral integral = EnergyIntegral.of(s.times, s.values, s.n, from, to, maxGap.toSeconds());
+            if (integral.coveredSeconds() > 0) {
+                rows.add(new DailyEnergyRepository.Row(day, channel, integral.positiveWh(), integral.negativeWh(),
+                        integral.coveredSeconds()));
+            }
+        });
+        return rows;
+    }
+
+    /** Stored channels as read, then derived channels at every interval with any stored value. */
+    private Map<String, Series> read(LocalDateTime start, LocalDateTime stop) {
+        Map<String, Series> series = new LinkedHashMap<>();
+        Map<String, Double> interval = new HashMap<>();
+        LocalDateTime[] time = {null};
+        Runnable derive = () -> {
+            if (interval.isEmpty()) return;
+            long t = time[0].toEpochSecond(ZoneOffset.UTC);
+            for (String channel : energyFlow.derivedChannels()) {
+                series.computeIfAbsent(channel, c -> new Series())
+                        .add(t, energyFlow.derived(channel, c -> interval.getOrDefault(c, 0.0)));
+            }
+            interval.clear();
+        };
+        for (MeasurementRepository.Row row : measurementRepository.findBetween(start, stop)) {
+            if (!row.time().equals(time[0])) {
+                derive.run();
+                time[0] = row.time();
+            }
+            String channel = channelRegistry.nameOf(row.channelId());
+            if (channel == null || row.value() == null) continue;
+            interval.put(channel, row.value().doubleValue());
+            series.computeIfAbsent(channel, c -> new Series()).add(row.time().toEpochSecond(ZoneOffset.UTC), row.value());
+        }
+        derive.run();
+        return series;
+    }
+
+    private static final class Series {
+        long[] times = new long[512];
+        double[] values = new double[512];
+        int n;
+
+        void add(long time, double value) {
+            if (n == times.length) {
+                times = Arrays.copyOf(times, n * 2);
+                values = Arrays.copyOf(values, n * 2);
+            }
+            times[n] = time;
+            values[n++] = value;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Reports
+    // -------------------------------------------------------------------------
+
+    /**
+     * Energy of {@code [from, to)} in Wh, broken down per {@code unit} ({@code day}, {@code month} or {@code year}):
+     * reads one row per channel and period from {@code daily_energy}.
+     */
+    public EnergySummary summary(LocalDate from, LocalDate to, String unit) {
+        Map<LocalDate, Map<String, Long>> periods = new LinkedHashMap<>();
+        Map<LocalDate, Long> covered = new HashMap<>();
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (DailyEnergyRepository.Row row : dailyEnergyRepository.sumBy(unit, from, to)) {
+            Map<String, Long> period = periods.computeIfAbsent(row.day(), d -> new LinkedHashMap<>());
+            covered.merge(row.day(), row.coveredSeconds(), Math::max);
+            if (MeterSampler.GRID.equals(row.channel())) {
+                period.put(row.channel() + "_import", row.positiveWh());
+                period.put(row.channel() + "_export", row.negativeWh());
+            } else {
+                period.put(row.channel(), row.positiveWh());
+            }
+        }
+        periods.values().forEach(period -> period.forEach((channel, wh) -> totals.merge(channel, wh, Long::sum)));
+
+        return EnergySummary.builder()
+                .from(from)
+                .to(to)
+                .totals(totals)
+                .periods(periods.entrySet().stream()
+                        .map(e -> EnergySummary.Period.builder()
+                                .start(e.getKey())
+                                .wh(e.getValue())
+                                .coveredHours(covered.get(e.getKey()) / 3600.0)
+                                .build())
+                        .toList())
+                .build();
+    }
+}
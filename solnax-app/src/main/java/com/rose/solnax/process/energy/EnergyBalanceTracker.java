@@ -0,0 +1,213 @@
+package com.rose.solnax.process.energy;
+
+import com.rose.solnax.config.SchedulingConfig;
+import com.rose.solnax.model.dto.EnergyBalanceDTO;
+import com.rose.solnax.model.entity.EnergyBalance;
+import com.rose.solnax.model.entity.PowerLog;
+import com.rose.solnax.model.entity.enums.BalancePeriod;
+import com.rose.solnax.model.repository.EnergyBalanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running solar/grid energy balance of the current day, week and month, fed with every logged interval.
+ *
+ * Each interval adds the trapezoid since the previous one (skipped after a gap longer than {@code max-gap}
+ * or a stale grid reading), so memory is three accumulators however long the history and reading the current
+ * ratios costs nothing. A period that ends is closed and a new one opened. Open and closed periods are written to
+ * {@code energy_balance} every {@code persist-interval} rather than on the logging path, and the open ones are
+ * picked up again after a restart.
+ */
+@Component
+@Slf4j
+public class EnergyBalanceTracker implements DisposableBean {
+
+    private final EnergyBalanceRepository energyBalanceRepository;
+    private final long maxGapSeconds;
+
+    private final Map<BalancePeriod, EnergyBalance> open = new EnumMap<>(BalancePeriod.class);
+    private final List<EnergyBalance> closed = new ArrayList<>();
+    private PowerLog previous;
+    private boolean restored;
+
+    public EnergyBalanceTracker(EnergyBalanceRepository energyBalanceRepository,
+                                @Value("${solnax.energy.max-gap:15m}") Duration maxGap) {
+        this.energyBalanceRepository = energyBalanceRepository;
+        this.maxGapSeconds = maxGap.toSeconds();
+    }
+
+    /**
+     * Continues the open periods of the current day, week and month where the last run left them. Stored
+     * values are added to periods opened in memory meanwhile (while the database was unavailable), and stored
+     * periods that ended during a restart are closed. The database is read outside the lock {@link #accept}
+     * needs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<EnergyBalance> stored;
+        try {
+            stored = energyBalanceRepository.findByClosedFalse();
+        } catch (RuntimeException e) {
+            log.warn("Could not restore energy balances, will retry before persisting: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            if (restored) return;
+            LocalDate today = LocalDate.now();
+            for (EnergyBalance balance : stored) {
+                EnergyBalance current = open.get(balance.getPeriod());
+                EnergyBalance closedMeanwhile = closed.stream()
+                        .filter(c -> c.getId().equals(balance.getId())).findFirst().orElse(null);
+                if (current != null && current.getId().equals(balance.getId())) {
+                    merge(current, balance);
+                } else if (closedMeanwhile != null) {
+                    merge(closedMeanwhile, balance);
+                } else if (current == null && balance.getStart().equals(balance.getPeriod().start(today))) {
+                    open.put(balance.getPeriod(), balance);
+                } else {
+                    close(balance);
+                }
+            }
+            restored = true;
+        }
+    }
+
+    private static void merge(EnergyBalance into, EnergyBalance stored) {
+        into.setSolarWh(into.getSolarWh() + stored.getSolarWh());
+        into.setImportWh(into.getImportWh() + stored.getImportWh());
+        into.setExportWh(into.getExportWh() + stored.getExportWh());
+        into.setCoveredSeconds(into.getCoveredSeconds() + stored.getCoveredSeconds());
+    }
+
+    /** Adds the interval since the previous one. Does not touch the database. */
+    public synchronized void accept(PowerLog log) {
+        if (log.isStale() || log.getSolar() == null || log.getHouse() == null) {
+            previous = null;
+            return;
+        }
+        PowerLog from = previous;
+        previous = log;
+        long t1 = toSeconds(log.getTime());
+        boolean integrate = from != null && t1 > toSeconds(from.getTime()) && t1 - toSeconds(from.getTime()) <= maxGapSeconds;
+
+        for (BalancePeriod period : BalancePeriod.values()) {
+            EnergyBalance balance = open.get(period);
+            if (balance == null) balance = open(period, (integrate ? from : log).getTime().toLocalDate());
+            long cursor = integrate ? toSeconds(from.getTime()) : t1;
+            // Every period boundary the interval crosses closes a period; each gets its part of the trapezoid
+            long end;
+            while (t1 >= (end = toSeconds(period.next(balance.getStart()).atStartOfDay()))) {
+                if (integrate) add(balance, from, log, cursor, end);
+                close(balance);
+                cursor = Math.max(cursor, end);
+                balance = open(period, integrate ? period.next(balance.getStart()) : log.getTime().toLocalDate());
+            }
+            if (integrate) add(balance, from, log, cursor, t1);
+        }
+    }
+
+    private EnergyBalance open(BalancePeriod period, LocalDate day) {
+        LocalDate start = period.start(day);
+        EnergyBalance balance = EnergyBalance.builder()
+                .id(EnergyBalance.idOf(period, start))
+                .period(period)
+                .start(start)
+                .build();
+        open.put(period, balance);
+        return balance;
+    }
+
+    private void close(EnergyBalance balance) {
+        balance.setClosed(true);
+        closed.add(balance);
+    }
+
+    /** Integrates the part {@code [a, b)} of the segment {@code from -> to} into {@code balance}. */
+    private static void add(EnergyBalance balance, PowerLog from, PowerLog to, long a, long b) {
+        a = Math.max(a, toSeconds(balance.getStart().atStartOfDay()));
+        if (b <= a) return;
+        long[] times = {toSeconds(from.getTime()), toSeconds(to.getTime())};
+        EnergyIntegral solar = EnergyIntegral.of(times, new double[]{from.getSolar(), to.getSolar()}, 2, a, b, Long.MAX_VALUE);
+        EnergyIntegral grid = EnergyIntegral.of(times, new double[]{from.getHouse(), to.getHouse()}, 2, a, b, Long.MAX_VALUE);
+        balance.setSolarWh(balance.getSolarWh() + solar.positiveWattSeconds() / 3600);
+        balance.setImportWh(balance.getImportWh() + grid.positiveWattSeconds() / 3600);
+        balance.setExportWh(balance.getExportWh() + grid.negativeWattSeconds() / 3600);
+        balance.setCoveredSeconds(balance.getCoveredSeconds() + grid.coveredSeconds());
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // -------------------------------------------------------------------------
+
+    /** Current balance of {@code period}, from memory; an empty one before the first interval. */
+    public synchronized EnergyBalanceDTO current(BalancePeriod period) {
+        EnergyBalance balance = open.get(period);
+        if (balance == null || !balance.getStart().equals(period.start(LocalDate.now()))) {
+            LocalDate start = period.start(LocalDate.now());
+            balance = EnergyBalance.builder().id(EnergyBalance.idOf(period, start)).period(period).start(start).build();
+        }
+        return EnergyBalanceDTO.from(balance);
+    }
+
+    /** Writes closed periods and snapshots of the open ones. */
+    @Scheduled(fixedDelayString = "${solnax.energy.balance.persist-interval:5m}", scheduler = SchedulingConfig.STORAGE)
+    public void persist() {
+        // Until restored, an open period here would overwrite the one stored before the restart
+        if (!isRestored()) restore();
+        if (!isRestored()) return;
+        List<EnergyBalance> rows = new ArrayList<>();
+        synchronized (this) {
+            LocalDateTime now = LocalDateTime.now();
+            closed.forEach(balance -> rows.add(snapshot(balance, now)));
+            open.values().forEach(balance -> rows.add(snapshot(balance, now)));
+        }
+        try {
+            energyBalanceRepository.saveAll(rows);
+        } catch (RuntimeException e) {
+            log.warn("Persisting energy balances failed, retrying: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            closed.removeIf(balance -> rows.stream().anyMatch(row -> row.getId().equals(balance.getId())));
+        }
+    }
+
+    private synchronized boolean isRestored() {
+        return restored;
+    }
+
+    private static EnergyBalance snapshot(EnergyBalance balance, LocalDateTime now) {
+        return EnergyBalance.builder()
+                .id(balance.getId())
+                .period(balance.getPeriod())
+                .start(balance.getStart())
+                .solarWh(balance.getSolarWh())
+                .importWh(balance.getImportWh())
+                .exportWh(balance.getExportWh())
+                .coveredSeconds(balance.getCoveredSeconds())
+                .closed(balance.isClosed())
+                .updatedAt(now)
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        persist();
+    }
+}
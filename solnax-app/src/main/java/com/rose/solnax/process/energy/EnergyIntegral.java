@@ -0,0 +1,69 @@
+package com.rose.solnax.process.energy;
+
+/**
+ * Trapezoidal integral of a power series over a time window, with the parts above and below zero kept apart
+ * (a segment crossing zero is split where the line crosses). Segments longer than {@code maxGap} are not
+ * integrated and do not count as covered; segments straddling the window edges are cut by linear interpolation.
+ */
+final class EnergyIntegral {
+
+    private double positiveWattSeconds;
+    private double negativeWattSeconds;
+    private long coveredSeconds;
+
+    /** Integrates {@code values} (W) at {@code times} (ascending epoch seconds) over {@code [from, to)}. */
+    static EnergyIntegral of(long[] times, double[] values, int n, long from, long to, long maxGap) {
+        EnergyIntegral integral = new EnergyIntegral();
+        for (int k = 0; k + 1 < n; k++) {
+            long t0 = times[k];
+            long t1 = times[k + 1];
+            if (t1 <= t0 || t1 - t0 > maxGap || t1 <= from || t0 >= to) continue;
+            long a = Math.max(t0, from);
+            long b = Math.min(t1, to);
+            double slope = (values[k + 1] - values[k]) / (t1 - t0);
+            integral.add(a, values[k] + slope * (a - t0), b, values[k] + slope * (b - t0));
+        }
+        return integral;
+    }
+
+    private void add(long a, double va, long b, double vb) {
+        long width = b - a;
+        coveredSeconds += width;
+        if (va >= 0 && vb >= 0) {
+            positiveWattSeconds += (va + vb) / 2 * width;
+        } else if (va <= 0 && vb <= 0) {
+            negativeWattSeconds -= (va + vb) / 2 * width;
+        } else {
+            double crossing = width * va / (va - vb); // seconds after a
+            double first = va * crossing / 2;
+            double second = vb * (width - crossing) / 2;
+            if (va > 0) {
+                positiveWattSeconds += first;
+                negativeWattSeconds -= second;
+            } else {
+                negativeWattSeconds -= first;
+                positiveWattSeconds += second;
+            }
+        }
+    }
+
+    double positiveWattSeconds() {
+        return positiveWattSeconds;
+    }
+
+    double negativeWattSeconds() {
+        return negativeWattSeconds;
+    }
+
+    long positiveWh() {
+        return Math.round(positiveWattSeconds / 3600);
+    }
+
+    long negativeWh() {
+        return Math.round(negativeWattSeconds / 3600);
+    }
+
+    long coveredSeconds() {
+        return coveredSeconds;
+    }
+}
@@ -0,0 +1,81 @@
+package com.rose.solnax.process.export;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Compact columnar export, big endian throughout:
+ * <pre>
+ * header  "SLNX", u8 version (1), u16 column count, column names (u16 length + UTF-8 each)
+ * block   i32 rows (0 ends the stream)
+ *         i64 time of the first row, epoch seconds of the local wall clock read as UTC
+ *         i32 × (rows - 1) seconds since the previous row
+ *         per column: presence bitmap of ceil(rows / 8) bytes (row i = bit i % 8 of byte i / 8),
+ *                     then i32 × rows values (0 where absent)
+ * </pre>
+ * Blocks hold up to {@value #BLOCK_ROWS} rows, so memory stays constant however long the range.
+ */
+final class ColumnarExportSink implements ExportSink {
+
+    static final byte[] MAGIC = "SLNX".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 4096;
+
+    private final DataOutputStream out;
+    private final long[] times = new long[BLOCK_ROWS];
+    private final int[][] values;
+    private final boolean[][] present;
+    private int rows;
+
+    ColumnarExportSink(OutputStream out, List<String> columns) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.values = new int[columns.size()][BLOCK_ROWS];
+        this.present = new boolean[columns.size()][BLOCK_ROWS];
+
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeShort(columns.size());
+        for (String column : columns) this.out.writeUTF(column);
+    }
+
+    @Override
+    public void row(LocalDateTime time, int[] rowValues, boolean[] rowPresent) throws IOException {
+        times[rows] = time.toEpochSecond(ZoneOffset.UTC);
+        for (int c = 0; c < rowValues.length; c++) {
+            values[c][rows] = rowPresent[c] ? rowValues[c] : 0;
+            present[c][rows] = rowPresent[c];
+        }
+        if (++rows == BLOCK_ROWS) writeBlock();
+    }
+
+    private void writeBlock() throws IOException {
+        if (rows == 0) return;
+        out.writeInt(rows);
+        out.writeLong(times[0]);
+        for (int r = 1; r < rows; r++) out.writeInt((int) (times[r] - times[r - 1]));
+        for (int c = 0; c < values.length; c++) {
+            for (int r = 0; r < rows; r += 8) {
+                int bits = 0;
+                for (int b = 0; b < 8 && r + b < rows; b++) {
+                    if (present[c][r + b]) bits |= 1 << b;
+                }
+                out.writeByte(bits);
+            }
+            for (int r = 0; r < rows; r++) out.writeInt(values[c][r]);
+        }
+        rows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeBlock();
+        out.writeInt(0);
+        out.flush();
+    }
+}
@@ -0,0 +1,41 @@
+package com.rose.solnax.process.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+final class CsvExportSink implements ExportSink {
+
+    private final Writer writer;
+
+    CsvExportSink(OutputStream out, List<String> columns) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("time");
+        for (String column : columns) {
+            writer.write(',');
+            writer.write(column);
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void row(LocalDateTime time, int[] values, boolean[] present) throws IOException {
+        writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time));
+        for (int i = 0; i < values.length; i++) {
+            writer.write(',');
+            if (present[i]) writer.write(Integer.toString(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
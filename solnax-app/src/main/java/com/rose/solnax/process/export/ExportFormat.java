@@ -0,0 +1,44 @@
+package com.rose.solnax.process.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+/** Output formats of {@link PowerExporter}. */
+public enum ExportFormat {
+
+    /** One line per interval: ISO time, then one column per channel, empty where no value was stored. */
+    CSV("text/csv", "csv"),
+
+    /** Column blocks of fixed-width binary integers, see {@link ColumnarExportSink}. */
+    BINARY("application/octet-stream", "slnx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /** Case-insensitive, e.g. {@code csv}. */
+    public static ExportFormat parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    ExportSink open(OutputStream out, List<String> columns) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportSink(out, columns);
+            case BINARY -> new ColumnarExportSink(out, columns);
+        };
+    }
+}
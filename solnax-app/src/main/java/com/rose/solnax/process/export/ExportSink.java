@@ -0,0 +1,12 @@
+package com.rose.solnax.process.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/** Receives one interval at a time; {@link #close()} flushes but leaves the response stream open. */
+interface ExportSink extends Closeable {
+
+    /** {@code values[i]} is only meaningful where {@code present[i]}; both arrays are reused by the caller. */
+    void row(LocalDateTime time, int[] values, boolean[] present) throws IOException;
+}
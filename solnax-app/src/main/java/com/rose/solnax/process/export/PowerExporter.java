@@ -0,0 +1,131 @@
+package com.rose.solnax.process.export;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.channels.EnergyFlow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams raw measurements of any range straight to an output stream, one interval per row and one column
+ * per channel. Rows come through a database cursor and leave through a buffered sink as soon as their
+ * interval is complete, so heap use does not depend on the length of the range.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PowerExporter {
+
+    private final MeasurementRepository measurementRepository;
+    private final ChannelRegistry channelRegistry;
+    private final EnergyFlow energyFlow;
+
+    @Value("${solnax.export.fetch-size:5000}")
+    private int fetchSize;
+
+    /**
+     * Validates requested columns; all stored then all derived channels when none are requested.
+     * @throws IllegalArgumentException for an unknown channel
+     */
+    public List<String> columns(List<String> requested) {
+        if (requested.isEmpty()) {
+            List<String> all = new ArrayList<>(channelRegistry.names().stream().sorted().toList());
+            all.addAll(energyFlow.derivedChannels());
+            return all;
+        }
+        for (String channel : requested) {
+            if (channelRegistry.findId(channel).isEmpty() && !energyFlow.derivedChannels().contains(channel)) {
+                throw new IllegalArgumentException("Unknown channel '" + channel + "'");
+            }
+        }
+        return List.copyOf(requested);
+    }
+
+    /**
+     * Writes {@code from <= time < to} in {@code format}; {@code out} is flushed, not closed.
+     * @return the number of intervals written
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, List<String> columns, ExportFormat format,
+                       OutputStream out) throws IOException {
+        // Derived channels may need any stored channel, otherwise only the requested ones are read
+        boolean derived = columns.stream().anyMatch(energyFlow.derivedChannels()::contains);
+        List<Integer> channelIds = derived ? List.of() : columns.stream()
+                .map(channel -> channelRegistry.findId(channel).orElseThrow())
+                .toList();
+
+        try (ExportSink sink = format.open(out, columns)) {
+            Pivot pivot = new Pivot(columns, sink);
+            measurementRepository.stream(from, to, channelIds, fetchSize, pivot::accept);
+            pivot.finish();
+            log.info("Exported {} interval(s) of {} channel(s) from {} to {} as {}",
+                    pivot.intervals, columns.size(), from, to, format);
+            return pivot.intervals;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    /** Collects the rows of one interval (they arrive ordered by time) and emits it when the time changes. */
+    private final class Pivot {
+
+        private final List<String> columns;
+        private final ExportSink sink;
+        private final int[] values;
+        private final boolean[] present;
+        private final Map<String, Integer> stored = new HashMap<>();
+        private LocalDateTime time;
+        private long intervals;
+
+        Pivot(List<String> columns, ExportSink sink) {
+            this.columns = columns;
+            this.sink = sink;
+            this.values = new int[columns.size()];
+            this.present = new boolean[columns.size()];
+        }
+
+        void accept(MeasurementRepository.Row row) {
+            if (!row.time().equals(time)) {
+                finish();
+                time = row.time();
+            }
+            String channel = channelRegistry.nameOf(row.channelId());
+            if (channel != null && row.value() != null) stored.put(channel, row.value());
+        }
+
+        void finish() {
+            if (time == null) return;
+            for (int i = 0; i < values.length; i++) {
+                String column = columns.get(i);
+                Integer value = stored.get(column);
+                if (value == null && energyFlow.derivedChannels().contains(column)) {
+                    value = (int) Math.round(energyFlow.derived(column, c -> stored.getOrDefault(c, 0)));
+                }
+                present[i] = value != null;
+                values[i] = value != null ? value : 0;
+            }
+            try {
+                sink.row(time, values, present);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            intervals++;
+            stored.clear();
+            time = null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.rose.solnax.process.sampling;
+
+public enum ChannelQuality {
+    FRESH,   // read during the current sampling cycle
+    STALE,   // device missed the deadline, last known value is served instead
+    MISSING  // no usable value at all
+}
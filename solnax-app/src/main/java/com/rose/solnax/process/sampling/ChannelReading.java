@@ -0,0 +1,30 @@
+package com.rose.solnax.process.sampling;
+
+import java.time.LocalDateTime;
+
+/**
+ * One channel value of a {@link MeterSample} together with its quality marker.
+ * For STALE readings {@code measuredAt} is the time the value was originally read.
+ */
+public record ChannelReading(Double value, ChannelQuality quality, LocalDateTime measuredAt) {
+
+    public static ChannelReading fresh(double value, LocalDateTime measuredAt) {
+        return new ChannelReading(value, ChannelQuality.FRESH, measuredAt);
+    }
+
+    public static ChannelReading missing() {
+        return new ChannelReading(null, ChannelQuality.MISSING, null);
+    }
+
+    public ChannelReading asStale() {
+        return new ChannelReading(value, ChannelQuality.STALE, measuredAt);
+    }
+
+    public boolean isFresh() {
+        return quality == ChannelQuality.FRESH;
+    }
+
+    public boolean hasValue() {
+        return value != null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.rose.solnax.process.sampling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples every meter at a high rate (1 Hz by default) into an in-memory {@link SampleRingBuffer}.
+ *
+ * Nothing is written to the database from here: the 5-minute job rolls the buffer up into
+ * one power_log row plus mean/min/max/last stats per channel (see PowerLogManager#logPower).
+ * Memory is bounded by {@code history / interval} slots per channel.
+ */
+@Component
+@Slf4j
+public class HighFrequencySampler {
+
+    private final MeterSampler meterSampler;
+    private final boolean enabled;
+    private final SampleRingBuffer buffer;
+    private final double[] row;
+
+    public HighFrequencySampler(MeterSampler meterSampler,
+                                @Value("${solnax.sampling.high-frequency.enabled:true}") boolean enabled,
+                                @Value("${solnax.sampling.high-frequency.interval:1s}") Duration interval,
+                                @Value("${solnax.sampling.high-frequency.history:1h}") Duration history) {
+        this.meterSampler = meterSampler;
+        this.enabled = enabled;
+        int capacity = (int) Math.max(1, history.toMillis() / interval.toMillis());
+        this.buffer = new SampleRingBuffer(meterSampler.channels(), capacity);
+        this.row = new double[buffer.channels().size()];
+        log.info("High frequency sampling {} every {} ({} slots per channel)",
+                enabled ? "enabled" : "disabled", interval, capacity);
+    }
+
+    @Scheduled(fixedDelayString = "${solnax.sampling.high-frequency.interval:1s}")
+    void tick() {
+        if (!enabled) return;
+        MeterSample sample = meterSampler.sample();
+        List<String> channels = buffer.channels();
+        for (int c = 0; c < channels.size(); c++) {
+            ChannelReading reading = sample.get(channels.get(c));
+            row[c] = reading.isFresh() ? reading.value() : Double.NaN;
+        }
+        buffer.append(toMillis(sample.time()), row);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Per-channel stats over [from, to); channels without any value in the window are left out. */
+    public Map<String, WindowStats> rollup(LocalDateTime from, LocalDateTime to) {
+        Map<String, WindowStats> result = new LinkedHashMap<>();
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        for (String channel : buffer.channels()) {
+            buffer.stats(channel, fromMillis, toMillis).ifPresent(stats -> result.put(channel, stats));
+        }
+        return result;
+    }
+
+    /** Raw samples of the last {@code window}, oldest first. */
+    public SampleRingBuffer.Series recent(Duration window) {
+        return buffer.since(toMillis(LocalDateTime.now().minus(window)));
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,46 @@
+package com.rose.solnax.process.sampling;
+
+import com.rose.solnax.process.adapters.meters.InverterSnapshot;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Snapshot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Result of one sampling cycle over every meter. Channels that did not answer
+ * within the cycle deadline are still present, marked STALE or MISSING.
+ * The full inverter and Shelly snapshots of this cycle are kept (null / absent when the
+ * device was not read) so counters and per-phase values can be used without another read.
+ */
+public record MeterSample(LocalDateTime time,
+                          Map<String, ChannelReading> channels,
+                          InverterSnapshot inverter,
+                          Map<String, ShellyEm3Snapshot> snapshots) {
+
+    public ChannelReading get(String channel) {
+        return channels.getOrDefault(channel, ChannelReading.missing());
+    }
+
+    public double valueOr(String channel, double fallback) {
+        ChannelReading reading = get(channel);
+        return reading.hasValue() ? reading.value() : fallback;
+    }
+
+    public boolean isFresh(String channel) {
+        return get(channel).isFresh();
+    }
+
+    public Optional<ShellyEm3Snapshot> snapshot(String deviceId) {
+        return Optional.ofNullable(snapshots.get(deviceId));
+    }
+
+    /** Channels that are not FRESH in this sample. */
+    public List<String> degradedChannels() {
+        return channels.entrySet().stream()
+                .filter(e -> !e.getValue().isFresh())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -0,0 +1,200 @@
+package com.rose.solnax.process.sampling;
+
+import com.rose.solnax.process.adapters.meters.IPowerMeter;
+import com.rose.solnax.process.adapters.meters.InverterSnapshot;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyCoIoTListener;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Registry;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Snapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the inverter and every Shelly EM3 at the same time under one per-cycle deadline.
+ *
+ * A cycle takes as long as the slowest device (capped by the deadline) instead of the
+ * sum of all devices. Devices that fail or miss the deadline do not fail the sample:
+ * their channels fall back to the last known value (STALE) for a while, then MISSING.
+ * Shelly devices that recently pushed over CoIoT are taken from memory and not polled at all.
+ */
+@Component
+@Slf4j
+public class MeterSampler implements DisposableBean {
+
+    public static final String GRID = "grid";
+    public static final String SOLAR = "solar";
+
+    private final IPowerMeter inverter;
+    private final ShellyEm3Registry registry;
+    private final ShellyCoIoTListener coIoTListener;
+    private final ExecutorService executor;
+
+    @Value("${solnax.sampling.deadline:4s}")
+    private Duration deadline;
+
+    @Value("${solnax.sampling.stale-after:15m}")
+    private Duration staleAfter;
+
+    private final Map<String, ChannelReading> lastGood = new ConcurrentHashMap<>();
+
+    public MeterSampler(IPowerMeter inverter, ShellyEm3Registry registry, ShellyCoIoTListener coIoTListener) {
+        this.inverter = inverter;
+        this.registry = registry;
+        this.coIoTListener = coIoTListener;
+        this.executor = Executors.newFixedThreadPool(registry.getAll().size() + 1, daemonThreads());
+    }
+
+    public MeterSample sample() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<String> sources = new ArrayList<>();
+        List<Callable<SourceResult>> tasks = new ArrayList<>();
+
+        sources.add("inverter");
+        tasks.add(() -> {
+            InverterSnapshot snapshot = inverter.snapshot();
+            ChannelReading grid = ChannelReading.fresh(snapshot.gridPowerW(), snapshot.takenAt());
+            ChannelReading solar = ChannelReading.fresh(snapshot.acPowerW(), snapshot.takenAt());
+            if (snapshot.stale()) {
+                grid = grid.asStale();
+                solar = solar.asStale();
+            }
+            return new SourceResult(Map.of(GRID, grid, SOLAR, solar), snapshot, null);
+        });
+
+        Map<String, ShellyEm3Snapshot> pushed = new LinkedHashMap<>();
+        registry.getAll().forEach((id, client) -> {
+            Optional<ShellyEm3Snapshot> push = coIoTListener.latest(id);
+            if (push.isPresent()) {
+                pushed.put(id, push.get());
+                return;
+            }
+            sources.add(id);
+            tasks.add(() -> {
+                ShellyEm3Snapshot snapshot = client.getSnapshot();
+                return new SourceResult(Map.of(id, ChannelReading.fresh(snapshot.totalActivePowerW(), now)), null, snapshot);
+            });
+        });
+
+        List<Future<SourceResult>> futures;
+        try {
+            futures = executor.invokeAll(tasks, deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures = List.of();
+        }
+
+        Map<String, ChannelReading> channels = new LinkedHashMap<>();
+        Map<String, ShellyEm3Snapshot> snapshots = new LinkedHashMap<>();
+        InverterSnapshot inverterSnapshot = null;
+        pushed.forEach((id, snapshot) -> {
+            snapshots.put(id, snapshot);
+            ChannelReading reading = ChannelReading.fresh(snapshot.totalActivePowerW(), snapshot.takenAt());
+            lastGood.put(id, reading);
+            channels.put(id, reading);
+        });
+        for (int i = 0; i < futures.size(); i++) {
+            SourceResult result = collect(sources.get(i), futures.get(i));
+            if (result.inverter() != null) {
+                inverterSnapshot = result.inverter();
+            }
+            if (result.shelly() != null) {
+                snapshots.put(result.shelly().deviceId(), result.shelly());
+            }
+            result.readings().forEach((channel, reading) -> {
+                if (reading.isFresh()) {
+                    lastGood.put(channel, reading);
+                    channels.put(channel, reading);
+                } else if (isWithinStaleLimit(reading, now)) {
+                    channels.put(channel, reading);
+                }
+            });
+        }
+
+        for (String channel : channels()) {
+            channels.computeIfAbsent(channel, c -> fallback(c, now));
+        }
+
+        MeterSample sample = new MeterSample(now, channels, inverterSnapshot, snapshots);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        List<String> degraded = sample.degradedChannels();
+        if (degraded.isEmpty()) {
+            log.debug("Sampled {} channel(s) in {}ms", channels.size(), elapsedMs);
+        } else {
+            log.warn("Sampled {} channel(s) in {}ms, degraded: {}", channels.size(), elapsedMs, degraded);
+        }
+        return sample;
+    }
+
+    // -------------------------------------------------------------------------
+
+    private SourceResult collect(String source, Future<SourceResult> future) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            log.warn("Meter '{}' missed the {}ms sampling deadline", source, deadline.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("Meter '{}' failed: {}", source, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return SourceResult.EMPTY;
+    }
+
+    private ChannelReading fallback(String channel, LocalDateTime now) {
+        ChannelReading last = lastGood.get(channel);
+        if (last != null && isWithinStaleLimit(last, now)) {
+            return last.asStale();
+        }
+        return ChannelReading.missing();
+    }
+
+    private boolean isWithinStaleLimit(ChannelReading reading, LocalDateTime now) {
+        return reading.measuredAt() != null && reading.measuredAt().plus(staleAfter).isAfter(now);
+    }
+
+    /** Every channel a sample can contain: grid, solar, then one per Shelly device. */
+    public List<String> channels() {
+        List<String> expected = new ArrayList<>(List.of(GRID, SOLAR));
+        expected.addAll(registry.getDeviceIds());
+        return expected;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "meter-sampler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record SourceResult(Map<String, ChannelReading> readings, InverterSnapshot inverter, ShellyEm3Snapshot shelly) {
+        static final SourceResult EMPTY = new SourceResult(Map.of(), null, null);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
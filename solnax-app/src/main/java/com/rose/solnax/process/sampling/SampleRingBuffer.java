@@ -0,0 +1,116 @@
+package com.rose.solnax.process.sampling;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fixed-size ring buffer of samples, one primitive {@code double[]} per channel plus a shared
+ * {@code long[]} of epoch millis. Nothing is allocated per sample; missing values are stored as NaN.
+ *
+ * Single writer (the sampler) and occasional readers, so plain synchronization is enough.
+ */
+public class SampleRingBuffer {
+
+    private final List<String> channels;
+    private final Map<String, Integer> channelIndex = new HashMap<>();
+    private final long[] times;
+    private final double[][] values;
+
+    private int head;   // next slot to write
+    private int size;
+
+    public SampleRingBuffer(List<String> channels, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive – got: " + capacity);
+        this.channels = List.copyOf(channels);
+        for (int i = 0; i < this.channels.size(); i++) {
+            channelIndex.put(this.channels.get(i), i);
+        }
+        this.times = new long[capacity];
+        this.values = new double[this.channels.size()][capacity];
+    }
+
+    public List<String> channels() {
+        return channels;
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Appends one sample. {@code row} is indexed like {@link #channels()} and is copied,
+     * so callers can reuse the same array for every sample.
+     */
+    public synchronized void append(long timeMillis, double[] row) {
+        times[head] = timeMillis;
+        for (int c = 0; c < values.length; c++) {
+            values[c][head] = row[c];
+        }
+        head = (head + 1) % times.length;
+        if (size < times.length) size++;
+    }
+
+    /** Mean/min/max/last of a channel over [fromMillis, toMillis), empty when no sample has a value. */
+    public synchronized Optional<WindowStats> stats(String channel, long fromMillis, long toMillis) {
+        Integer c = channelIndex.get(channel);
+        if (c == null) return Optional.empty();
+
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double last = Double.NaN;
+        int count = 0;
+
+        int slot = oldestSlot();
+        for (int i = 0; i < size; i++, slot = (slot + 1) % times.length) {
+            long t = times[slot];
+            if (t < fromMillis || t >= toMillis) continue;
+            double v = values[c][slot];
+            if (Double.isNaN(v)) continue;
+            sum += v;
+            if (v < min) min = v;
+            if (v > max) max = v;
+            last = v;
+            count++;
+        }
+        return count == 0 ? Optional.empty() : Optional.of(new WindowStats(sum / count, min, max, last, count));
+    }
+
+    /** Copies every sample at or after {@code fromMillis}, oldest first. */
+    public synchronized Series since(long fromMillis) {
+        int slot = oldestSlot();
+        int skip = 0;
+        while (skip < size && times[(slot + skip) % times.length] < fromMillis) skip++;
+        int n = size - skip;
+
+        long[] outTimes = new long[n];
+        double[][] outValues = new double[values.length][n];
+        for (int i = 0; i < n; i++) {
+            int s = (slot + skip + i) % times.length;
+            outTimes[i] = times[s];
+            for (int c = 0; c < values.length; c++) {
+                outValues[c][i] = values[c][s];
+            }
+        }
+        return new Series(channels, outTimes, outValues);
+    }
+
+    private int oldestSlot() {
+        return (head - size + times.length) % times.length;
+    }
+
+    /** Point-in-time copy of part of the buffer; values indexed [channel][sample]. */
+    public record Series(List<String> channels, long[] times, double[][] values) {
+
+        public double[] values(String channel) {
+            int c = channels.indexOf(channel);
+            return c < 0 ? new double[0] : values[c];
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.rose.solnax.process.sampling;
+
+/**
+ * Aggregate of one channel over a time window of the {@link SampleRingBuffer}.
+ * Missing samples are not counted.
+ */
+public record WindowStats(double mean, double min, double max, double last, int samples) {
+}
@@ -0,0 +1,162 @@
+package com.rose.solnax.process.storage;
+
+/**
+ * One channel's samples for one day, compressed the way Facebook's Gorilla does it: timestamps (epoch seconds)
+ * as delta-of-delta, values as deltas, each zig-zag encoded behind a short prefix code. A steady 5-minute
+ * cadence and an unchanged value cost one bit each, a typical sample a few bytes. Values are whole watts, so
+ * plain deltas replace Gorilla's XOR of doubles.
+ *
+ * Append-only and not thread-safe; {@link RecentMeasurementCache} synchronizes.
+ */
+final class GorillaBlock {
+
+    /** Receives decoded samples. */
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long time, int value);
+    }
+
+    private long[] words = new long[4];
+    private long bits;
+
+    private final long firstTime;
+    private final int firstValue;
+    private long lastTime;
+    private long lastDelta;
+    private int lastValue;
+    private int count = 1;
+
+    GorillaBlock(long time, int value) {
+        this.firstTime = time;
+        this.firstValue = value;
+        this.lastTime = time;
+        this.lastValue = value;
+    }
+
+    long firstTime() { return firstTime; }
+    long lastTime() { return lastTime; }
+    int lastValue() { return lastValue; }
+    int count() { return count; }
+    int sizeBytes() { return words.length * Long.BYTES + 48; }
+
+    void append(long time, int value) {
+        if (time <= lastTime) {
+            throw new IllegalArgumentException("Sample at " + time + " is not after " + lastTime);
+        }
+        long delta = time - lastTime;
+        long dod = zigZag(delta - lastDelta);
+        if (dod == 0) {
+            write(0, 1);
+        } else if (dod < 1 << 7) {
+            write(0b10, 2);
+            write(dod, 7);
+        } else if (dod < 1 << 9) {
+            write(0b110, 3);
+            write(dod, 9);
+        } else if (dod < 1 << 12) {
+            write(0b1110, 4);
+            write(dod, 12);
+        } else {
+            write(0b1111, 4);
+            write(dod, 64);
+        }
+
+        long dv = zigZag((long) value - lastValue);
+        if (dv == 0) {
+            write(0, 1);
+        } else if (dv < 1 << 8) {
+            write(0b10, 2);
+            write(dv, 8);
+        } else if (dv < 1 << 16) {
+            write(0b110, 3);
+            write(dv, 16);
+        } else {
+            write(0b111, 3);
+            write(dv, 33);
+        }
+
+        lastTime = time;
+        lastDelta = delta;
+        lastValue = value;
+        count++;
+    }
+
+    /** Visits samples with {@code from <= time <= to} in order. */
+    void forEach(long from, long to, Visitor visitor) {
+        if (firstTime > to || lastTime < from) return;
+        long time = firstTime;
+        long delta = 0;
+        int value = firstValue;
+        long position = 0;
+        for (int i = 0; ; i++) {
+            if (time > to) return;
+            if (time >= from) visitor.visit(time, value);
+            if (i == count - 1) return;
+
+            int ones = 0;
+            while (ones < 4 && bit(position++)) ones++;
+            if (ones > 0) {
+                int width = switch (ones) { case 1 -> 7; case 2 -> 9; case 3 -> 12; default -> 64; };
+                delta += unZigZag(read(position, width));
+                position += width;
+            }
+            time += delta;
+
+            ones = 0;
+            while (ones < 3 && bit(position++)) ones++;
+            if (ones > 0) {
+                int width = switch (ones) { case 1 -> 8; case 2 -> 16; default -> 33; };
+                value += (int) unZigZag(read(position, width));
+                position += width;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Bits are packed most significant first
+
+    private void write(long value, int width) {
+        if (bits + width > (long) words.length * 64) {
+            long[] grown = new long[words.length * 2];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        int index = (int) (bits >>> 6);
+        int free = 64 - (int) (bits & 63);
+        value &= mask(width);
+        if (width <= free) {
+            words[index] |= value << (free - width);
+        } else {
+            int spill = width - free;
+            words[index] |= value >>> spill;
+            words[index + 1] |= value << (64 - spill);
+        }
+        bits += width;
+    }
+
+    private boolean bit(long position) {
+        return (words[(int) (position >>> 6)] & (1L << (63 - (position & 63)))) != 0;
+    }
+
+    private long read(long position, int width) {
+        int index = (int) (position >>> 6);
+        int free = 64 - (int) (position & 63);
+        if (width <= free) {
+            return (words[index] >>> (free - width)) & mask(width);
+        }
+        int spill = width - free;
+        return ((words[index] & mask(free)) << spill) | (words[index + 1] >>> (64 - spill));
+    }
+
+    private static long mask(int width) {
+        return width == 64 ? -1L : (1L << width) - 1;
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.config.SchedulingConfig;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Drains the {@link MeasurementJournal} into {@code measurement} from its checkpoint on.
+ *
+ * Normally the writer keeps the checkpoint at the journal's end and this finds nothing to do. After a database
+ * outage, a dropped interval or a restart it inserts whatever the writer did not confirm; inserts ignore rows
+ * that already exist, so overlapping with the writer is harmless. Rollups of the replayed range are recomputed.
+ * Records younger than {@code replay-grace} are left to the writer, except on startup.
+ */
+@Component
+@Slf4j
+public class JournalReplayer {
+
+    private final MeasurementJournal journal;
+    private final MeasurementRepository measurementRepository;
+    private final RollupManager rollupManager;
+    private final Duration grace;
+    private final int batchSize;
+
+    public JournalReplayer(MeasurementJournal journal,
+                           MeasurementRepository measurementRepository,
+                           RollupManager rollupManager,
+                           @Value("${solnax.storage.journal.replay-grace:1m}") Duration grace,
+                           @Value("${solnax.storage.write-behind.batch-size:1000}") int batchSize) {
+        this.journal = journal;
+        this.measurementRepository = measurementRepository;
+        this.rollupManager = rollupManager;
+        this.grace = grace;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        replay(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${solnax.storage.journal.replay-interval:30s}", scheduler = SchedulingConfig.STORAGE)
+    public void replayPending() {
+        replay(LocalDateTime.now().minus(grace));
+    }
+
+    /**
+     * Inserts journaled rows up to {@code notAfter}.
+     * @return the number of rows replayed; stops early while the database is unavailable
+     */
+    public synchronized int replay(LocalDateTime notAfter) {
+        if (!journal.isEnabled()) return 0;
+        int replayed = 0;
+        while (true) {
+            MeasurementJournal.Batch batch = journal.read(journal.checkpoint(), batchSize, notAfter);
+            if (batch.end() == batch.start()) break;
+            if (!batch.rows().isEmpty()) {
+                try {
+                    measurementRepository.insert(batch.rows());
+                } catch (RuntimeException e) {
+                    log.debug("Journal replay deferred, database unavailable: {}", e.getMessage());
+                    break;
+                }
+                refreshRollups(batch);
+                replayed += batch.rows().size();
+            }
+            journal.persisted(batch.start(), batch.end());
+        }
+        int compacted = journal.compact();
+        if (replayed > 0 || compacted > 0) {
+            log.info("Replayed {} journaled row(s), deleted {} segment(s)", replayed, compacted);
+        }
+        return replayed;
+    }
+
+    private void refreshRollups(MeasurementJournal.Batch batch) {
+        LocalDateTime from = batch.rows().stream().map(MeasurementRepository.Row::time).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = batch.rows().stream().map(MeasurementRepository.Row::time).max(Comparator.naturalOrder()).orElseThrow();
+        try {
+            rollupManager.refresh(from, to);
+        } catch (RuntimeException e) {
+            log.warn("Rollup refresh after replay failed, will catch up: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local append-only journal of measurement rows, so samples survive a database outage or restart.
+ *
+ * Rows are appended to fixed-size memory-mapped segment files before they are queued for the database.
+ * A record is {@code [length][crc32c][payload]}, the length written last, so a torn write reads as the end
+ * of the journal and is cut off on recovery. Positions are {@code segment << 32 | offset}.
+ *
+ * The checkpoint is the position up to which everything is known to be in the database; the writer and
+ * {@link JournalReplayer} advance it, and segments wholly before it are deleted by {@link #compact()}.
+ * When {@code max-segments} is exceeded the oldest segment is deleted even if not yet persisted.
+ */
+@Component
+@Slf4j
+public class MeasurementJournal implements DisposableBean {
+
+    private static final Pattern SEGMENT = Pattern.compile("journal-(\\d{16})\\.seg");
+    private static final int HEADER = 8;
+    /** epoch millis, channel id, value */
+    private static final int ROW = 16;
+    private static final int NULL_VALUE = Integer.MIN_VALUE;
+
+    /** Rows read back from the journal and the position range they came from. */
+    public record Batch(List<MeasurementRepository.Row> rows, long start, long end) {}
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean fsync;
+
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    /** Bytes used by segments no longer written to, filled at roll or on first use. */
+    private final Map<Long, Integer> segmentEnds = new HashMap<>();
+    private MappedByteBuffer active;
+    private long activeIndex;
+    private long checkpoint;
+
+    private final CRC32C crc = new CRC32C();
+
+    public MeasurementJournal(@Value("${solnax.storage.journal.enabled:true}") boolean enabled,
+                              @Value("${solnax.storage.journal.dir:./data/journal}") Path dir,
+                              @Value("${solnax.storage.journal.segment-size:1048576}") int segmentSize,
+                              @Value("${solnax.storage.journal.max-segments:64}") int maxSegments,
+                              @Value("${solnax.storage.journal.fsync:true}") boolean fsync) {
+        this.enabled = enabled;
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                Matcher m = SEGMENT.matcher(file.getFileName().toString());
+                if (m.matches()) segments.put(Long.parseLong(m.group(1)), file);
+            });
+        }
+        Path checkpointFile = dir.resolve("checkpoint");
+        checkpoint = Files.exists(checkpointFile) ? Long.parseLong(Files.readString(checkpointFile).trim()) : 0;
+
+        if (segments.isEmpty()) {
+            activeIndex = 0;
+            active = map(createSegment(0));
+        } else {
+            activeIndex = segments.lastKey();
+            active = map(segments.get(activeIndex));
+            active.position(recover(active));
+        }
+        if (checkpoint < position(segments.firstKey(), 0)) {
+            checkpoint = position(segments.firstKey(), 0);
+        }
+        log.info("Journal {} opened: {} segment(s), {} unpersisted byte(s)", dir, segments.size(), pending());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // -------------------------------------------------------------------------
+    // Append
+    // -------------------------------------------------------------------------
+
+    /**
+     * Appends rows as one record.
+     * @return {@code {start, end}} positions of the record, or null when the journal is disabled or failed
+     */
+    public synchronized long[] append(List<MeasurementRepository.Row> rows) {
+        if (!enabled || rows.isEmpty()) return null;
+        int length = 4 + rows.size() * ROW;
+        if (HEADER + length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + rows.size() + " rows exceeds the segment size");
+        }
+        try {
+            if (active.remaining() < HEADER + length) roll();
+
+            int at = active.position();
+            ByteBuffer payload = active.duplicate().position(at + HEADER).limit(at + HEADER + length).slice();
+            payload.putInt(rows.size());
+            for (MeasurementRepository.Row row : rows) {
+                payload.putLong(row.time().toInstant(ZoneOffset.UTC).toEpochMilli());
+                payload.putInt(row.channelId());
+                payload.putInt(row.value() == null ? NULL_VALUE : row.value());
+            }
+            active.putInt(at + 4, checksum(payload.flip()));
+            active.putInt(at, length); // last: until here the record reads as end of journal
+            active.position(at + HEADER + length);
+            if (fsync) active.force(at, HEADER + length);
+            return new long[]{position(activeIndex, at), position(activeIndex, at + HEADER + length)};
+        } catch (IOException e) {
+            log.error("Journal append failed, {} row(s) only queued in memory: {}", rows.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void roll() throws IOException {
+        active.force();
+        segmentEnds.put(activeIndex, active.position());
+        activeIndex++;
+        active = map(createSegment(activeIndex));
+        while (segments.size() > maxSegments) {
+            Map.Entry<Long, Path> oldest = segments.pollFirstEntry();
+            segmentEnds.remove(oldest.getKey());
+            Files.deleteIfExists(oldest.getValue());
+            long next = position(segments.firstKey(), 0);
+            if (checkpoint < next) {
+                log.error("Journal full: dropped unpersisted segment {}", oldest.getValue());
+                checkpoint = next;
+                saveCheckpoint();
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Read back
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads whole records from {@code from} on, up to about {@code maxRows} rows, stopping at the first record
+     * newer than {@code notAfter} (still expected to reach the database through the writer).
+     */
+    public synchronized Batch read(long from, int maxRows, LocalDateTime notAfter) {
+        List<MeasurementRepository.Row> rows = new ArrayList<>();
+        if (!enabled) return new Batch(rows, from, from);
+        long notAfterMillis = notAfter.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long position = from;
+
+        for (Map.Entry<Long, Path> segment : segments.tailMap(segmentOf(from), true).entrySet()) {
+            ByteBuffer buffer = segment.getKey() == activeIndex ? active.duplicate() : readSegment(segment.getValue());
+            int offset = segment.getKey() == segmentOf(from) ? offsetOf(from) : 0;
+            while (offset + HEADER <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER + length > buffer.capacity()) break;
+                ByteBuffer payload = buffer.duplicate().position(offset + HEADER).limit(offset + HEADER + length).slice();
+                if (checksum(payload) != buffer.getInt(offset + 4)) break;
+                int count = payload.getInt(0);
+                if (count > 0 && payload.getLong(4) > notAfterMillis) return new Batch(rows, from, position);
+                for (int i = 0; i < count; i++) {
+                    int base = 4 + i * ROW;
+                    int value = payload.getInt(base + 12);
+                    rows.add(new MeasurementRepository.Row(
+                            LocalDateTime.ofInstant(Instant.ofEpochMilli(payload.getLong(base)), ZoneOffset.UTC),
+                            payload.getInt(base + 8),
+                            value == NULL_VALUE ? null : value));
+                }
+                offset += HEADER + length;
+                position = position(segment.getKey(), offset);
+                if (rows.size() >= maxRows) return new Batch(rows, from, position);
+            }
+            // end of this segment's data; continue with the next one
+            if (segment.getKey() != activeIndex) position = position(segment.getKey() + 1, 0);
+        }
+        return new Batch(rows, from, position);
+    }
+
+    // -------------------------------------------------------------------------
+    // Checkpoint & compaction
+    // -------------------------------------------------------------------------
+
+    public synchronized long checkpoint() {
+        return checkpoint;
+    }
+
+    /** Bytes appended but not yet known to be persisted. */
+    public synchronized long pending() {
+        if (!enabled) return 0;
+        long total = 0;
+        for (long index : segments.tailMap(segmentOf(checkpoint), true).keySet()) {
+            long used = index == activeIndex ? active.position() : segmentSize;
+            total += used - (index == segmentOf(checkpoint) ? offsetOf(checkpoint) : 0);
+        }
+        return Math.max(total, 0);
+    }
+
+    /**
+     * Marks {@code [start, end)} as persisted. Advances the checkpoint only when the range continues it,
+     * so a record that never reached the database keeps everything after it replayable. The first record of a
+     * segment continues a checkpoint at the end of the previous segment's records.
+     */
+    public synchronized void persisted(long start, long end) {
+        if (!enabled || end <= checkpoint) return;
+        if (start > checkpoint && !continuesAcrossRoll(start)) return;
+        checkpoint = end;
+        saveCheckpoint();
+    }
+
+    private boolean continuesAcrossRoll(long start) {
+        long previous = segmentOf(checkpoint);
+        return offsetOf(start) == 0 && segmentOf(start) == previous + 1 && offsetOf(checkpoint) == segmentEnd(previous);
+    }
+
+    /** Bytes of intact records in a segment, or -1 when it no longer exists. */
+    private int segmentEnd(long index) {
+        if (index == activeIndex) return active.position();
+        Path file = segments.get(index);
+        if (file == null) return -1;
+        return segmentEnds.computeIfAbsent(index, i -> end(readSegment(file)));
+    }
+
+    /** Deletes segments that lie wholly before the checkpoint. */
+    public synchronized int compact() {
+        int deleted = 0;
+        while (!segments.isEmpty() && segments.firstKey() < segmentOf(checkpoint) && segments.firstKey() != activeIndex) {
+            Map.Entry<Long, Path> first = segments.pollFirstEntry();
+            segmentEnds.remove(first.getKey());
+            Path file = first.getValue();
+            try {
+                Files.deleteIfExists(file);
+                deleted++;
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", file, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    // -------------------------------------------------------------------------
+
+    private void saveCheckpoint() {
+        try {
+            Path tmp = dir.resolve("checkpoint.tmp");
+            Files.writeString(tmp, Long.toString(checkpoint));
+            Files.move(tmp, dir.resolve("checkpoint"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not save journal checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private Path createSegment(long index) throws IOException {
+        Path file = dir.resolve(String.format("journal-%016d.seg", index));
+        segments.put(index, file);
+        return file;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private ByteBuffer readSegment(Path file) {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Write position of a reopened segment: after the last intact record; anything after it is zeroed. */
+    private int recover(ByteBuffer buffer) {
+        int offset = end(buffer);
+        if (offset + HEADER <= buffer.capacity() && buffer.getInt(offset) != 0) {
+            log.warn("Journal record at {} is torn, truncating", offset);
+        }
+        for (int i = offset; i < Math.min(buffer.capacity(), offset + HEADER); i++) buffer.put(i, (byte) 0);
+        return offset;
+    }
+
+    /** Offset after the last intact record. */
+    private int end(ByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER + length > buffer.capacity()) break;
+            ByteBuffer payload = buffer.duplicate().position(offset + HEADER).limit(offset + HEADER + length).slice();
+            if (checksum(payload) != buffer.getInt(offset + 4)) break;
+            offset += HEADER + length;
+        }
+        return offset;
+    }
+
+    private int checksum(ByteBuffer payload) {
+        crc.reset();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static long position(long segment, int offset) {
+        return (segment << 32) | offset;
+    }
+
+    private static long segmentOf(long position) {
+        return position >>> 32;
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (active != null) active.force();
+    }
+}
@@ -0,0 +1,226 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.model.entity.PowerLogStats;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.PowerLogStatsRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for measurements: callers queue an interval and return immediately, a single writer
+ * thread batches queued rows into one multi-row insert per flush.
+ *
+ * A flush happens when {@code batch-size} rows are queued or {@code flush-interval} passed, and once more
+ * on shutdown. The queue is bounded: when the database cannot keep up, {@link #write} waits at most
+ * {@code enqueue-timeout} and then drops the interval (counted in {@code measurement.writer.dropped}),
+ * so the control loop never stalls on persistence. A failed flush is retried with the next one.
+ * Rollups are refreshed after every successful flush, on the writer thread, and channels queued by
+ * {@link ChannelRegistry#findIdOrQueue} are registered before each one.
+ *
+ * Every interval is first appended to the {@link MeasurementJournal}; a successful flush advances its
+ * checkpoint, and anything dropped or lost in a failed flush is written later by {@link JournalReplayer}.
+ */
+@Component
+@Slf4j
+public class MeasurementWriter implements DisposableBean {
+
+    private final MeasurementRepository measurementRepository;
+    private final PowerLogStatsRepository powerLogStatsRepository;
+    private final RollupManager rollupManager;
+    private final MeasurementJournal journal;
+    private final ChannelRegistry channelRegistry;
+
+    private final BlockingQueue<Pending> intervals;
+    private final BlockingQueue<List<PowerLogStats>> stats;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration enqueueTimeout;
+
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public MeasurementWriter(MeasurementRepository measurementRepository,
+                             PowerLogStatsRepository powerLogStatsRepository,
+                             RollupManager rollupManager,
+                             MeasurementJournal journal,
+                             ChannelRegistry channelRegistry,
+                             MeterRegistry registry,
+                             @Value("${solnax.storage.write-behind.capacity:2000}") int capacity,
+                             @Value("${solnax.storage.write-behind.batch-size:1000}") int batchSize,
+                             @Value("${solnax.storage.write-behind.flush-interval:2s}") Duration flushInterval,
+                             @Value("${solnax.storage.write-behind.enqueue-timeout:50ms}") Duration enqueueTimeout) {
+        this.measurementRepository = measurementRepository;
+        this.powerLogStatsRepository = powerLogStatsRepository;
+        this.rollupManager = rollupManager;
+        this.journal = journal;
+        this.channelRegistry = channelRegistry;
+        this.intervals = new ArrayBlockingQueue<>(capacity);
+        this.stats = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.enqueueTimeout = enqueueTimeout;
+
+        this.worker = new Thread(this::run, "measurement-writer");
+        this.worker.setDaemon(true);
+
+        Gauge.builder("measurement.writer.queued", intervals, BlockingQueue::size).register(registry);
+        this.written = Counter.builder("measurement.writer.written").register(registry);
+        this.dropped = Counter.builder("measurement.writer.dropped").register(registry);
+        this.flushTimer = Timer.builder("measurement.writer.flush").register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Journals and queues the rows of one interval.
+     * @return false when the queue stayed full and the interval was dropped (it is still in the journal)
+     */
+    public boolean write(List<MeasurementRepository.Row> interval) {
+        if (interval.isEmpty()) return true;
+        // The journal keeps millisecond times; the database must see the same ones for replays to dedupe
+        interval = interval.stream()
+                .map(row -> new MeasurementRepository.Row(row.time().truncatedTo(ChronoUnit.MILLIS), row.channelId(), row.value()))
+                .toList();
+        long[] span = journal.append(interval);
+        Pending pending = new Pending(interval, span == null ? -1 : span[0], span == null ? -1 : span[1]);
+        if (!running) {
+            log.warn("Writer stopped, {} row(s) of {} left to the journal", interval.size(), interval.get(0).time());
+            return false;
+        }
+        try {
+            if (intervals.offer(pending, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment(interval.size());
+        log.warn("Write-behind queue full ({} intervals), dropped {} row(s) of {}{}",
+                intervals.size(), interval.size(), interval.get(0).time(), span == null ? "" : ", left to the journal");
+        return false;
+    }
+
+    /** Queues power_log_stats rows; same limits as {@link #write}. */
+    public boolean writeStats(List<PowerLogStats> rows) {
+        if (rows.isEmpty()) return true;
+        if (running && stats.offer(rows)) return true;
+        log.warn("Write-behind stats queue full, dropped {} row(s)", rows.size());
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+
+    /** A queued interval and where it sits in the journal (-1 when not journaled). */
+    private record Pending(List<MeasurementRepository.Row> rows, long start, long end) {}
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        int batchRows = 0;
+        long pollMillis = Math.min(flushInterval.toMillis(), 200);
+        long flushAt = System.currentTimeMillis() + flushInterval.toMillis();
+        boolean failing = false;
+        while (running) {
+            try {
+                // While the database is failing the queue is left alone, so it fills up and applies backpressure
+                Pending interval = failing
+                        ? null
+                        : intervals.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (interval != null) {
+                    batch.add(interval);
+                    batchRows += interval.rows().size();
+                } else if (failing) {
+                    Thread.sleep(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (batchRows >= batchSize || System.currentTimeMillis() >= flushAt) {
+                failing = !flush(batch);
+                if (!failing) {
+                    batch.clear();
+                    batchRows = 0;
+                }
+                flushAt = System.currentTimeMillis() + flushInterval.toMillis();
+            }
+        }
+
+        // Shutdown: everything still queued goes out in one last pass
+        intervals.drainTo(batch);
+        if (!flush(batch)) {
+            log.error("Final flush failed, {} measurement row(s) left to the journal", rows(batch).size());
+        }
+    }
+
+    private static List<MeasurementRepository.Row> rows(List<Pending> batch) {
+        if (batch.size() == 1) return batch.get(0).rows();
+        List<MeasurementRepository.Row> rows = new ArrayList<>();
+        batch.forEach(pending -> rows.addAll(pending.rows()));
+        return rows;
+    }
+
+    /** @return true when the batch (and queued stats) reached the database */
+    private boolean flush(List<Pending> pendingBatch) {
+        try {
+            channelRegistry.registerPending();
+        } catch (RuntimeException e) {
+            log.warn("Registering new channels failed, retrying with the next flush: {}", e.getMessage());
+        }
+        List<MeasurementRepository.Row> batch = rows(pendingBatch);
+        List<List<PowerLogStats>> pendingStats = new ArrayList<>();
+        stats.drainTo(pendingStats);
+        if (batch.isEmpty() && pendingStats.isEmpty()) return true;
+
+        long start = System.nanoTime();
+        try {
+            measurementRepository.insert(batch);
+            pendingStats.forEach(powerLogStatsRepository::saveAll);
+        } catch (RuntimeException e) {
+            // Stats are best effort; measurement rows stay in the batch and go with the next flush
+            log.warn("Flushing {} measurement row(s) failed, retrying with the next flush: {}",
+                    batch.size(), e.getMessage());
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        written.increment(batch.size());
+        for (Pending pending : pendingBatch) {
+            if (pending.start() >= 0) journal.persisted(pending.start(), pending.end());
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                rollupManager.refresh();
+            } catch (RuntimeException e) {
+                log.warn("Rollup refresh failed, will catch up: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        worker.join(flushInterval.toMillis() + 10_000);
+    }
+}
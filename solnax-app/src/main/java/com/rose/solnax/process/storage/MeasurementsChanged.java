@@ -0,0 +1,9 @@
+package com.rose.solnax.process.storage;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when measurements in {@code [from, to]} were written or rewritten after the fact,
+ * e.g. replayed from the journal or imported, so anything derived from that range is stale.
+ */
+public record MeasurementsChanged(LocalDateTime from, LocalDateTime to) {}
@@ -0,0 +1,98 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.config.SchedulingConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly {@code measurement} partitions (see V008) in shape:
+ * <ul>
+ *   <li>creates the current and the next {@code months-ahead} partitions, so writes never hit the default partition</li>
+ *   <li>adds a BRIN index on {@code time} to every closed month; cold months are append-only and time-ordered,
+ *       so the index stays a few pages regardless of size</li>
+ *   <li>drops or detaches partitions older than {@code retention} (zero keeps everything); a detached
+ *       partition stays as a plain table for archiving</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PartitionMaintenance {
+
+    private static final Pattern PARTITION = Pattern.compile("measurement_(\\d{4})_(\\d{2})");
+
+    public enum RetentionPolicy { DETACH, DROP }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${solnax.storage.partitions.months-ahead:3}")
+    private int monthsAhead;
+    @Value("${solnax.storage.retention:0d}")
+    private Period retention;
+    @Value("${solnax.storage.retention-policy:detach}")
+    private RetentionPolicy retentionPolicy;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${solnax.storage.partitions.cron:0 15 0 * * *}", scheduler = SchedulingConfig.STORAGE)
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            jdbcTemplate.queryForObject("select ensure_measurement_partition(?)", String.class,
+                    current.plusMonths(i).atDay(1));
+        }
+
+        for (String partition : partitions()) {
+            Matcher m = PARTITION.matcher(partition);
+            if (!m.matches()) continue; // default partition
+            YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+
+            if (isExpired(month)) {
+                expire(partition);
+            } else if (month.isBefore(current)) {
+                jdbcTemplate.execute("create index if not exists " + partition + "_time_brin on "
+                        + partition + " using brin (time)");
+            }
+        }
+    }
+
+    /** A month expires once all of it is older than the retention period. */
+    boolean isExpired(YearMonth month) {
+        if (retention.isZero()) return false;
+        LocalDate cutoff = LocalDate.now().minus(retention);
+        return !month.plusMonths(1).atDay(1).isAfter(cutoff);
+    }
+
+    private void expire(String partition) {
+        if (retentionPolicy == RetentionPolicy.DROP) {
+            jdbcTemplate.execute("drop table " + partition);
+            log.info("Dropped partition {} (retention {})", partition, retention);
+        } else {
+            jdbcTemplate.execute("alter table measurement detach partition " + partition);
+            log.info("Detached partition {} (retention {}), kept as a standalone table", partition, retention);
+        }
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                        "where i.inhparent = 'measurement'::regclass order by c.relname",
+                String.class);
+    }
+}
@@ -0,0 +1,169 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.config.SchedulingConfig;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.MeasurementSlots;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The last {@code days} calendar days of measurements in memory, one {@link GorillaBlock} per channel and day.
+ *
+ * Warmed from the database once the application is ready and fed every interval as it is logged, so recent
+ * dashboard queries never touch Postgres. {@link #covers} tells callers whether a range can be answered here;
+ * until warming succeeded only samples logged since startup are covered. Samples arriving out of order (they
+ * are in the database anyway) are skipped. Times are kept to the second.
+ */
+@Component
+@Slf4j
+public class RecentMeasurementCache {
+
+    private static final long DAY_SECONDS = 86_400;
+
+    private final MeasurementRepository measurementRepository;
+    private final boolean enabled;
+    private final int days;
+
+    private final Map<Integer, ArrayDeque<GorillaBlock>> series = new HashMap<>();
+    private LocalDateTime coveredFrom;
+    private boolean warmed;
+
+    public RecentMeasurementCache(MeasurementRepository measurementRepository,
+                                  MeterRegistry registry,
+                                  @Value("${solnax.storage.recent-cache.enabled:true}") boolean enabled,
+                                  @Value("${solnax.storage.recent-cache.days:3}") int days) {
+        this.measurementRepository = measurementRepository;
+        this.enabled = enabled;
+        this.days = days;
+        this.coveredFrom = LocalDateTime.now();
+
+        Gauge.builder("measurement.cache.bytes", this, RecentMeasurementCache::sizeBytes).register(registry);
+        Gauge.builder("measurement.cache.samples", this, RecentMeasurementCache::samples).register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) warm();
+    }
+
+    /** Drops days that fell out of the window; retries warming while the database was unavailable. */
+    @Scheduled(fixedDelayString = "${solnax.storage.recent-cache.maintenance-interval:10m}", scheduler = SchedulingConfig.STORAGE)
+    public void maintain() {
+        if (!enabled) return;
+        if (!isWarmed()) warm();
+        evict(windowStart());
+    }
+
+    /** Loads the window from the database, keeping whatever was appended meanwhile. */
+    void warm() {
+        LocalDateTime from = windowStart();
+        List<MeasurementRepository.Row> rows;
+        try {
+            rows = measurementRepository.findBetween(from, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Could not warm the recent measurement cache, serving from the database: {}", e.getMessage());
+            return;
+        }
+
+        Map<Integer, ArrayDeque<GorillaBlock>> loaded = new HashMap<>();
+        rows.forEach(row -> append(loaded, row));
+        synchronized (this) {
+            // Appended while the query ran: newer than anything loaded unless the writer already flushed them
+            series.forEach((channel, blocks) -> blocks.forEach(block ->
+                    block.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (time, value) ->
+                            append(loaded, new MeasurementRepository.Row(toTime(time), channel, value)))));
+            series.clear();
+            series.putAll(loaded);
+            coveredFrom = from;
+            warmed = true;
+        }
+        log.info("Recent measurement cache warmed with {} sample(s) in {} byte(s)", samples(), sizeBytes());
+    }
+
+    /** Reloads the window when rows in {@code [from, to]} were written behind the cache's back, e.g. by an import. */
+    public void reload(LocalDateTime from, LocalDateTime to) {
+        if (enabled && !to.isBefore(windowStart())) warm();
+    }
+
+    // -------------------------------------------------------------------------
+
+    public synchronized void append(List<MeasurementRepository.Row> rows) {
+        if (!enabled) return;
+        rows.forEach(row -> append(series, row));
+    }
+
+    /** True when every sample from {@code start} on is in the cache. */
+    public synchronized boolean covers(LocalDateTime start) {
+        return enabled && !start.isBefore(coveredFrom);
+    }
+
+    /** Same contract as {@link MeasurementRepository#fill}, for a range {@link #covers covered} here. */
+    public synchronized void fill(MeasurementSlots slots) {
+        long from = toSeconds(slots.start());
+        long to = toSeconds(slots.stop()) - 1;
+        series.forEach((channel, blocks) -> blocks.forEach(block ->
+                block.forEach(from, to, (time, value) -> slots.put(time, channel, value))));
+    }
+
+    // -------------------------------------------------------------------------
+
+    private void append(Map<Integer, ArrayDeque<GorillaBlock>> target, MeasurementRepository.Row row) {
+        if (row.value() == null) return;
+        long time = toSeconds(row.time());
+        ArrayDeque<GorillaBlock> blocks = target.computeIfAbsent(row.channelId(), c -> new ArrayDeque<>());
+        GorillaBlock last = blocks.peekLast();
+        if (last != null && time <= last.lastTime()) return;
+        if (last == null || Math.floorDiv(time, DAY_SECONDS) != Math.floorDiv(last.firstTime(), DAY_SECONDS)) {
+            blocks.addLast(new GorillaBlock(time, row.value()));
+        } else {
+            last.append(time, row.value());
+        }
+    }
+
+    private synchronized void evict(LocalDateTime from) {
+        long limit = toSeconds(from);
+        series.values().forEach(blocks -> {
+            while (!blocks.isEmpty() && blocks.getFirst().lastTime() < limit) blocks.removeFirst();
+        });
+        series.values().removeIf(ArrayDeque::isEmpty);
+        if (warmed && coveredFrom.isBefore(from)) coveredFrom = from;
+    }
+
+    private synchronized boolean isWarmed() {
+        return warmed;
+    }
+
+    private LocalDateTime windowStart() {
+        return LocalDate.now().minusDays(days - 1L).atStartOfDay();
+    }
+
+    synchronized long sizeBytes() {
+        return series.values().stream().flatMap(ArrayDeque::stream).mapToLong(GorillaBlock::sizeBytes).sum();
+    }
+
+    synchronized long samples() {
+        return series.values().stream().flatMap(ArrayDeque::stream).mapToLong(GorillaBlock::count).sum();
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
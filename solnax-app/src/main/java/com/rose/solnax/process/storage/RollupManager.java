@@ -0,0 +1,71 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.config.SchedulingConfig;
+import com.rose.solnax.model.repository.RollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Keeps the hour/day rollups of {@code measurement} current.
+ *
+ * {@link #refresh()} runs after every measurement flush and re-aggregates from the watermark's hour up to now:
+ * normally the current hour and day only. After downtime the same call catches up from where it stopped.
+ * {@link #refresh(LocalDateTime, LocalDateTime)} recomputes an arbitrary range, e.g. after late rows were imported,
+ * and is where caches of older data learn that it changed.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RollupManager {
+
+    static final String WATERMARK = "measurement_rollup";
+
+    private final RollupRepository rollupRepository;
+    private final ApplicationEventPublisher events;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    /** Safety net for when power logging is not running; a no-op when nothing new was written. */
+    @Scheduled(cron = "${solnax.storage.rollup.catch-up-cron:0 7 * * * *}", scheduler = SchedulingConfig.STORAGE)
+    public void catchUp() {
+        refresh();
+    }
+
+    @Transactional
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = rollupRepository.watermark(WATERMARK)
+                .or(rollupRepository::firstMeasurement)
+                .orElse(null);
+        if (from == null) return; // nothing measured yet
+
+        refresh(from, now);
+        // The newest row rather than now: a row queued before now but written after this refresh
+        // still falls into the hour the next refresh starts from
+        rollupRepository.setWatermark(WATERMARK, rollupRepository.lastMeasurement().orElse(from));
+    }
+
+    /** Recomputes every bucket touching {@code [from, to]} and announces the range as {@link MeasurementsChanged}. */
+    @Transactional
+    public synchronized void refresh(LocalDateTime from, LocalDateTime to) {
+        events.publishEvent(new MeasurementsChanged(from, to));
+        LocalDateTime hourFrom = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime dayFrom = from.truncatedTo(ChronoUnit.DAYS);
+
+        int hours = rollupRepository.refreshHours(hourFrom, to.truncatedTo(ChronoUnit.HOURS).plusHours(1));
+        int days = rollupRepository.refreshDays(dayFrom, to.truncatedTo(ChronoUnit.DAYS).plusDays(1));
+        log.debug("Rollups refreshed from {}: {} hour, {} day bucket(s)", from, hours, days);
+    }
+}
@@ -0,0 +1,10 @@
+CREATE TABLE power_log_stats(
+    time timestamp not null,
+    channel varchar not null,
+    mean integer,
+    min integer,
+    max integer,
+    last integer,
+    samples integer,
+    primary key (time, channel)
+);
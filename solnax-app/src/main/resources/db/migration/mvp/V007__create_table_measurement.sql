@@ -0,0 +1,31 @@
+CREATE TABLE channel(
+    id serial primary key,
+    name varchar not null unique,
+    unit varchar not null default 'W',
+    created_at timestamp not null default current_timestamp
+);
+
+CREATE TABLE measurement(
+    time timestamp not null,
+    channel_id integer not null references channel(id),
+    value integer,
+    primary key (time, channel_id)
+);
+
+-- power_log's wide columns become channels; "house" always held the grid meter reading
+INSERT INTO channel(name) VALUES ('grid'), ('solar'), ('heater'), ('kitchen'), ('charger');
+
+INSERT INTO measurement(time, channel_id, value)
+SELECT p.time, c.id, v.value
+FROM power_log p
+CROSS JOIN LATERAL (VALUES
+    ('grid', p.house),
+    ('solar', p.solar),
+    ('heater', p.heater),
+    ('kitchen', p.kitchen),
+    ('charger', p.charger)
+) AS v(name, value)
+JOIN channel c ON c.name = v.name
+WHERE v.value IS NOT NULL;
+
+ALTER TABLE power_log RENAME TO power_log_legacy;
@@ -0,0 +1,60 @@
+-- Monthly range partitions for measurement. Partitions are named measurement_YYYY_MM and created ahead
+-- of time by the application (PartitionMaintenance); the default partition only catches rows written
+-- before their month exists and is emptied when it is created.
+
+ALTER TABLE measurement RENAME TO measurement_unpartitioned;
+ALTER TABLE measurement_unpartitioned RENAME CONSTRAINT measurement_pkey TO measurement_unpartitioned_pkey;
+
+CREATE TABLE measurement(
+    time timestamp not null,
+    channel_id integer not null references channel(id),
+    value integer,
+    primary key (time, channel_id)
+) PARTITION BY RANGE (time);
+
+CREATE TABLE measurement_default PARTITION OF measurement DEFAULT;
+
+CREATE OR REPLACE FUNCTION ensure_measurement_partition(month_start date) RETURNS text AS $$
+DECLARE
+    month_from date := date_trunc('month', month_start)::date;
+    month_to date := (date_trunc('month', month_start) + interval '1 month')::date;
+    part text := 'measurement_' || to_char(month_from, 'YYYY_MM');
+BEGIN
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN part;
+    END IF;
+
+    -- A partition cannot be attached while the default partition holds rows of its range
+    CREATE TEMP TABLE measurement_moved (LIKE measurement) ON COMMIT DROP;
+    WITH moved AS (
+        DELETE FROM measurement_default WHERE time >= month_from AND time < month_to RETURNING *
+    )
+    INSERT INTO measurement_moved SELECT * FROM moved;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF measurement FOR VALUES FROM (%L) TO (%L)',
+                   part, month_from, month_to);
+
+    INSERT INTO measurement SELECT * FROM measurement_moved;
+    DROP TABLE measurement_moved;
+    RETURN part;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    month date;
+BEGIN
+    FOR month IN
+        SELECT generate_series(
+                   date_trunc('month', coalesce(min(time), now())),
+                   date_trunc('month', now()) + interval '3 months',
+                   interval '1 month')::date
+        FROM measurement_unpartitioned
+    LOOP
+        PERFORM ensure_measurement_partition(month);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO measurement SELECT * FROM measurement_unpartitioned;
+DROP TABLE measurement_unpartitioned;
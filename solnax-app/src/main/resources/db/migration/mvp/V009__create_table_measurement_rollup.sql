@@ -0,0 +1,24 @@
+-- Per-channel rollups of measurement; avg is sum / count, kept so readers need no arithmetic.
+-- Maintained by RollupManager: hours from measurement, days from hours, months from days.
+CREATE TABLE measurement_rollup_hour(
+    bucket timestamp not null,
+    channel_id integer not null references channel(id),
+    sum bigint not null,
+    count integer not null,
+    min integer,
+    max integer,
+    avg double precision,
+    primary key (bucket, channel_id)
+);
+
+CREATE TABLE measurement_rollup_day (LIKE measurement_rollup_hour INCLUDING ALL);
+ALTER TABLE measurement_rollup_day ADD FOREIGN KEY (channel_id) REFERENCES channel(id);
+
+CREATE TABLE measurement_rollup_month (LIKE measurement_rollup_hour INCLUDING ALL);
+ALTER TABLE measurement_rollup_month ADD FOREIGN KEY (channel_id) REFERENCES channel(id);
+
+-- Everything up to (not including) the hour of "time" is rolled up
+CREATE TABLE rollup_watermark(
+    name varchar primary key,
+    time timestamp not null
+);
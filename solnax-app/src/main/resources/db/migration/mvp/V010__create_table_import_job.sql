@@ -0,0 +1,15 @@
+-- Bulk imports of historical meter data; lines_committed is where a re-upload resumes
+CREATE TABLE import_job(
+    id varchar PRIMARY KEY,
+    format varchar NOT NULL,
+    state varchar NOT NULL,
+    lines_committed bigint NOT NULL DEFAULT 0,
+    rows_read bigint NOT NULL DEFAULT 0,
+    rows_inserted bigint NOT NULL DEFAULT 0,
+    lines_rejected bigint NOT NULL DEFAULT 0,
+    first_time timestamp,
+    last_time timestamp,
+    started_at timestamp NOT NULL DEFAULT current_timestamp,
+    updated_at timestamp NOT NULL DEFAULT current_timestamp,
+    message varchar
+);
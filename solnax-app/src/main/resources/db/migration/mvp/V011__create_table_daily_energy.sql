@@ -0,0 +1,13 @@
+-- Energy per channel and day, integrated from measurement by DailyEnergyManager.
+-- Channels are by name: derived channels (house) have no channel row. positive_wh and negative_wh
+-- integrate the parts above and below zero separately, e.g. grid import and export;
+-- covered_seconds is how much of the day had samples close enough to integrate between.
+CREATE TABLE daily_energy(
+    day date not null,
+    channel varchar not null,
+    positive_wh bigint not null,
+    negative_wh bigint not null,
+    covered_seconds integer not null,
+    updated_at timestamp not null default current_timestamp,
+    primary key (day, channel)
+);
@@ -0,0 +1,15 @@
+-- Solar production and grid import/export per day, week and month, accumulated by EnergyBalanceTracker
+-- from every logged interval. The open period of each kind is rewritten until it closes.
+CREATE TABLE energy_balance(
+    id varchar PRIMARY KEY, -- period:start, e.g. WEEK:2025-06-02
+    period varchar NOT NULL,
+    start date NOT NULL,
+    solar_wh double precision NOT NULL,
+    import_wh double precision NOT NULL,
+    export_wh double precision NOT NULL,
+    covered_seconds bigint NOT NULL,
+    closed boolean NOT NULL DEFAULT false,
+    updated_at timestamp NOT NULL DEFAULT current_timestamp
+);
+
+CREATE INDEX energy_balance_period_start ON energy_balance(period, start);
@@ -0,0 +1,6 @@
+-- Session energy from the charger meter, split into solar and grid, written when the session ends
+alter table charge_session add column meter_start_wh double precision;
+alter table charge_session add column meter_end_wh double precision;
+alter table charge_session add column energy_solar_kwh double precision;
+alter table charge_session add column energy_grid_kwh double precision;
+alter table charge_session add column energy_metered boolean;
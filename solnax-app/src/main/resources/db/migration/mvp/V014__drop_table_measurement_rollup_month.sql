@@ -0,0 +1,2 @@
+-- Month buckets were never read: history steps are fixed durations, which months of varying length cannot build
+DROP TABLE measurement_rollup_month;
@@ -0,0 +1,63 @@
+package com.rose.solnax.model.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ColumnarPowerLogsTest {
+
+    private static final int ABSENT = Integer.MIN_VALUE;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Test
+    void shouldKeepOnlyPresentValuesAsDeltas() {
+        ColumnarPowerLogs logs = new ColumnarPowerLogs(START, 300, 10);
+        logs.add("solar", new int[]{ABSENT, ABSENT, 100, 150, ABSENT, 120, ABSENT, ABSENT, ABSENT, -5}, ABSENT);
+
+        ColumnarPowerLogs.Column solar = logs.getChannels().get("solar");
+        assertArrayEquals(new byte[]{0b0010_1100, 0b10}, solar.getPresent());
+        assertArrayEquals(new int[]{100, 50, -30, -125}, solar.getDeltas());
+    }
+
+    @Test
+    void shouldDecodeTheBinaryLayout() {
+        ColumnarPowerLogs logs = new ColumnarPowerLogs(START, 300, 3);
+        logs.add("grid", new int[]{-2000, ABSENT, 70}, ABSENT);
+
+        ByteBuffer in = ByteBuffer.wrap(logs.toBinary()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1, in.get());
+        assertEquals(START.toEpochSecond(ZoneOffset.UTC), in.getLong());
+        assertEquals(300, in.getInt());
+        assertEquals(3, in.getInt());
+        assertEquals(1, in.getShort());
+        byte[] name = new byte[in.getShort()];
+        in.get(name);
+        assertEquals("grid", new String(name, StandardCharsets.UTF_8));
+        assertEquals(0b101, in.get());
+        int n = in.getInt();
+        int[] values = new int[n];
+        int previous = 0;
+        for (int i = 0; i < n; i++) {
+            int raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                raw |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (raw >>> 1) ^ -(raw & 1);
+            values[i] = previous;
+        }
+        assertArrayEquals(new int[]{-2000, 70}, values);
+        assertFalse(in.hasRemaining());
+    }
+}
@@ -134,4 +134,14 @@ class ChargeOptimizerTest {
         verify(chargePoint).adjustChargePower(6500);
         verify(chargePoint, never()).stopCharge();
     }
+
+    @Test
+    void shouldSkipDecisionsWhenInputsAreStale() {
+        PowerLog stale = log(-4000, 0);
+        stale.setStale(true);
+
+        optimizer.optimize(stale);
+
+        verifyNoInteractions(chargePoint);
+    }
 }
@@ -0,0 +1,41 @@
+package com.rose.solnax.process;
+
+import com.rose.solnax.model.entity.PowerLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LatestPowerLogsTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private static PowerLog log(int minutes) {
+        return PowerLog.builder().time(T.plusMinutes(minutes)).solar(minutes).build();
+    }
+
+    @Test
+    void shouldKeepTheLastIntervalsNewestLast() {
+        LatestPowerLogs logs = new LatestPowerLogs(3);
+        assertNull(logs.latest());
+        for (int i = 0; i < 5; i++) logs.publish(log(5 * i));
+        logs.publish(log(1)); // late, ignored
+
+        assertEquals(20, logs.latest().getSolar());
+        assertEquals(List.of(10, 15, 20), logs.last(10).stream().map(PowerLog::getSolar).toList());
+        assertEquals(List.of(15, 20), logs.last(2).stream().map(PowerLog::getSolar).toList());
+    }
+
+    @Test
+    void shouldKeepIntervalsPublishedWhileResetting() {
+        LatestPowerLogs logs = new LatestPowerLogs(3);
+        logs.publish(log(20));
+
+        logs.reset(List.of(log(15), log(0), log(10), log(5), log(20)));
+
+        assertEquals(List.of(10, 15, 20), logs.last(3).stream().map(PowerLog::getSolar).toList());
+    }
+}
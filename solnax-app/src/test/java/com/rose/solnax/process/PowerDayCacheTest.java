@@ -0,0 +1,67 @@
+package com.rose.solnax.process;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rose.solnax.model.dto.ColumnarPowerLogs;
+import com.rose.solnax.model.entity.PowerLog;
+import com.rose.solnax.process.storage.MeasurementsChanged;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PowerDayCacheTest {
+
+    private static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    private final PowerLogManager powerLogManager = mock(PowerLogManager.class);
+    private final LatestPowerLogs latestPowerLogs = new LatestPowerLogs(3);
+    private final PowerDayCache cache = new PowerDayCache(powerLogManager, latestPowerLogs, new ObjectMapper(),
+            new SimpleMeterRegistry(), 1 << 20);
+
+    PowerDayCacheTest() {
+        when(powerLogManager.getColumnarPowerLogsForPeriod(any(), any()))
+                .thenAnswer(inv -> new ColumnarPowerLogs(inv.getArgument(0), 300, 288));
+    }
+
+    @Test
+    void shouldServeClosedDaysFromBytesUntilTheirMeasurementsChange() {
+        assertTrue(cache.isClosed(YESTERDAY));
+        PowerDayCache.Body first = cache.closedDay(YESTERDAY, PowerDayCache.Encoding.COLUMNAR_BINARY);
+        assertSame(first, cache.closedDay(YESTERDAY, PowerDayCache.Encoding.COLUMNAR_BINARY));
+        assertTrue(first.etag().startsWith("\"" + YESTERDAY + "-columnar_binary-"));
+        verify(powerLogManager, times(1)).getColumnarPowerLogsForPeriod(any(), any());
+
+        cache.onMeasurementsChanged(new MeasurementsChanged(YESTERDAY.minusDays(3).atStartOfDay(), YESTERDAY.minusDays(2).atStartOfDay()));
+        assertSame(first, cache.closedDay(YESTERDAY, PowerDayCache.Encoding.COLUMNAR_BINARY));
+
+        cache.onMeasurementsChanged(new MeasurementsChanged(YESTERDAY.atTime(23, 55), LocalDateTime.now()));
+        PowerDayCache.Body reread = cache.closedDay(YESTERDAY, PowerDayCache.Encoding.COLUMNAR_BINARY);
+        assertNotEquals(first, reread);
+        assertEquals(first.etag(), reread.etag()); // same content, same tag
+    }
+
+    @Test
+    void shouldTagTheOpenDayWithItsLatestInterval() {
+        LocalDate today = LocalDate.now();
+        assertNull(cache.openDayTag(today, PowerDayCache.Encoding.JSON));
+
+        latestPowerLogs.publish(PowerLog.builder().time(today.atTime(10, 0)).build());
+        String tag = cache.openDayTag(today, PowerDayCache.Encoding.JSON);
+        assertTrue(tag.startsWith("W/\"" + today + "-json-"));
+
+        latestPowerLogs.publish(PowerLog.builder().time(today.atTime(10, 5)).build());
+        assertNotEquals(tag, cache.openDayTag(today, PowerDayCache.Encoding.JSON));
+    }
+}
@@ -0,0 +1,134 @@
+package com.rose.solnax.process;
+
+import com.rose.solnax.model.dto.PowerHistory;
+import com.rose.solnax.model.entity.enums.Aggregation;
+import com.rose.solnax.model.entity.enums.Resolution;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.RollupRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.channels.EnergyFlow;
+import com.rose.solnax.process.channels.EnergyFlowProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PowerHistoryManagerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    private final MeasurementRepository measurementRepository = mock(MeasurementRepository.class);
+    private final RollupRepository rollupRepository = mock(RollupRepository.class);
+    private final ChannelRegistry channelRegistry = mock(ChannelRegistry.class);
+    private final PowerHistoryManager manager;
+
+    PowerHistoryManagerTest() {
+        EnergyFlowProperties props = new EnergyFlowProperties();
+        props.setDerived(Map.of("house", "max(0, solar + grid)"));
+        manager = new PowerHistoryManager(measurementRepository, rollupRepository, channelRegistry, new EnergyFlow(props), 1500);
+        when(channelRegistry.nameOf(1)).thenReturn("grid");
+        when(channelRegistry.nameOf(2)).thenReturn("solar");
+    }
+
+    @Test
+    void shouldPickTheFinestStepWithinThePointLimit() {
+        assertEquals(Duration.ofMinutes(5), manager.stepFor(Duration.ofHours(1)));
+        assertEquals(Duration.ofMinutes(5), manager.stepFor(Duration.ofDays(1)));
+        assertEquals(Duration.ofMinutes(15), manager.stepFor(Duration.ofDays(7)));
+        assertEquals(Duration.ofHours(1), manager.stepFor(Duration.ofDays(31)));
+        assertEquals(Duration.ofDays(1), manager.stepFor(Duration.ofDays(366)));
+        assertEquals(Duration.ofDays(14), manager.stepFor(Duration.ofDays(365 * 50)));
+    }
+
+    @Test
+    void shouldBucketRawRowsInSqlAndConvertEnergy() {
+        Duration step = Duration.ofMinutes(15);
+        when(measurementRepository.aggregate(FROM, FROM.plusDays(1), step, Aggregation.ENERGY)).thenReturn(List.of(
+                new MeasurementRepository.Bucket(FROM, 1, -400),
+                new MeasurementRepository.Bucket(FROM, 2, 2000),
+                new MeasurementRepository.Bucket(FROM.plusMinutes(15), 2, 1000)));
+
+        PowerHistory history = manager.getHistory(FROM, FROM.plusDays(1), step, Aggregation.ENERGY);
+
+        assertEquals(Resolution.RAW, history.getResolution());
+        assertEquals(List.of(FROM, FROM.plusMinutes(15)), history.getTimes());
+        assertEquals(List.of(500, 250), history.getChannels().get("solar"));
+        assertEquals(Arrays.asList(-100, null), history.getChannels().get("grid"));
+        assertEquals(List.of(400, 250), history.getChannels().get("house"));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void shouldLeaveOutDerivedChannelsForNonMeanAggregations() {
+        Duration step = Duration.ofMinutes(15);
+        when(measurementRepository.aggregate(FROM, FROM.plusDays(1), step, Aggregation.MAX)).thenReturn(List.of(
+                new MeasurementRepository.Bucket(FROM, 1, -400),
+                new MeasurementRepository.Bucket(FROM, 2, 2000)));
+
+        PowerHistory history = manager.getHistory(FROM, FROM.plusDays(1), step, Aggregation.MAX);
+
+        assertEquals(List.of(2000), history.getChannels().get("solar"));
+        assertFalse(history.getChannels().containsKey("house"));
+    }
+
+    @Test
+    void shouldRejectStepsFinerThanTheStorageInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getHistory(FROM, FROM.plusHours(1), Duration.ofMinutes(1), Aggregation.ENERGY));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getHistory(FROM, FROM.plusHours(1), Duration.ofMinutes(7), Aggregation.AVG));
+    }
+
+    @Test
+    void shouldReadFromTheCoarsestResolutionDividingTheStep() {
+        assertEquals(Resolution.RAW, Resolution.sourceFor(Duration.ofMinutes(5)));
+        assertEquals(Resolution.RAW, Resolution.sourceFor(Duration.ofMinutes(15)));
+        assertEquals(Resolution.RAW, Resolution.sourceFor(Duration.ofMinutes(90)));
+        assertEquals(Resolution.HOUR, Resolution.sourceFor(Duration.ofHours(1)));
+        assertEquals(Resolution.HOUR, Resolution.sourceFor(Duration.ofHours(6)));
+        assertEquals(Resolution.DAY, Resolution.sourceFor(Duration.ofDays(1)));
+        assertEquals(Resolution.DAY, Resolution.sourceFor(Duration.ofDays(7)));
+    }
+
+    @Test
+    void shouldBucketDailyRollupsAndDeriveFromBucketMeans() {
+        Duration step = Duration.ofDays(1);
+        when(rollupRepository.aggregate(Resolution.DAY, FROM, FROM.plusDays(2), step, Aggregation.AVG)).thenReturn(List.of(
+                new MeasurementRepository.Bucket(FROM, 1, -300),
+                new MeasurementRepository.Bucket(FROM, 2, 200),
+                new MeasurementRepository.Bucket(FROM.plusDays(1), 1, 150),
+                new MeasurementRepository.Bucket(FROM.plusDays(1), 2, 100)));
+
+        PowerHistory history = manager.getHistory(FROM, FROM.plusDays(2), step, Aggregation.AVG);
+
+        assertEquals(Resolution.DAY, history.getResolution());
+        assertEquals(List.of(FROM, FROM.plusDays(1)), history.getTimes());
+        assertEquals(List.of(-300, 150), history.getChannels().get("grid"));
+        // max(0, solar + grid) of the day means, not the mean of the per-interval values
+        assertEquals(List.of(0, 250), history.getChannels().get("house"));
+        verifyNoInteractions(measurementRepository);
+    }
+
+    @Test
+    void shouldReadWholeHourStepsFromRollupsAndRejectTooManyPoints() {
+        manager.getHistory(FROM, FROM.plusDays(7), Duration.ofHours(6), Aggregation.MAX);
+        verify(rollupRepository).aggregate(Resolution.HOUR, FROM, FROM.plusDays(7), Duration.ofHours(6), Aggregation.MAX);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getHistory(FROM, FROM.plusDays(31), Duration.ofMinutes(5), Aggregation.AVG));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getHistory(FROM, FROM, null, Aggregation.AVG));
+        verifyNoInteractions(measurementRepository);
+    }
+}
@@ -0,0 +1,48 @@
+package com.rose.solnax.process;
+
+import com.rose.solnax.model.dto.PowerLogs;
+import com.rose.solnax.model.repository.MeasurementSlots;
+import com.rose.solnax.process.channels.EnergyFlow;
+import com.rose.solnax.process.channels.EnergyFlowProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PowerLogManagerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Test
+    void shouldLayOutADayInFiveMinuteSlotsWithDerivedChannels() {
+        EnergyFlowProperties props = new EnergyFlowProperties();
+        props.setDerived(Map.of("house", "max(0, solar + grid)"));
+        MeasurementSlots slots = new MeasurementSlots(DAY, DAY.plusDays(1), Duration.ofMinutes(5));
+        long t = DAY.toEpochSecond(ZoneOffset.UTC);
+        slots.put(t + 600, 2, 3000);        // 00:10 solar
+        slots.put(t + 600, 1, -1000);       // 00:10 grid
+        slots.put(t + 899, 2, 2000);        // 00:14:59 lands in 00:10 too, first value wins
+        slots.put(t + 86_100, 1, 400);      // 23:55 grid only
+        slots.put(t + 86_400, 1, 999);      // next day, ignored
+
+        PowerLogs logs = PowerLogManager.toPowerLogs(slots, id -> id == 1 ? "grid" : "solar", new EnergyFlow(props));
+
+        assertEquals(288, logs.getTimes().size());
+        assertEquals(LocalTime.of(0, 10), logs.getTimes().get(2));
+        assertEquals(List.of("solar", "grid", "house"), List.copyOf(logs.getChannels().keySet()));
+        assertEquals(3000, logs.getSolar().get(2));
+        assertNull(logs.getSolar().get(287));
+        assertEquals(Arrays.asList(null, null, 2000), logs.getHouse().subList(0, 3));
+        assertEquals(400, logs.getHouse().get(287));
+        assertEquals(288, logs.getKitchen().size());
+        assertNull(logs.getKitchen().get(2));
+    }
+}
@@ -0,0 +1,149 @@
+package com.rose.solnax.process;
+
+import com.rose.solnax.model.dto.PowerLogs;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.MeasurementSlots;
+import com.rose.solnax.process.channels.EnergyFlow;
+import com.rose.solnax.process.channels.EnergyFlowProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Turning a day/week/month of measurement rows into {@link PowerLogs}: row objects grouped through maps of
+ * boxed values (the previous read path, kept here as the baseline) vs. filling {@link MeasurementSlots} from
+ * primitive columns as the result set callback does. The database round trip is left out, it is the same for
+ * both. Run with
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath com.rose.solnax.process.PowerLogReadBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PowerLogReadBenchmark {
+
+    private static final String[] CHANNELS = {"grid", "solar", "heater", "kitchen", "charger", "pool"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @Param({"1", "7", "31"})
+    public int days;
+
+    private EnergyFlow energyFlow;
+    private long[] times;
+    private int[] channelIds;
+    private int[] values;
+
+    @Setup
+    public void setUp() {
+        EnergyFlowProperties props = new EnergyFlowProperties();
+        props.setDerived(Map.of("house", "max(0, solar + grid - charger - kitchen - heater)"));
+        energyFlow = new EnergyFlow(props);
+
+        int rows = days * 288 * CHANNELS.length;
+        times = new long[rows];
+        channelIds = new int[rows];
+        values = new int[rows];
+        long t = START.toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < rows; i++) {
+            times[i] = t + 300L * (i / CHANNELS.length);
+            channelIds[i] = 1 + i % CHANNELS.length;
+            values[i] = (i * 37) % 5000 - 1000;
+        }
+    }
+
+    private static String name(int id) {
+        return CHANNELS[id - 1];
+    }
+
+    @Benchmark
+    public PowerLogs rowsAndMaps() {
+        List<MeasurementRepository.Row> rows = new ArrayList<>(times.length);
+        for (int i = 0; i < times.length; i++) {
+            rows.add(new MeasurementRepository.Row(LocalDateTime.ofEpochSecond(times[i], 0, ZoneOffset.UTC), channelIds[i], values[i]));
+        }
+
+        Map<LocalTime, Map<String, Integer>> slots = new HashMap<>();
+        Set<String> storedChannels = new LinkedHashSet<>();
+        for (MeasurementRepository.Row row : rows) {
+            String channel = name(row.channelId());
+            storedChannels.add(channel);
+            slots.computeIfAbsent(row.time().toLocalTime().withNano(0).withSecond(0), t -> new HashMap<>())
+                    .putIfAbsent(channel, row.value());
+        }
+        int totalIntervals = 288;
+        PowerLogs paddedLogs = new PowerLogs();
+        Map<String, List<Integer>> channels = paddedLogs.getChannels();
+        storedChannels.forEach(channel -> channels.put(channel, new ArrayList<>(totalIntervals)));
+        energyFlow.derivedChannels().forEach(channel -> channels.put(channel, new ArrayList<>(totalIntervals)));
+        Stream.iterate(LocalTime.MIN, time -> time.plusMinutes(5))
+                .limit(totalIntervals)
+                .forEach(currentTime -> {
+                    paddedLogs.getTimes().add(currentTime);
+                    Map<String, Integer> slot = slots.get(currentTime);
+                    for (String channel : storedChannels) {
+                        channels.get(channel).add(slot != null ? slot.get(channel) : null);
+                    }
+                    for (String channel : energyFlow.derivedChannels()) {
+                        channels.get(channel).add(slot != null
+                                ? (int) energyFlow.derived(channel, c -> slot.getOrDefault(c, 0))
+                                : null);
+                    }
+                });
+        paddedLogs.getSolar().addAll(series(channels, "solar", totalIntervals));
+        paddedLogs.getHouse().addAll(series(channels, "house", totalIntervals));
+        paddedLogs.getCharger().addAll(series(channels, "charger", totalIntervals));
+        paddedLogs.getHeater().addAll(series(channels, "heater", totalIntervals));
+        paddedLogs.getKitchen().addAll(series(channels, "kitchen", totalIntervals));
+        return paddedLogs;
+    }
+
+    private static List<Integer> series(Map<String, List<Integer>> channels, String channel, int length) {
+        List<Integer> values = channels.get(channel);
+        return values != null ? values : Collections.nCopies(length, null);
+    }
+
+    @Benchmark
+    public PowerLogs primitiveSlots() {
+        MeasurementSlots slots = new MeasurementSlots(START, START.plusDays(days), Duration.ofMinutes(5));
+        for (int i = 0; i < times.length; i++) {
+            slots.put(times[i], channelIds[i], values[i]);
+        }
+        return PowerLogManager.toPowerLogs(slots, PowerLogReadBenchmark::name, energyFlow);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PowerLogReadBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
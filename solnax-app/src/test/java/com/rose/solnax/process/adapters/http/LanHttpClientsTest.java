@@ -0,0 +1,79 @@
+package com.rose.solnax.process.adapters.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LanHttpClientsTest {
+
+    private final LanHttpProperties props = new LanHttpProperties();
+    private LanHttpClients clients;
+    private ServerSocket silent;
+
+    @SuppressWarnings("unchecked")
+    private LanHttpClients clients() {
+        ObjectProvider<RestClient.Builder> builders = mock(ObjectProvider.class);
+        when(builders.getObject()).thenAnswer(invocation -> RestClient.builder());
+        clients = new LanHttpClients(props, builders, new SimpleMeterRegistry());
+        return clients;
+    }
+
+    /** Accepts connections (the kernel completes the handshake) but never answers. */
+    private String silentServer() throws IOException {
+        silent = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+        return "http://127.0.0.1:" + silent.getLocalPort();
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        if (clients != null) clients.destroy();
+        if (silent != null) silent.close();
+    }
+
+    @Test
+    void shouldApplyTheTargetReadTimeoutOverTheSharedOne() throws IOException {
+        props.setReadTimeout(Duration.ofSeconds(30));
+        LanHttpProperties.Target slow = new LanHttpProperties.Target();
+        slow.setReadTimeout(Duration.ofMillis(200));
+        props.getTargets().put("slow", slow);
+        RestClient client = clients().restClient("slow", silentServer());
+
+        long start = System.nanoTime();
+        ResourceAccessException e = assertThrows(ResourceAccessException.class,
+                () -> client.get().uri("/status").retrieve().toBodilessEntity());
+
+        assertInstanceOf(SocketTimeoutException.class, e.getCause());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(10)) < 0);
+    }
+
+    @Test
+    void shouldLimitConnectionsPerTargetWhenConfigured() {
+        props.setMaxPerHost(2);
+        LanHttpProperties.Target ble = new LanHttpProperties.Target();
+        ble.setMaxConnections(4);
+        props.getTargets().put("tesla-ble", ble);
+        LanHttpClients clients = clients();
+
+        clients.restClient("tesla-ble", "http://192.168.0.90:8080");
+        clients.restClient("shelly-heater", "http://192.168.0.50");
+
+        assertEquals(4, clients.stats("http://192.168.0.90:8080").getMax());
+        assertEquals(2, clients.stats("http://192.168.0.50").getMax());
+    }
+}
@@ -0,0 +1,174 @@
+package com.rose.solnax.process.adapters.meters;
+
+import com.serotonin.modbus4j.ModbusMaster;
+import com.serotonin.modbus4j.exception.ModbusInitException;
+import com.serotonin.modbus4j.exception.ModbusTransportException;
+import com.serotonin.modbus4j.msg.ReadHoldingRegistersResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ModbusConnectionManagerTest {
+
+    private final List<ModbusMaster> masters = new ArrayList<>();
+    private final List<Boolean> initFails = new ArrayList<>();
+    private long now;
+
+    private final ModbusConnectionManager manager = new ModbusConnectionManager(params -> {
+        ModbusMaster master = mock(ModbusMaster.class);
+        try {
+            if (!initFails.isEmpty() && initFails.remove(0)) doThrow(new ModbusInitException("refused")).when(master).init();
+        } catch (ModbusInitException e) {
+            throw new IllegalStateException(e);
+        }
+        masters.add(master);
+        return master;
+    }, () -> now);
+
+    ModbusConnectionManagerTest() {
+        ReflectionTestUtils.setField(manager, "host", "inverter");
+        ReflectionTestUtils.setField(manager, "port", 1502);
+        ReflectionTestUtils.setField(manager, "slaveId", 1);
+        ReflectionTestUtils.setField(manager, "connectTimeoutMs", 3000);
+        ReflectionTestUtils.setField(manager, "keepAliveInterval", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(manager, "probeOffset", 0);
+        ReflectionTestUtils.setField(manager, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(manager, "maxBackoff", Duration.ofSeconds(4));
+    }
+
+    private static ReadHoldingRegistersResponse data(short... values) {
+        ReadHoldingRegistersResponse response = mock(ReadHoldingRegistersResponse.class);
+        when(response.getShortData()).thenReturn(values);
+        return response;
+    }
+
+    private static ReadHoldingRegistersResponse exceptionResponse() {
+        ReadHoldingRegistersResponse response = mock(ReadHoldingRegistersResponse.class);
+        when(response.isException()).thenReturn(true);
+        when(response.getExceptionMessage()).thenReturn("Illegal data address");
+        return response;
+    }
+
+    private ModbusMaster master() {
+        return masters.get(masters.size() - 1);
+    }
+
+    @Test
+    void shouldKeepTheSessionOnAnExceptionResponseAndDropItOnATransportFailure() throws Exception {
+        manager.init();
+        ReadHoldingRegistersResponse data = data((short) 7, (short) 8);
+        ReadHoldingRegistersResponse rejected = exceptionResponse();
+        when(master().send(any())).thenReturn(data, rejected)
+                .thenThrow(new ModbusTransportException("Connection reset"));
+
+        assertArrayEquals(new short[]{7, 8}, manager.readHoldingRegisters(40083, 2));
+        assertThrows(ModbusConnectionManager.ExceptionResponse.class, () -> manager.readHoldingRegisters(50000, 2));
+        assertTrue(manager.isConnected());
+
+        assertThrows(ModbusTransportException.class, () -> manager.readHoldingRegisters(40083, 2));
+        assertFalse(manager.isConnected());
+        verify(master()).destroy();
+
+        // Down: reads fail at once and never reconnect themselves
+        assertThrows(ModbusTransportException.class, () -> manager.readHoldingRegisters(40083, 2));
+        verify(master(), times(3)).send(any());
+        assertEquals(1, masters.size());
+    }
+
+    @Test
+    void shouldReconnectWithExponentialJitteredBackoffUpToTheMaximum() {
+        initFails.addAll(List.of(true, true, true, true, false));
+        manager.init(); // fails at 0: backoff 1s, the attempt lands in [0.5s, 1s]
+
+        now = 499;
+        manager.maintain();
+        assertEquals(1, masters.size());
+        now = 1000;
+        manager.maintain(); // fails: backoff 2s
+        assertEquals(2, masters.size());
+
+        now = 1999;
+        manager.maintain();
+        assertEquals(2, masters.size());
+        now = 3000;
+        manager.maintain(); // fails: backoff 4s
+        assertEquals(3, masters.size());
+
+        now = 4999;
+        manager.maintain();
+        assertEquals(3, masters.size());
+        now = 7000;
+        manager.maintain(); // fails: capped at 4s
+        assertEquals(4, masters.size());
+
+        now = 8999;
+        manager.maintain();
+        assertEquals(4, masters.size());
+        now = 11_000;
+        manager.maintain();
+        assertEquals(5, masters.size());
+        assertTrue(manager.isConnected());
+    }
+
+    @Test
+    void shouldStartOverWithTheInitialBackoffAfterASuccessfulConnect() throws Exception {
+        initFails.addAll(List.of(true, true, false, false));
+        manager.init();
+        now = 1000;
+        manager.maintain();
+        now = 3000;
+        manager.maintain();
+        assertTrue(manager.isConnected());
+        when(master().send(any())).thenThrow(new ModbusTransportException("Connection reset"));
+
+        assertThrows(ModbusTransportException.class, () -> manager.readHoldingRegisters(40083, 2));
+        now = 3499;
+        manager.maintain();
+        assertFalse(manager.isConnected());
+        now = 4000;
+        manager.maintain();
+        assertTrue(manager.isConnected());
+    }
+
+    @Test
+    void shouldProbeAnIdleSessionAndDropItWhenTheProbeFails() throws Exception {
+        manager.init();
+        ModbusMaster session = master();
+        ReadHoldingRegistersResponse probe = data((short) 1);
+        ReadHoldingRegistersResponse rejected = exceptionResponse();
+        when(session.send(any())).thenReturn(probe, rejected)
+                .thenThrow(new ModbusTransportException("Connection timed out"));
+
+        now = 29_999;
+        manager.maintain();
+        verify(session, never()).send(any());
+
+        now = 30_000;
+        manager.maintain(); // answered
+        now = 60_000;
+        manager.maintain(); // exception response: the device is there
+        assertTrue(manager.isConnected());
+        verify(session, times(2)).send(any());
+
+        now = 90_000;
+        manager.maintain();
+        assertFalse(manager.isConnected());
+        verify(session).destroy();
+    }
+}
@@ -0,0 +1,95 @@
+package com.rose.solnax.process.adapters.meters.shelly;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uses a plain DatagramSocket on loopback as a stand-in for a Shelly EM3 pushing CoIoT status.
+ */
+class ShellyCoIoTListenerTest {
+
+    private ShellyCoIoTListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ShellyEm3Properties props = new ShellyEm3Properties();
+        ShellyEm3Properties.Device charger = new ShellyEm3Properties.Device();
+        charger.setHost("127.0.0.1");
+        props.getDevices().put("charger", charger);
+        props.getCoiot().setEnabled(true);
+        props.getCoiot().setPort(0);
+        props.getCoiot().setQuietAfter(Duration.ofSeconds(30));
+
+        listener = new ShellyCoIoTListener(props);
+        listener.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listener.destroy();
+    }
+
+    @Test
+    void shouldKeepLatestSnapshotPushedByKnownDevice() throws Exception {
+        String payload = "{\"G\":[[0,4105,1200.5],[0,4205,1300],[0,4305,1400],"
+                + "[0,4106,5000],[0,4206,6000],[0,4306,7000],[0,4108,231.2]]}";
+
+        try (DatagramSocket device = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            byte[] message = coapStatus("SHEM-3#AABBCC#2", payload);
+            device.send(new DatagramPacket(message, message.length,
+                    InetAddress.getLoopbackAddress(), listener.getLocalPort()));
+        }
+
+        Optional<ShellyEm3Snapshot> snapshot = Optional.empty();
+        for (int i = 0; i < 50 && snapshot.isEmpty(); i++) {
+            Thread.sleep(20);
+            snapshot = listener.latest("charger");
+        }
+
+        assertTrue(snapshot.isPresent());
+        assertEquals(3900.5, snapshot.get().totalActivePowerW(), 1e-9);
+        assertEquals(18000, snapshot.get().totalEnergyWh(), 1e-9);
+        assertEquals(231.2, snapshot.get().voltageV(0), 1e-9);
+        assertTrue(snapshot.get().allPhasesValid());
+    }
+
+    @Test
+    void shouldIgnoreMessagesThatAreNotCoIoTStatus() throws Exception {
+        byte[] garbage = "not coap".getBytes(StandardCharsets.US_ASCII);
+        listener.handle(InetAddress.getByName("127.0.0.1"), ByteBuffer.wrap(garbage));
+
+        assertTrue(listener.latest("charger").isEmpty());
+    }
+
+    /** CoAP NON message, code 0.30, option 3332 (device info) then the JSON payload. */
+    private static byte[] coapStatus(String deviceInfo, String payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x50);         // version 1, NON, no token
+        out.write(0x1E);         // code 0.30
+        out.write(0x12);
+        out.write(0x34);         // message id
+        byte[] info = deviceInfo.getBytes(StandardCharsets.US_ASCII);
+        int extendedDelta = 3332 - 269;
+        out.write(0xE0 | 0x0D);  // delta: 2 extension bytes, length: 1 extension byte
+        out.write(extendedDelta >> 8);
+        out.write(extendedDelta & 0xFF);
+        out.write(info.length - 13);
+        out.writeBytes(info);
+        out.write(0xFF);         // payload marker
+        out.writeBytes(payload.getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+}
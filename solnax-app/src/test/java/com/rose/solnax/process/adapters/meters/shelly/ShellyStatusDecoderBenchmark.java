@@ -0,0 +1,60 @@
+package com.rose.solnax.process.adapters.meters.shelly;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record binding vs. streaming decode of one /status document. Not a unit test; run with
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath com.rose.solnax.process.adapters.meters.shelly.ShellyStatusDecoderBenchmark"
+ *
+ * Compare {@code gc.alloc.rate.norm} (bytes per decode) as much as the time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShellyStatusDecoderBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ShellyStatusDecoder.Readings readings = new ShellyStatusDecoder.Readings();
+
+    @Benchmark
+    public double binding() throws IOException {
+        ShellyEm3Status status = mapper.readValue(ShellyStatusSamples.STATUS, ShellyEm3Status.class);
+        double sum = 0;
+        for (ShellyEm3Status.EmeterChannel channel : status.emeters()) {
+            if (channel.valid()) sum += channel.powerW();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double streaming() throws IOException {
+        return ShellyStatusDecoder.decode(ShellyStatusSamples.STATUS, readings).totalActivePowerW();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ShellyStatusDecoderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,38 @@
+package com.rose.solnax.process.adapters.meters.shelly;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShellyStatusDecoderTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void shouldDecodeTheSameSnapshotAsTheRecordBinding() throws Exception {
+        ShellyEm3Status status = new ObjectMapper().readValue(ShellyStatusSamples.STATUS, ShellyEm3Status.class);
+        ShellyEm3Snapshot bound = new ShellyEm3Snapshot("heater", now, status.emeters());
+
+        ShellyEm3Snapshot streamed = ShellyStatusDecoder
+                .decode(ShellyStatusSamples.STATUS, new ShellyStatusDecoder.Readings())
+                .toSnapshot("heater", now);
+
+        assertEquals(bound, streamed);
+        assertEquals(922.16, streamed.totalActivePowerW(), 1e-9);
+    }
+
+    @Test
+    void shouldResetTheReusedHolderBetweenDocuments() throws Exception {
+        ShellyStatusDecoder.Readings readings = new ShellyStatusDecoder.Readings();
+        ShellyStatusDecoder.decode(ShellyStatusSamples.STATUS, readings);
+
+        ShellyStatusDecoder.decode("{\"emeters\":[{\"power\":5,\"is_valid\":true}]}".getBytes(), readings);
+
+        assertEquals(1, readings.count());
+        assertEquals(5.0, readings.totalActivePowerW());
+    }
+}
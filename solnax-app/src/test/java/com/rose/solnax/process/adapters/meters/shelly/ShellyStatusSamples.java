@@ -0,0 +1,30 @@
+package com.rose.solnax.process.adapters.meters.shelly;
+
+import java.nio.charset.StandardCharsets;
+
+/** A full Shelly 3EM /status document (firmware 1.14), shared by the decoder test and benchmark. */
+final class ShellyStatusSamples {
+
+    static final byte[] STATUS = ("""
+            {"wifi_sta":{"connected":true,"ssid":"solnax","ip":"192.168.0.101","rssi":-61},
+             "cloud":{"enabled":false,"connected":false},"mqtt":{"connected":false},
+             "time":"12:04","unixtime":1760695440,"serial":4123,"has_update":false,
+             "mac":"C45BBE5F21A0","cfg_changed_cnt":2,
+             "actions_stats":{"skipped":0},
+             "relays":[{"ison":false,"has_timer":false,"timer_started":0,"timer_duration":0,
+                        "timer_remaining":0,"overpower":false,"is_valid":true,"source":"input"}],
+             "emeters":[
+               {"power":1234.56,"pf":0.97,"current":5.39,"voltage":231.12,"is_valid":true,
+                "total":1520345.2,"total_returned":10234.9},
+               {"power":-312.4,"pf":-0.82,"current":1.77,"voltage":229.80,"is_valid":true,
+                "total":887123.0,"total_returned":50211.3},
+               {"power":0,"pf":0,"current":0,"voltage":0,"is_valid":false,
+                "total":0,"total_returned":0}],
+             "total_power":922.16,"emeter_n":{"current":0.31,"ixsum":4.12,"mismatch":false,"is_valid":true},
+             "fs_mounted":true,"v_data":1,"ct_calst":0,
+             "update":{"status":"idle","has_update":false,"new_version":"","old_version":"20230913-114244/v1.14.0-gcb84623"},
+             "ram_total":49920,"ram_free":30528,"fs_size":233681,"fs_free":155367,"uptime":1234567}
+            """).getBytes(StandardCharsets.UTF_8);
+
+    private ShellyStatusSamples() {}
+}
@@ -0,0 +1,60 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SunSpecBlockReaderTest {
+
+    private final SunSpecPoint acPower = new SunSpecPoint("inverter.W", 83, 84, SunSpecType.INT16);
+    private final SunSpecPoint acEnergy = new SunSpecPoint("inverter.WH", 93, 95, SunSpecType.ACC32);
+    private final SunSpecPoint gridPower = new SunSpecPoint("meter.W", 206, 210, SunSpecType.INT16);
+    private final SunSpecPoint gridImported = new SunSpecPoint("meter.TotWhImp", 234, 242, SunSpecType.ACC32);
+
+    @Test
+    void shouldMergePointsIntoAsFewReadsAsTheRegisterLimitAllows() {
+        SunSpecBlockReader reader = new SunSpecBlockReader(List.of(gridImported, acPower, gridPower, acEnergy));
+
+        // 83..242 spans 160 registers, more than one read may return
+        assertEquals(List.of(
+                new SunSpecBlockReader.Block(83, 13),
+                new SunSpecBlockReader.Block(206, 37)
+        ), reader.blocks());
+
+        SunSpecBlockReader close = new SunSpecBlockReader(List.of(acPower, acEnergy));
+        assertEquals(List.of(new SunSpecBlockReader.Block(83, 13)), close.blocks());
+    }
+
+    @Test
+    void shouldDecodeScaledValuesFromOneRegisterImage() throws Exception {
+        SunSpecBlockReader reader = new SunSpecBlockReader(List.of(acPower, acEnergy, gridPower, gridImported));
+        short[] device = new short[300];
+        device[83] = 4321;           // W
+        device[84] = 0;              // W_SF
+        device[93] = 0x0001;         // WH hi
+        device[94] = (short) 0x86A0; // WH lo -> 100000
+        device[95] = 1;              // WH_SF
+        device[206] = -25;           // meter W
+        device[210] = 2;             // meter W_SF
+        device[234] = 0;
+        device[235] = 12345;
+        device[242] = -1;
+
+        List<Integer> reads = new ArrayList<>();
+        SunSpecRegisters registers = reader.read((offset, count) -> {
+            reads.add(offset);
+            short[] block = new short[count];
+            System.arraycopy(device, offset, block, 0, count);
+            return block;
+        });
+
+        assertEquals(2, reads.size());
+        assertEquals(4321, registers.intValue(acPower));
+        assertEquals(1_000_000L, registers.longValue(acEnergy));
+        assertEquals(-2500, registers.intValue(gridPower));
+        assertEquals(1235L, registers.longValue(gridImported));
+    }
+}
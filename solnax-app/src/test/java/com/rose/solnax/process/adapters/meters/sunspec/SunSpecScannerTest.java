@@ -0,0 +1,61 @@
+package com.rose.solnax.process.adapters.meters.sunspec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SunSpecScannerTest {
+
+    /** Base-0 device: common model, one inverter, two meters, end marker. */
+    private final short[] device = new short[400];
+
+    private SunSpecBlockReader.BlockSource source() {
+        return (offset, count) -> {
+            if (offset + count > device.length) throw new IllegalArgumentException("Illegal address " + offset);
+            return Arrays.copyOfRange(device, offset, offset + count);
+        };
+    }
+
+    private int model(int offset, int id, int length) {
+        device[offset] = (short) id;
+        device[offset + 1] = (short) length;
+        return offset + 2 + length;
+    }
+
+    @Test
+    void shouldWalkTheModelChainAndNameEveryInstance() throws Exception {
+        device[0] = 0x5375;
+        device[1] = 0x6E53;
+        int next = model(2, 1, 65);
+        next = model(next, 103, 50);
+        next = model(next, 203, 105);
+        next = model(next, 203, 105);
+        device[next] = (short) 0xFFFF;
+
+        SunSpecRegisterMap map = SunSpecScanner.scan(source(), SunSpecScanner.BASE_ADDRESSES);
+
+        assertEquals(List.of(
+                new SunSpecModel(1, 0, 2, 65),
+                new SunSpecModel(103, 0, 69, 50),
+                new SunSpecModel(203, 0, 121, 105),
+                new SunSpecModel(203, 1, 228, 105)
+        ), map.models());
+        // Inverter W lands where the configured default (83) pointed
+        assertEquals(83, map.point("inverter.W").offset());
+        assertEquals(map.point("meter.W"), new SunSpecPoint("meter.W", 139, 143, SunSpecType.INT16));
+        assertEquals(246, map.point("meter[1].W").offset());
+        assertFalse(map.find("inverter[1].W").isPresent());
+        assertThrows(IllegalArgumentException.class, () -> map.point("storage.ChaState"));
+    }
+
+    @Test
+    void shouldFailWhenNoBaseCarriesTheMarker() {
+        assertThrows(IllegalStateException.class,
+                () -> SunSpecScanner.scan(source(), SunSpecScanner.BASE_ADDRESSES));
+    }
+}
@@ -0,0 +1,79 @@
+package com.rose.solnax.process.backfill;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportLineParserTest {
+
+    private static final Predicate<String> KNOWN = Set.of("solar", "grid", "kitchen")::contains;
+
+    private final ImportLineParser.Values values = new ImportLineParser.Values();
+
+    @Test
+    void shouldReadSemicolonSeparatedCsvWithRenamedAndSkippedColumns() {
+        ImportLineParser parser = ImportLineParser.create(ImportFormat.CSV,
+                "\"Time\";\"Production (W)\";\"Consumption (W)\";Unit",
+                BackfillImporter.renames(List.of("Production (W):solar", "Consumption (W):grid", "Unit:-")), KNOWN);
+
+        assertTrue(parser.parse("2023-04-01 12:15:00;\"2345.6\";;W", values));
+
+        assertEquals(LocalDateTime.of(2023, 4, 1, 12, 15), values.time);
+        assertEquals(List.of("solar"), values.channels);
+        assertEquals(2345.6, values.values[0]);
+        assertFalse(parser.parse("  ", values));
+    }
+
+    @Test
+    void shouldRejectMalformedCsvLines() {
+        ImportLineParser parser = ImportLineParser.create(ImportFormat.CSV, "time,solar", Map.of(), KNOWN);
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2023-04-01T12:15,1,2", values));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("yesterday,1", values));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2023-04-01T12:15,n/a", values));
+    }
+
+    @Test
+    void shouldRejectColumnsAndFieldsThatAreNoKnownChannel() {
+        assertThrows(IllegalArgumentException.class, () -> ImportLineParser.create(ImportFormat.CSV,
+                "Time,Production,Consumption", Map.of("Production", "solar"), KNOWN));
+        ImportLineParser csv = ImportLineParser.create(ImportFormat.CSV, "Time,Production,Consumption",
+                Map.of("Production", "solar", "Consumption", "-"), KNOWN);
+        assertTrue(csv.parse("2023-04-01T12:15,100,250", values));
+        assertEquals(List.of("solar"), values.channels);
+
+        ImportLineParser ndjson = ImportLineParser.create(ImportFormat.NDJSON, null, Map.of(), KNOWN);
+        assertThrows(IllegalArgumentException.class, () -> ndjson.parse("{\"time\":1680351300,\"solra\":5}", values));
+        assertTrue(ndjson.parse("{\"time\":1680351300,\"solar\":5}", values));
+    }
+
+    @Test
+    void shouldReadNdJsonAndIgnoreNonNumericFields() {
+        ImportLineParser parser = ImportLineParser.create(ImportFormat.NDJSON, null, Map.of("em3", "kitchen"), KNOWN);
+
+        assertTrue(parser.parse("{\"time\":1680351300,\"em3\":-120,\"unit\":\"W\",\"meta\":{\"fw\":1},\"solar\":null}", values));
+
+        assertEquals(LocalDateTime.ofInstant(java.time.Instant.ofEpochSecond(1680351300), ZoneId.systemDefault()), values.time);
+        assertEquals(List.of("kitchen"), values.channels);
+        assertEquals(-120, values.values[0]);
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("{\"solar\":1}", values));
+    }
+
+    @Test
+    void shouldConvertTimesWithOffsetToLocalTime() {
+        LocalDateTime expected = java.time.OffsetDateTime.parse("2023-07-01T10:00:00Z")
+                .atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        assertEquals(expected, ImportLineParser.parseTime("2023-07-01T10:00:00Z"));
+        assertEquals(LocalDateTime.of(2023, 7, 1, 10, 0), ImportLineParser.parseTime("2023-07-01T10:00"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.rose.solnax.process.channels;
+
+import com.rose.solnax.model.entity.Channel;
+import com.rose.solnax.model.repository.ChannelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChannelRegistryTest {
+
+    private final ChannelRepository repository = mock(ChannelRepository.class);
+    private final ChannelRegistry registry = new ChannelRegistry(repository);
+
+    ChannelRegistryTest() {
+        when(repository.findAll()).thenReturn(List.of(channel(1, "grid")));
+        registry.init();
+    }
+
+    private static Channel channel(int id, String name) {
+        return Channel.builder().id(id).name(name).unit("W").build();
+    }
+
+    @Test
+    void shouldQueueUnknownChannelsWithoutTouchingTheDatabase() {
+        assertEquals(Optional.of(1), registry.findIdOrQueue("grid"));
+        assertTrue(registry.findIdOrQueue("sauna").isEmpty());
+
+        verify(repository, never()).findByName(anyString());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldRegisterQueuedChannelsAndKeepThemQueuedWhileTheDatabaseFails() {
+        registry.findIdOrQueue("sauna");
+        when(repository.findByName("sauna")).thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(Optional.empty());
+        when(repository.save(any())).thenReturn(channel(7, "sauna"));
+
+        assertThrows(DataAccessResourceFailureException.class, registry::registerPending);
+        assertTrue(registry.findId("sauna").isEmpty());
+
+        registry.registerPending();
+        assertEquals(Optional.of(7), registry.findIdOrQueue("sauna"));
+        assertEquals("sauna", registry.nameOf(7));
+    }
+
+    @Test
+    void shouldRegisterConfiguredChannelsAtStartupAndQueueFailures() {
+        when(repository.findByName("solar")).thenReturn(Optional.of(channel(2, "solar")));
+        when(repository.findByName("heater")).thenThrow(new DataAccessResourceFailureException("down"));
+
+        registry.registerAll(List.of("grid", "solar", "heater"));
+
+        assertEquals(Optional.of(2), registry.findId("solar"));
+        assertTrue(registry.findId("heater").isEmpty());
+        doReturn(Optional.of(channel(3, "heater"))).when(repository).findByName("heater");
+        registry.registerPending();
+        assertEquals(Optional.of(3), registry.findId("heater"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.rose.solnax.process.channels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnergyFlowFormulaTest {
+
+    private final Map<String, Double> stored = Map.of(
+            "solar", 3000.0, "grid", -500.0, "charger", 1200.0, "kitchen", 150.0, "heater", 0.0);
+
+    @Test
+    void shouldEvaluateTheHouseBalance() {
+        EnergyFlowFormula house = EnergyFlowFormula.parse("max(0, solar + grid - charger - kitchen - heater)");
+
+        assertEquals(1150.0, house.evaluate(stored::get));
+        assertEquals(Set.of("solar", "grid", "charger", "kitchen", "heater"), house.channels());
+    }
+
+    @Test
+    void shouldRespectPrecedenceAndUnaryMinus() {
+        assertEquals(-7.0, EnergyFlowFormula.parse("-(1 + 2 * 3)").evaluate(c -> 0));
+        assertEquals(500.0, EnergyFlowFormula.parse("abs(grid)").evaluate(stored::get));
+        assertEquals(0.0, EnergyFlowFormula.parse("max(0, -charger)").evaluate(stored::get));
+    }
+
+    @Test
+    void shouldRejectMalformedFormulas() {
+        assertThrows(IllegalArgumentException.class, () -> EnergyFlowFormula.parse("solar +"));
+        assertThrows(IllegalArgumentException.class, () -> EnergyFlowFormula.parse("max(solar"));
+        assertThrows(IllegalArgumentException.class, () -> EnergyFlowFormula.parse("sqrt(solar)"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.rose.solnax.process.energy;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Client;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Registry;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Snapshot;
+import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status.EmeterChannel;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChargeSessionEnergyTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final int GRID = 1;
+    private static final int CHARGER = 5;
+
+    private final MeasurementRepository measurementRepository = mock(MeasurementRepository.class);
+    private final ChannelRegistry channelRegistry = mock(ChannelRegistry.class);
+    private final ChargeSessionEnergy energy = new ChargeSessionEnergy(mock(ShellyEm3Registry.class),
+            measurementRepository, channelRegistry, "charger", Duration.ofMinutes(15));
+
+    ChargeSessionEnergyTest() {
+        when(channelRegistry.nameOf(GRID)).thenReturn("grid");
+        when(channelRegistry.nameOf(CHARGER)).thenReturn("charger");
+    }
+
+    /** One hour charging at 4000 W: the first half importing 1000 W, the second half exporting. */
+    private void charging() {
+        List<MeasurementRepository.Row> rows = new ArrayList<>();
+        for (int i = 0; i <= 12; i++) {
+            LocalDateTime time = START.plusMinutes(5L * i);
+            rows.add(new MeasurementRepository.Row(time, GRID, i <= 6 ? 1000 : -500));
+            rows.add(new MeasurementRepository.Row(time, CHARGER, 4000));
+        }
+        when(measurementRepository.findBetween(any(), any())).thenReturn(rows);
+    }
+
+    @Test
+    void shouldSplitIntegratedChargerPowerWithoutCounters() {
+        charging();
+
+        ChargeSessionEnergy.Split split = energy.measure(START, START.plusHours(1), null, null);
+
+        assertFalse(split.metered());
+        assertEquals(4.0, split.totalKwh(), 1e-9);
+        // 1000 W from the grid for 30 min, then ramping to 0 over the next 5
+        assertEquals(0.5 + 0.5 / 12, split.gridKwh(), 1e-9);
+        assertEquals(4.0 - split.gridKwh(), split.solarKwh(), 1e-9);
+    }
+
+    @Test
+    void shouldApplyTheSplitToTheMeteredTotal() {
+        charging();
+        ChargeSessionEnergy.Split integrated = energy.measure(START, START.plusHours(1), null, null);
+
+        ChargeSessionEnergy.Split split = energy.measure(START, START.plusHours(1), 10_000.0, 13_600.0);
+
+        assertTrue(split.metered());
+        assertEquals(3.6, split.totalKwh(), 1e-9);
+        assertEquals(3.6 * integrated.gridKwh() / integrated.totalKwh(), split.gridKwh(), 1e-9);
+        assertEquals(3.6, split.solarKwh() + split.gridKwh(), 1e-9);
+    }
+
+    @Test
+    void shouldNotTrustAMeteredTotalFarAboveTheIntegratedEnergy() {
+        charging();
+
+        // A phase's lifetime counter missing from the start reading
+        ChargeSessionEnergy.Split split = energy.measure(START, START.plusHours(1), 10_000.0, 250_000.0);
+
+        assertFalse(split.metered());
+        assertEquals(4.0, split.totalKwh(), 1e-9);
+    }
+
+    @Test
+    void shouldNotReadTheCounterWithAnInvalidPhase() {
+        ShellyEm3Registry registry = mock(ShellyEm3Registry.class);
+        ShellyEm3Client client = mock(ShellyEm3Client.class);
+        when(registry.contains("charger")).thenReturn(true);
+        when(registry.get("charger")).thenReturn(client);
+        ChargeSessionEnergy meter = new ChargeSessionEnergy(registry, measurementRepository, channelRegistry,
+                "charger", Duration.ofMinutes(15));
+
+        when(client.getSnapshot()).thenReturn(snapshot(true, false, true));
+        assertNull(meter.readMeterWh());
+        when(client.getSnapshot()).thenReturn(snapshot(true, true, true));
+        assertEquals(120_000.0, meter.readMeterWh());
+    }
+
+    private static ShellyEm3Snapshot snapshot(boolean... valid) {
+        List<EmeterChannel> phases = new ArrayList<>();
+        for (boolean v : valid) phases.add(new EmeterChannel(v, 0, 1, 0, 230, 0, 40_000, 0));
+        return new ShellyEm3Snapshot("charger", START, phases);
+    }
+
+    @Test
+    void shouldIgnoreACounterThatWentBackwards() {
+        when(measurementRepository.findBetween(any(), any())).thenReturn(List.of());
+
+        assertNull(energy.measure(START, START.plusHours(1), 13_600.0, 20.0));
+    }
+}
@@ -0,0 +1,103 @@
+package com.rose.solnax.process.energy;
+
+import com.rose.solnax.model.repository.DailyEnergyRepository;
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.RollupRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.channels.EnergyFlow;
+import com.rose.solnax.process.channels.EnergyFlowProperties;
+import com.rose.solnax.process.storage.MeasurementsChanged;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DailyEnergyManagerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+
+    private final MeasurementRepository measurementRepository = mock(MeasurementRepository.class);
+    private final RollupRepository rollupRepository = mock(RollupRepository.class);
+    private final ChannelRegistry channelRegistry = mock(ChannelRegistry.class);
+    private final DailyEnergyManager manager;
+
+    DailyEnergyManagerTest() {
+        EnergyFlowProperties props = new EnergyFlowProperties();
+        props.setDerived(Map.of("house", "max(0, solar + grid)"));
+        manager = new DailyEnergyManager(measurementRepository, rollupRepository, mock(DailyEnergyRepository.class),
+                channelRegistry, new EnergyFlow(props), mock(PlatformTransactionManager.class), Duration.ofMinutes(15));
+        when(channelRegistry.nameOf(1)).thenReturn("grid");
+        when(channelRegistry.nameOf(2)).thenReturn("solar");
+    }
+
+    @Test
+    void shouldIntegrateStoredAndDerivedChannelsOverTheDay() {
+        // Solar 1200 W all day, the grid exporting 200 W of it
+        List<MeasurementRepository.Row> rows = new ArrayList<>();
+        for (LocalDateTime t = DAY.atStartOfDay().minusMinutes(15); !t.isAfter(DAY.plusDays(1).atStartOfDay().plusMinutes(15)); t = t.plusMinutes(5)) {
+            rows.add(new MeasurementRepository.Row(t, 1, -200));
+            rows.add(new MeasurementRepository.Row(t, 2, 1200));
+        }
+        when(measurementRepository.findBetween(any(), any())).thenReturn(rows);
+
+        List<DailyEnergyRepository.Row> energy = manager.integrateDay(DAY);
+
+        assertEquals(List.of(
+                new DailyEnergyRepository.Row(DAY, "grid", 0, 4800, 86_400),
+                new DailyEnergyRepository.Row(DAY, "solar", 28_800, 0, 86_400),
+                new DailyEnergyRepository.Row(DAY, "house", 24_000, 0, 86_400)), energy);
+    }
+
+    @Test
+    void shouldMoveTheWatermarkBackForLateMeasurements() {
+        when(rollupRepository.watermark(DailyEnergyManager.WATERMARK)).thenReturn(Optional.of(DAY.atStartOfDay()));
+
+        manager.onMeasurementsChanged(new MeasurementsChanged(DAY.atTime(0, 5), DAY.atTime(1, 0)));
+        verify(rollupRepository, never()).setWatermark(any(), any());
+
+        manager.onMeasurementsChanged(new MeasurementsChanged(DAY.minusDays(3).atTime(12, 0), DAY.atTime(1, 0)));
+        verify(rollupRepository).setWatermark(DailyEnergyManager.WATERMARK, DAY.minusDays(3).atStartOfDay());
+    }
+
+    @Test
+    void shouldRecordLateMeasurementsDuringARunWithoutWaitingAndIntegrateThemInThatRun() throws InterruptedException {
+        LocalDate today = LocalDate.now();
+        LocalDate late = today.minusDays(5);
+        when(rollupRepository.watermark(DailyEnergyManager.WATERMARK)).thenReturn(Optional.of(today.minusDays(1).atStartOfDay()));
+        Thread[] writer = new Thread[1];
+        when(measurementRepository.findBetween(any(), any())).thenAnswer(invocation -> {
+            if (writer[0] == null) {
+                writer[0] = new Thread(() -> manager.onMeasurementsChanged(
+                        new MeasurementsChanged(late.atTime(12, 0), late.atTime(13, 0))));
+                writer[0].start();
+                writer[0].join(2000);
+            }
+            return List.of();
+        });
+
+        manager.integrate();
+
+        assertFalse(writer[0].isAlive());
+        verify(rollupRepository).setWatermark(DailyEnergyManager.WATERMARK, late.atStartOfDay());
+        // Yesterday, then again from the late day up to today
+        verify(measurementRepository, times(2)).findBetween(today.minusDays(1).atStartOfDay().minusMinutes(15),
+                today.atStartOfDay().plusMinutes(15));
+        verify(measurementRepository).findBetween(late.atStartOfDay().minusMinutes(15),
+                late.plusDays(1).atStartOfDay().plusMinutes(15));
+    }
+}
@@ -0,0 +1,130 @@
+package com.rose.solnax.process.energy;
+
+import com.rose.solnax.model.dto.EnergyBalanceDTO;
+import com.rose.solnax.model.entity.EnergyBalance;
+import com.rose.solnax.model.entity.PowerLog;
+import com.rose.solnax.model.entity.enums.BalancePeriod;
+import com.rose.solnax.model.repository.EnergyBalanceRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnergyBalanceTrackerTest {
+
+    private final EnergyBalanceRepository repository = mock(EnergyBalanceRepository.class);
+    private final EnergyBalanceTracker tracker = new EnergyBalanceTracker(repository, Duration.ofMinutes(15));
+
+    private static PowerLog log(LocalDateTime time, int solar, int grid) {
+        return PowerLog.builder().time(time).solar(solar).house(grid).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, EnergyBalance> persisted() {
+        ArgumentCaptor<List<EnergyBalance>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(rows.capture());
+        return rows.getValue().stream().collect(Collectors.toMap(EnergyBalance::getId, Function.identity()));
+    }
+
+    @Test
+    void shouldKeepRatiosOfTheRunningDay() {
+        LocalDateTime now = LocalDate.now().atStartOfDay().plusHours(12);
+        // 1 h of 2000 W solar exporting 500 W: 1500 Wh used on site out of 2000 Wh
+        for (int i = 0; i <= 12; i++) tracker.accept(log(now.plusMinutes(5L * i), 2000, -500));
+
+        EnergyBalanceDTO day = tracker.current(BalancePeriod.DAY);
+        assertEquals(2000, day.getSolarWh());
+        assertEquals(500, day.getExportWh());
+        assertEquals(1500, day.getConsumptionWh());
+        assertEquals(0.75, day.getSelfConsumption(), 1e-9);
+        assertEquals(1.0, day.getAutarky(), 1e-9);
+        assertEquals(1.0, day.getCoveredHours(), 1e-9);
+        assertEquals(2000, tracker.current(BalancePeriod.MONTH).getSolarWh());
+    }
+
+    @Test
+    void shouldCloseTheDayAtMidnightAndSplitTheInterval() {
+        LocalDate sunday = LocalDate.of(2025, 6, 1);
+        LocalDateTime midnight = sunday.plusDays(1).atStartOfDay();
+        tracker.accept(log(midnight.minusMinutes(5), 0, 600));
+        tracker.accept(log(midnight.plusMinutes(5), 0, 600));
+        tracker.persist();
+
+        Map<String, EnergyBalance> rows = persisted();
+        EnergyBalance sundayRow = rows.get(EnergyBalance.idOf(BalancePeriod.DAY, sunday));
+        assertTrue(sundayRow.isClosed());
+        assertEquals(50, sundayRow.getImportWh(), 1e-9);
+        EnergyBalance mondayRow = rows.get(EnergyBalance.idOf(BalancePeriod.DAY, sunday.plusDays(1)));
+        assertFalse(mondayRow.isClosed());
+        assertEquals(50, mondayRow.getImportWh(), 1e-9);
+        // The week starting Monday opens as well; June stays open
+        assertTrue(rows.get(EnergyBalance.idOf(BalancePeriod.WEEK, sunday.minusDays(6))).isClosed());
+        assertEquals(100, rows.get(EnergyBalance.idOf(BalancePeriod.MONTH, sunday)).getImportWh(), 1e-9);
+    }
+
+    @Test
+    void shouldAddStoredTotalsToPeriodsOpenedWhileTheDatabaseWasDown() {
+        LocalDate today = LocalDate.now();
+        EnergyBalance stored = EnergyBalance.builder()
+                .id(EnergyBalance.idOf(BalancePeriod.DAY, today)).period(BalancePeriod.DAY).start(today)
+                .solarWh(1000).coveredSeconds(3600).build();
+        when(repository.findByClosedFalse()).thenThrow(new IllegalStateException("database down")).thenReturn(List.of(stored));
+        tracker.restore();
+        LocalDateTime noon = today.atStartOfDay().plusHours(12);
+        tracker.accept(log(noon, 1200, 0));
+        tracker.accept(log(noon.plusMinutes(15), 1200, 0));
+
+        tracker.persist();
+
+        EnergyBalance day = persisted().get(stored.getId());
+        assertEquals(1300, day.getSolarWh(), 1e-9);
+        assertEquals(3600 + 900, day.getCoveredSeconds());
+        assertFalse(day.isClosed());
+    }
+
+    @Test
+    void shouldCloseStoredPeriodsThatEndedDuringARestart() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(repository.findByClosedFalse()).thenReturn(List.of(EnergyBalance.builder()
+                .id(EnergyBalance.idOf(BalancePeriod.DAY, yesterday)).period(BalancePeriod.DAY).start(yesterday)
+                .solarWh(5000).build()));
+        tracker.restore();
+
+        tracker.persist();
+
+        EnergyBalance day = persisted().get(EnergyBalance.idOf(BalancePeriod.DAY, yesterday));
+        assertTrue(day.isClosed());
+        assertEquals(5000, day.getSolarWh(), 1e-9);
+        assertEquals(0, tracker.current(BalancePeriod.DAY).getSolarWh());
+    }
+
+    @Test
+    void shouldNotIntegrateAcrossGapsOrStaleIntervals() {
+        LocalDateTime now = LocalDate.now().atStartOfDay().plusHours(12);
+        tracker.accept(log(now, 1000, 0));
+        tracker.accept(log(now.plusMinutes(30), 1000, 0));
+        PowerLog stale = log(now.plusMinutes(35), 1000, 0);
+        stale.setStale(true);
+        tracker.accept(stale);
+        tracker.accept(log(now.plusMinutes(40), 1000, 0));
+
+        EnergyBalanceDTO day = tracker.current(BalancePeriod.DAY);
+        assertEquals(0, day.getSolarWh());
+        assertEquals(0, day.getCoveredHours(), 1e-9);
+        assertNull(day.getSelfConsumption());
+    }
+}
@@ -0,0 +1,33 @@
+package com.rose.solnax.process.energy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EnergyIntegralTest {
+
+    @Test
+    void shouldIntegrateTrapezoidsAndSplitAtZeroCrossings() {
+        // 1 h at 1000 W, then a ramp to -1000 W over 1 h crossing zero half way
+        long[] times = {0, 3600, 7200};
+        double[] values = {1000, 1000, -1000};
+
+        EnergyIntegral integral = EnergyIntegral.of(times, values, 3, 0, 7200, 3600);
+
+        assertEquals(1250, integral.positiveWh());
+        assertEquals(250, integral.negativeWh());
+        assertEquals(7200, integral.coveredSeconds());
+    }
+
+    @Test
+    void shouldSkipGapsAndCutAtTheWindowEdges() {
+        long[] times = {-300, 300, 600, 4200};
+        double[] values = {0, 1200, 1200, 1200};
+
+        // [-300, 300] is cut at 0 (value 600 there), [600, 4200] is a gap longer than 15 minutes
+        EnergyIntegral integral = EnergyIntegral.of(times, values, 4, 0, 86_400, 900);
+
+        assertEquals(Math.round((600 + 1200) / 2.0 * 300 / 3600 + 1200 * 300 / 3600.0), integral.positiveWh());
+        assertEquals(600, integral.coveredSeconds());
+    }
+}
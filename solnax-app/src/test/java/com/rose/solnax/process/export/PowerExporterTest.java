@@ -0,0 +1,107 @@
+package com.rose.solnax.process.export;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import com.rose.solnax.process.channels.EnergyFlow;
+import com.rose.solnax.process.channels.EnergyFlowProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PowerExporterTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private final MeasurementRepository repository = mock(MeasurementRepository.class);
+    private final ChannelRegistry registry = mock(ChannelRegistry.class);
+    private PowerExporter exporter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        EnergyFlowProperties props = new EnergyFlowProperties();
+        props.setDerived(Map.of("house", "solar + grid"));
+        exporter = new PowerExporter(repository, registry, new EnergyFlow(props));
+
+        when(registry.names()).thenReturn(List.of("solar", "grid"));
+        when(registry.findId("solar")).thenReturn(Optional.of(1));
+        when(registry.findId("grid")).thenReturn(Optional.of(2));
+        when(registry.nameOf(1)).thenReturn("solar");
+        when(registry.nameOf(2)).thenReturn("grid");
+        doAnswer(inv -> {
+            Consumer<MeasurementRepository.Row> consumer = inv.getArgument(4);
+            consumer.accept(new MeasurementRepository.Row(T, 1, 3000));
+            consumer.accept(new MeasurementRepository.Row(T, 2, -1200));
+            consumer.accept(new MeasurementRepository.Row(T.plusMinutes(5), 1, 2900));
+            consumer.accept(new MeasurementRepository.Row(T.plusMinutes(5), 2, null));
+            return null;
+        }).when(repository).stream(any(), any(), anyCollection(), anyInt(), any(Consumer.class));
+    }
+
+    @Test
+    void shouldWriteOneCsvLinePerInterval() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long intervals = exporter.export(T, T.plusHours(1), exporter.columns(List.of()), ExportFormat.CSV, out);
+
+        assertEquals(2, intervals);
+        assertEquals("""
+                time,grid,solar,house
+                2025-06-01T12:00:00,-1200,3000,1800
+                2025-06-01T12:05:00,,2900,2900
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldWriteColumnBlocks() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(T, T.plusHours(1), exporter.columns(List.of("grid", "solar")), ExportFormat.BINARY, out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(ColumnarExportSink.MAGIC, in.readNBytes(4));
+        assertEquals(ColumnarExportSink.VERSION, in.readByte());
+        assertEquals(2, in.readShort());
+        assertEquals("grid", in.readUTF());
+        assertEquals("solar", in.readUTF());
+
+        assertEquals(2, in.readInt());
+        assertEquals(T.toEpochSecond(ZoneOffset.UTC), in.readLong());
+        assertEquals(300, in.readInt());
+        assertEquals(0b01, in.readByte());             // grid: only the first interval has a value
+        assertEquals(-1200, in.readInt());
+        assertEquals(0, in.readInt());
+        assertEquals(0b11, in.readByte());
+        assertEquals(3000, in.readInt());
+        assertEquals(2900, in.readInt());
+        assertEquals(0, in.readInt());                  // end of stream
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void shouldRejectUnknownChannels() {
+        when(registry.findId("pool")).thenReturn(Optional.empty());
+        assertThrows(IllegalArgumentException.class, () -> exporter.columns(List.of("solar", "pool")));
+    }
+}
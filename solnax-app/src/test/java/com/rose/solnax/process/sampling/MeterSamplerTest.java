@@ -0,0 +1,120 @@
+package com.rose.solnax.process.sampling;
+
+import com.rose.solnax.process.adapters.meters.IPowerMeter;
+import com.rose.solnax.process.adapters.meters.InverterSnapshot;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyCoIoTListener;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Client;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Exception;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Registry;
+import com.rose.solnax.process.adapters.meters.shelly.ShellyEm3Snapshot;
+import com.rose.solnax.process.adapters.meters.shelly.dto.ShellyEm3Status.EmeterChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeterSamplerTest {
+
+    @Mock
+    private IPowerMeter inverter;
+
+    @Mock
+    private ShellyEm3Registry registry;
+
+    @Mock
+    private ShellyCoIoTListener coIoTListener;
+
+    @Mock
+    private ShellyEm3Client heater;
+
+    @Mock
+    private ShellyEm3Client charger;
+
+    private MeterSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, ShellyEm3Client> clients = new LinkedHashMap<>();
+        clients.put("heater", heater);
+        clients.put("charger", charger);
+        when(registry.getAll()).thenReturn(clients);
+        when(registry.getDeviceIds()).thenReturn(Set.of("heater", "charger"));
+
+        lenient().when(coIoTListener.latest(anyString())).thenReturn(Optional.empty());
+
+        sampler = new MeterSampler(inverter, registry, coIoTListener);
+        ReflectionTestUtils.setField(sampler, "deadline", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(sampler, "staleAfter", Duration.ofMinutes(15));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampler.destroy();
+    }
+
+    @Test
+    void shouldFinishWithinDeadlineAndMarkSlowDeviceMissing() throws Exception {
+        when(inverter.snapshot()).thenReturn(inverter(-1200, 3000));
+        when(heater.getSnapshot()).thenReturn(snapshot("heater", -800));
+        when(charger.getSnapshot()).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return snapshot("charger", 4000);
+        });
+
+        long started = System.nanoTime();
+        MeterSample sample = sampler.sample();
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+        assertTrue(elapsedMs < 1500, "sample took " + elapsedMs + "ms");
+        assertEquals(-1200, sample.valueOr(MeterSampler.GRID, 0));
+        assertEquals(3000, sample.valueOr(MeterSampler.SOLAR, 0));
+        assertEquals(-800, sample.valueOr("heater", 0));
+        assertEquals(ChannelQuality.MISSING, sample.get("charger").quality());
+        assertTrue(sample.snapshot("heater").isPresent());
+        assertTrue(sample.snapshot("charger").isEmpty());
+    }
+
+    @Test
+    void shouldServeLastKnownValueAsStaleWhenDeviceFails() {
+        when(inverter.snapshot()).thenReturn(inverter(0, 0));
+        when(heater.getSnapshot()).thenReturn(snapshot("heater", -800));
+        when(charger.getSnapshot())
+                .thenReturn(snapshot("charger", 4000))
+                .thenThrow(new ShellyEm3Exception("charger: HTTP call failed"));
+
+        sampler.sample();
+        MeterSample second = sampler.sample();
+
+        assertEquals(ChannelQuality.STALE, second.get("charger").quality());
+        assertEquals(4000, second.valueOr("charger", 0));
+        assertTrue(second.isFresh("heater"));
+        assertEquals(List.of("charger"), second.degradedChannels());
+    }
+
+    private InverterSnapshot inverter(int gridW, int solarW) {
+        return new InverterSnapshot(LocalDateTime.now(), solarW, 0, 230, 50, gridW, 0, 0, false);
+    }
+
+    private ShellyEm3Snapshot snapshot(String deviceId, double totalPowerW) {
+        EmeterChannel phase = new EmeterChannel(true, totalPowerW / 3, 1, 0, 230, 0, 0, 0);
+        return new ShellyEm3Snapshot(deviceId, LocalDateTime.now(), List.of(phase, phase, phase));
+    }
+}
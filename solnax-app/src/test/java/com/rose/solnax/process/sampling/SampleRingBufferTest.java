@@ -0,0 +1,46 @@
+package com.rose.solnax.process.sampling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SampleRingBufferTest {
+
+    @Test
+    void shouldRollUpOnlyTheRequestedWindowAndSkipMissingValues() {
+        SampleRingBuffer buffer = new SampleRingBuffer(List.of("grid", "solar"), 10);
+        buffer.append(1000, new double[]{100, 1});
+        buffer.append(2000, new double[]{-200, Double.NaN});
+        buffer.append(3000, new double[]{400, 3});
+        buffer.append(4000, new double[]{50, 4});
+
+        WindowStats grid = buffer.stats("grid", 1000, 4000).orElseThrow();
+        assertEquals(100, grid.mean());
+        assertEquals(-200, grid.min());
+        assertEquals(400, grid.max());
+        assertEquals(400, grid.last());
+        assertEquals(3, grid.samples());
+
+        WindowStats solar = buffer.stats("solar", 1000, 4000).orElseThrow();
+        assertEquals(2, solar.samples());
+        assertTrue(buffer.stats("solar", 2000, 3000).isEmpty());
+    }
+
+    @Test
+    void shouldOverwriteOldestSamplesWhenFull() {
+        SampleRingBuffer buffer = new SampleRingBuffer(List.of("grid"), 3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.append(i * 1000L, new double[]{i});
+        }
+
+        assertEquals(3, buffer.size());
+        SampleRingBuffer.Series series = buffer.since(0);
+        assertArrayEquals(new long[]{3000, 4000, 5000}, series.times());
+        assertArrayEquals(new double[]{3, 4, 5}, series.values("grid"));
+        assertArrayEquals(new long[]{5000}, buffer.since(4500).times());
+    }
+}
@@ -0,0 +1,82 @@
+package com.rose.solnax.process.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GorillaBlockTest {
+
+    private static final long DAY = 1_740_787_200L; // 2025-03-01T00:00:00
+
+    @Test
+    void shouldRoundTripIrregularSamples() {
+        Random random = new Random(42);
+        long[] times = new long[2000];
+        int[] values = new int[2000];
+        times[0] = DAY;
+        values[0] = 0;
+        for (int i = 1; i < times.length; i++) {
+            // mostly 5 minutes apart with jitter, sometimes long gaps; values from flat to wild jumps
+            times[i] = times[i - 1] + switch (random.nextInt(10)) {
+                case 0 -> 1 + random.nextInt(50_000);
+                case 1, 2 -> 300 + random.nextInt(7) - 3;
+                default -> 300;
+            };
+            values[i] = switch (random.nextInt(5)) {
+                case 0 -> values[i - 1];
+                case 1 -> values[i - 1] + random.nextInt(200) - 100;
+                case 2 -> random.nextInt(20_000) - 10_000;
+                case 3 -> random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+                default -> values[i - 1] + random.nextInt(40_000) - 20_000;
+            };
+        }
+        GorillaBlock block = new GorillaBlock(times[0], values[0]);
+        for (int i = 1; i < times.length; i++) block.append(times[i], values[i]);
+
+        List<long[]> decoded = new ArrayList<>();
+        block.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (t, v) -> decoded.add(new long[]{t, v}));
+
+        assertEquals(times.length, decoded.size());
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], decoded.get(i)[0], "time " + i);
+            assertEquals(values[i], decoded.get(i)[1], "value " + i);
+        }
+    }
+
+    @Test
+    void shouldVisitOnlyTheRequestedRange() {
+        GorillaBlock block = new GorillaBlock(DAY, 10);
+        for (int i = 1; i < 288; i++) block.append(DAY + 300L * i, 10 + i);
+
+        List<Integer> values = new ArrayList<>();
+        block.forEach(DAY + 3600, DAY + 7200, (t, v) -> values.add(v));
+
+        assertEquals(List.of(22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34), values);
+    }
+
+    @Test
+    void shouldStoreASteadyDayInAFewHundredBytes() {
+        GorillaBlock block = new GorillaBlock(DAY, 1500);
+        Random random = new Random(7);
+        int value = 1500;
+        for (int i = 1; i < 288; i++) {
+            value += random.nextInt(100) - 50;
+            block.append(DAY + 300L * i, value);
+        }
+        // 288 samples are 3456 bytes raw; here about 1 + 10 bits each plus buffer slack
+        assertTrue(block.sizeBytes() <= 600, "size " + block.sizeBytes());
+    }
+
+    @Test
+    void shouldRejectSamplesOutOfOrder() {
+        GorillaBlock block = new GorillaBlock(DAY, 1);
+        block.append(DAY + 300, 2);
+        assertThrows(IllegalArgumentException.class, () -> block.append(DAY + 300, 3));
+    }
+}
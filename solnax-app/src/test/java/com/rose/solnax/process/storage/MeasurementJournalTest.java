@@ -0,0 +1,158 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MeasurementJournalTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_000_000);
+
+    @TempDir
+    Path dir;
+
+    private MeasurementJournal open(int segmentSize) throws IOException {
+        MeasurementJournal journal = new MeasurementJournal(true, dir, segmentSize, 64, false);
+        journal.open();
+        return journal;
+    }
+
+    private static List<MeasurementRepository.Row> interval(LocalDateTime time) {
+        return List.of(new MeasurementRepository.Row(time, 1, 1500), new MeasurementRepository.Row(time, 2, null));
+    }
+
+    @Test
+    void shouldReadBackWhatWasAppendedAcrossSegments() throws IOException {
+        MeasurementJournal journal = open(140); // three 44 byte records per segment
+        for (int i = 0; i < 10; i++) journal.append(interval(T.plusMinutes(5L * i)));
+
+        MeasurementJournal.Batch batch = journal.read(0, 1000, T.plusDays(1));
+
+        assertEquals(20, batch.rows().size());
+        assertEquals(new MeasurementRepository.Row(T, 1, 1500), batch.rows().get(0));
+        assertNull(batch.rows().get(1).value());
+        assertEquals(T.plusMinutes(45), batch.rows().get(19).time());
+    }
+
+    @Test
+    void shouldStopAtRecordsNewerThanNotAfter() throws IOException {
+        MeasurementJournal journal = open(4096);
+        journal.append(interval(T));
+        long[] second = journal.append(interval(T.plusMinutes(5)));
+
+        MeasurementJournal.Batch batch = journal.read(0, 1000, T.plusMinutes(1));
+
+        assertEquals(2, batch.rows().size());
+        assertEquals(second[0], batch.end());
+    }
+
+    @Test
+    void shouldOnlyAdvanceTheCheckpointOverContiguousRanges() throws IOException {
+        MeasurementJournal journal = open(4096);
+        long[] first = journal.append(interval(T));
+        long[] second = journal.append(interval(T.plusMinutes(5)));
+
+        journal.persisted(second[0], second[1]); // the first one never made it
+        assertEquals(0, journal.checkpoint());
+
+        journal.persisted(first[0], first[1]);
+        journal.persisted(second[0], second[1]);
+        assertEquals(second[1], journal.checkpoint());
+        assertEquals(0, journal.read(journal.checkpoint(), 1000, T.plusDays(1)).rows().size());
+    }
+
+    @Test
+    void shouldAdvanceTheCheckpointAcrossASegmentRoll() throws IOException {
+        MeasurementJournal journal = open(140); // three 44 byte records per segment
+        for (int i = 0; i < 3; i++) {
+            long[] record = journal.append(interval(T.plusMinutes(5L * i)));
+            journal.persisted(record[0], record[1]);
+        }
+        long[] fourth = journal.append(interval(T.plusMinutes(15)));
+        long[] fifth = journal.append(interval(T.plusMinutes(20)));
+        assertEquals(0, (int) fourth[0]); // first record of the next segment
+
+        journal.persisted(fourth[0], fourth[1]);
+        assertEquals(fourth[1], journal.checkpoint());
+
+        // After a restart the end of the previous segment is read from its file
+        long[] sixth = journal.append(interval(T.plusMinutes(25)));
+        long[] next = journal.append(interval(T.plusMinutes(30)));
+        assertEquals(0, (int) next[0]);
+        journal.persisted(fifth[0], sixth[1]);
+        journal.destroy();
+        journal = open(140);
+        journal.persisted(next[0], next[1]);
+        assertEquals(next[1], journal.checkpoint());
+    }
+
+    @Test
+    void shouldNotSkipUnpersistedRecordsAtTheEndOfASegment() throws IOException {
+        MeasurementJournal journal = open(140);
+        long[] first = journal.append(interval(T));
+        journal.persisted(first[0], first[1]);
+        journal.append(interval(T.plusMinutes(5))); // never made it
+        journal.append(interval(T.plusMinutes(10)));
+        long[] fourth = journal.append(interval(T.plusMinutes(15)));
+
+        journal.persisted(fourth[0], fourth[1]);
+        assertEquals(first[1], journal.checkpoint());
+    }
+
+    @Test
+    void shouldRecoverAfterRestartAndCutOffATornRecord() throws IOException {
+        MeasurementJournal journal = open(4096);
+        long[] first = journal.append(interval(T));
+        journal.persisted(first[0], first[1]);
+        long[] second = journal.append(interval(T.plusMinutes(5)));
+        long[] torn = journal.append(interval(T.plusMinutes(10)));
+        journal.destroy();
+
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(torn[1] - 1); // corrupt the last byte of the last payload
+            file.write(0x7F);
+        }
+
+        MeasurementJournal reopened = open(4096);
+        assertEquals(first[1], reopened.checkpoint());
+        MeasurementJournal.Batch batch = reopened.read(reopened.checkpoint(), 1000, T.plusDays(1));
+        assertEquals(2, batch.rows().size());
+        assertEquals(second[1], batch.end());
+
+        long[] next = reopened.append(interval(T.plusMinutes(15)));
+        assertNotNull(next);
+        assertEquals(torn[0], next[0]); // the torn record's space is reused
+    }
+
+    @Test
+    void shouldDeleteSegmentsBeforeTheCheckpoint() throws IOException {
+        MeasurementJournal journal = open(140);
+        long[] last = null;
+        for (int i = 0; i < 7; i++) last = journal.append(interval(T.plusMinutes(5L * i)));
+        assertEquals(3, segments().size());
+
+        journal.persisted(0, last[1]);
+
+        assertEquals(2, journal.compact());
+        assertEquals(1, segments().size());
+        assertEquals(0, journal.pending());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.PowerLogStatsRepository;
+import com.rose.solnax.process.channels.ChannelRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class MeasurementWriterTest {
+
+    private final MeasurementRepository repository = mock(MeasurementRepository.class);
+    private final RollupManager rollupManager = mock(RollupManager.class);
+    private final ChannelRegistry channelRegistry = mock(ChannelRegistry.class);
+    private MeasurementWriter writer;
+
+    private MeasurementWriter writer(int capacity, int batchSize, Duration flushInterval) {
+        writer = new MeasurementWriter(repository, mock(PowerLogStatsRepository.class), rollupManager,
+                new MeasurementJournal(false, null, 0, 0, false), channelRegistry, new SimpleMeterRegistry(), capacity, batchSize, flushInterval, Duration.ofMillis(10));
+        writer.start();
+        return writer;
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (writer != null) writer.destroy();
+    }
+
+    private static List<MeasurementRepository.Row> interval(LocalDateTime time) {
+        return List.of(new MeasurementRepository.Row(time, 1, 100), new MeasurementRepository.Row(time, 2, -50));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldBatchQueuedIntervalsIntoOneInsertAndFlushOnShutdown() throws InterruptedException {
+        writer(100, 1000, Duration.ofHours(1));
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(writer.write(interval(t.plusMinutes(5L * i))));
+        }
+
+        writer.destroy();
+
+        ArgumentCaptor<List<MeasurementRepository.Row>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository).insert(batch.capture());
+        assertEquals(10, batch.getValue().size());
+        verify(rollupManager).refresh();
+    }
+
+    @Test
+    void shouldFlushWhenTheBatchIsFull() {
+        writer(100, 4, Duration.ofHours(1));
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 10, 0);
+        writer.write(interval(t));
+        writer.write(interval(t.plusMinutes(5)));
+
+        verify(repository, timeout(2000)).insert(anyList());
+    }
+
+    @Test
+    void shouldDropInsteadOfBlockingWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(inv -> {
+            blocked.await();
+            return null;
+        }).when(repository).insert(anyList());
+        writer(1, 1, Duration.ofMillis(10));
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+        writer.write(interval(t));                       // taken by the writer, stuck in insert
+        verify(repository, timeout(2000)).insert(anyList());
+        assertTrue(writer.write(interval(t.plusMinutes(5))));  // fills the queue
+        assertFalse(writer.write(interval(t.plusMinutes(10)))); // dropped after the enqueue timeout
+
+        blocked.countDown();
+        verify(repository, timeout(2000).atLeastOnce()).insert(anyList());
+    }
+}
@@ -0,0 +1,95 @@
+package com.rose.solnax.process.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionMaintenanceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PartitionMaintenance maintenance = new PartitionMaintenance(jdbcTemplate);
+
+    private void configure(int monthsAhead, Period retention, PartitionMaintenance.RetentionPolicy policy) {
+        ReflectionTestUtils.setField(maintenance, "monthsAhead", monthsAhead);
+        ReflectionTestUtils.setField(maintenance, "retention", retention);
+        ReflectionTestUtils.setField(maintenance, "retentionPolicy", policy);
+    }
+
+    private static String partition(YearMonth month) {
+        return String.format("measurement_%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    @Test
+    void shouldKeepEverythingWithZeroRetention() {
+        configure(3, Period.ZERO, PartitionMaintenance.RetentionPolicy.DROP);
+
+        assertFalse(maintenance.isExpired(YearMonth.of(1970, 1)));
+    }
+
+    @Test
+    void shouldExpireAMonthOnlyOnceAllOfItIsOlderThanTheRetention() {
+        // Retention ending exactly on the first day of a month a year ago
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusYears(1);
+        configure(3, Period.between(cutoff, LocalDate.now()), PartitionMaintenance.RetentionPolicy.DROP);
+        YearMonth cutoffMonth = YearMonth.from(cutoff);
+
+        assertTrue(maintenance.isExpired(cutoffMonth.minusMonths(6)));
+        assertTrue(maintenance.isExpired(cutoffMonth.minusMonths(1))); // ends on the cutoff
+        assertFalse(maintenance.isExpired(cutoffMonth)); // starts on the cutoff
+        assertFalse(maintenance.isExpired(YearMonth.now()));
+    }
+
+    @Test
+    void shouldCreateMonthsAheadIndexClosedMonthsAndDropExpiredOnes() {
+        configure(2, Period.ofYears(1), PartitionMaintenance.RetentionPolicy.DROP);
+        YearMonth now = YearMonth.now();
+        YearMonth expired = now.minusMonths(14);
+        YearMonth closed = now.minusMonths(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "measurement_default", partition(expired), partition(closed), partition(now), partition(now.plusMonths(1))));
+
+        maintenance.maintain();
+
+        for (int i = 0; i <= 2; i++) {
+            verify(jdbcTemplate).queryForObject("select ensure_measurement_partition(?)", String.class,
+                    now.plusMonths(i).atDay(1));
+        }
+        verify(jdbcTemplate, times(3)).queryForObject(anyString(), eq(String.class), (Object) any());
+        verify(jdbcTemplate).execute("drop table " + partition(expired));
+        verify(jdbcTemplate).execute("create index if not exists " + partition(closed) + "_time_brin on "
+                + partition(closed) + " using brin (time)");
+        verify(jdbcTemplate, never()).execute("create index if not exists " + partition(now) + "_time_brin on "
+                + partition(now) + " using brin (time)");
+        verify(jdbcTemplate, never()).execute(contains("measurement_default"));
+        verify(jdbcTemplate, times(2)).execute(anyString());
+    }
+
+    @Test
+    void shouldDetachExpiredMonthsWithTheDetachPolicy() {
+        configure(0, Period.ofMonths(6), PartitionMaintenance.RetentionPolicy.DETACH);
+        YearMonth expired = YearMonth.now().minusMonths(8);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(partition(expired)));
+
+        maintenance.maintain();
+
+        verify(jdbcTemplate).execute("alter table measurement detach partition " + partition(expired));
+        verify(jdbcTemplate, never()).execute("drop table " + partition(expired));
+    }
+}
@@ -0,0 +1,62 @@
+package com.rose.solnax.process.storage;
+
+import com.rose.solnax.model.repository.MeasurementRepository;
+import com.rose.solnax.model.repository.MeasurementSlots;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecentMeasurementCacheTest {
+
+    private final MeasurementRepository repository = mock(MeasurementRepository.class);
+    private final RecentMeasurementCache cache = new RecentMeasurementCache(repository, new SimpleMeterRegistry(), true, 3);
+
+    private static final LocalDateTime TODAY = LocalDate.now().atStartOfDay();
+
+    private static MeasurementRepository.Row row(LocalDateTime time, int channel, Integer value) {
+        return new MeasurementRepository.Row(time, channel, value);
+    }
+
+    @Test
+    void shouldOnlyCoverSamplesSinceStartupUntilWarmed() {
+        when(repository.findBetween(any(), any())).thenThrow(new IllegalStateException("database down"));
+        cache.warm();
+
+        assertFalse(cache.covers(TODAY));
+        assertTrue(cache.covers(LocalDateTime.now().plusSeconds(1)));
+    }
+
+    @Test
+    void shouldAnswerLikeTheRepositoryAfterWarming() {
+        LocalDateTime yesterday = TODAY.minusDays(1);
+        when(repository.findBetween(any(), any())).thenReturn(List.of(
+                row(yesterday, 1, 100), row(yesterday, 2, -40), row(yesterday.plusMinutes(1), 1, 999),
+                row(yesterday.plusMinutes(5), 1, 120), row(yesterday.plusMinutes(5), 2, null),
+                row(TODAY, 1, 90)));
+        cache.warm();
+        cache.append(List.of(row(TODAY.plusMinutes(5), 2, 7), row(TODAY.plusMinutes(5), 1, 80)));
+
+        assertTrue(cache.covers(TODAY.minusDays(2)));
+        assertFalse(cache.covers(TODAY.minusDays(3)));
+        MeasurementSlots slots = new MeasurementSlots(yesterday, TODAY.plusMinutes(10), Duration.ofMinutes(5));
+        cache.fill(slots);
+        assertEquals(2, slots.columns());
+        int[] channel1 = slots.values(slots.channelId(0) == 1 ? 0 : 1);
+        assertEquals(100, channel1[0]); // earliest value of the slot, like the repository
+        assertEquals(120, channel1[1]);
+        assertEquals(90, channel1[288]);
+        assertEquals(MeasurementSlots.ABSENT, channel1[2]);
+        assertEquals(80, channel1[289]);
+    }
+}